@@ -1,7 +1,6 @@
-package com.bankingplatform.streamprocessor.model;
+package com.bankingplatform.common.event;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -10,6 +9,8 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+// Canonical banking-transactions event, written by the generator and read by the stream
+// processor and the notification service
 @Data
 @Builder
 @NoArgsConstructor
@@ -19,6 +20,8 @@ public class Transaction {
     private String transactionId;
     private String customerId;
     private String accountNumber;
+    // Receiving account of a TRANSFER
+    private String counterpartyAccount;
 
     @JsonFormat(shape = JsonFormat.Shape.STRING)
     private TransactionType type;
@@ -0,0 +1,5 @@
+package com.bankingplatform.common.event;
+
+public enum TransactionStatus {
+    PENDING, COMPLETED, FAILED, CANCELLED, PROCESSING
+}
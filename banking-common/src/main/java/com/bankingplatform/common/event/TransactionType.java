@@ -1,4 +1,4 @@
-package com.bankingplatform.streamprocessor.model;
+package com.bankingplatform.common.event;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 
@@ -9,4 +9,4 @@ public enum TransactionType {
     public static TransactionType fromValue(String value) {
         return TransactionType.valueOf(value.toUpperCase());
     }
-}
\ No newline at end of file
+}
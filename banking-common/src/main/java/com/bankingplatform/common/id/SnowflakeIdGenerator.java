@@ -0,0 +1,82 @@
+package com.bankingplatform.common.id;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.InetAddress;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// k-sorted, collision-free ids in the Snowflake layout: 41 bits of milliseconds since EPOCH,
+// 10 bits of worker id and 12 bits of sequence. Timestamp and sequence share one AtomicLong
+// advanced by compare-and-set, so there is no lock: more than 4096 ids in a millisecond borrow
+// the next millisecond, and a clock stepping back continues from the last id issued. Ids are
+// rendered as 13 fixed-width Crockford base32 characters, so string order is numeric order and
+// primary-key inserts land at the right edge of the index. Each service registers one as a bean.
+@Slf4j
+public class SnowflakeIdGenerator {
+
+    // 2024-01-01T00:00:00Z; 41 bits of milliseconds last about 69 years from here
+    public static final long EPOCH_MILLIS = 1704067200000L;
+    // Configured worker id that asks for one derived from host name and pid
+    public static final long DERIVED_WORKER_ID = -1;
+
+    private static final int WORKER_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_WORKER_ID = (1L << WORKER_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;
+
+    private final long workerId;
+    private final LongSupplier clock;
+    // (milliseconds since EPOCH << SEQUENCE_BITS) | sequence of the last id issued
+    private final AtomicLong lastTimeAndSequence = new AtomicLong();
+
+    // Instances of one service need distinct worker ids; DERIVED_WORKER_ID derives one from host
+    // name and pid, which can collide and should be pinned when scaling out. Any other id outside
+    // 0-1023 is rejected, since masking it could hand two instances the same id.
+    public SnowflakeIdGenerator(long configuredWorkerId) {
+        this(configuredWorkerId, System::currentTimeMillis);
+    }
+
+    public SnowflakeIdGenerator(long configuredWorkerId, LongSupplier clock) {
+        if (configuredWorkerId != DERIVED_WORKER_ID && (configuredWorkerId < 0 || configuredWorkerId > MAX_WORKER_ID)) {
+            throw new IllegalArgumentException("Worker id must be between 0 and " + MAX_WORKER_ID
+                    + ", or " + DERIVED_WORKER_ID + " to derive one, but was " + configuredWorkerId);
+        }
+        this.workerId = configuredWorkerId == DERIVED_WORKER_ID ? derivedWorkerId() : configuredWorkerId;
+        this.clock = clock;
+        log.info("Snowflake id generator using worker id {}", workerId);
+    }
+
+    public long nextId() {
+        long now = (clock.getAsLong() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long next = lastTimeAndSequence.updateAndGet(last -> Math.max(last + 1, now));
+        return (next >>> SEQUENCE_BITS) << (WORKER_BITS + SEQUENCE_BITS)
+                | workerId << SEQUENCE_BITS
+                | next & SEQUENCE_MASK;
+    }
+
+    public String nextId(String prefix) {
+        return prefix + encode(nextId());
+    }
+
+    public static String encode(long id) {
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    private static long derivedWorkerId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return (host.hashCode() * 31L + ProcessHandle.current().pid()) & MAX_WORKER_ID;
+    }
+}
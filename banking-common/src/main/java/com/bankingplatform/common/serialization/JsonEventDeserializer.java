@@ -0,0 +1,28 @@
+package com.bankingplatform.common.serialization;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+// Reads one fixed event type with a reader bound once at construction. Type headers on the
+// record are ignored, so producers in other packages need no trusted-package configuration.
+public class JsonEventDeserializer<T> implements Deserializer<T> {
+
+    private final ObjectReader reader;
+
+    public JsonEventDeserializer(Class<T> type) {
+        this.reader = EventJson.MAPPER.readerFor(type);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return reader.readValue(data);
+        } catch (Exception e) {
+            throw new SerializationException("Could not deserialize event from topic " + topic, e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.bankingplatform.common.serialization;
+
+import org.apache.kafka.common.serialization.Serdes;
+
+// Serde for one fixed type over JsonEventSerializer and JsonEventDeserializer, for topics and
+// state stores that only ever hold that type
+public class JsonEventSerde<T> extends Serdes.WrapperSerde<T> {
+
+    public JsonEventSerde(Class<T> type) {
+        super(new JsonEventSerializer<>(type), new JsonEventDeserializer<>(type));
+    }
+}
@@ -0,0 +1,28 @@
+package com.bankingplatform.common.serialization;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+// Writes one fixed event type with a writer bound once at construction: no type headers and
+// no per-record type lookup
+public class JsonEventSerializer<T> implements Serializer<T> {
+
+    private final ObjectWriter writer;
+
+    public JsonEventSerializer(Class<T> type) {
+        this.writer = EventJson.MAPPER.writerFor(type);
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return writer.writeValueAsBytes(data);
+        } catch (Exception e) {
+            throw new SerializationException("Could not serialize event for topic " + topic, e);
+        }
+    }
+}
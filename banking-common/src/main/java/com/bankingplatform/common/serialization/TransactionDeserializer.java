@@ -0,0 +1,11 @@
+package com.bankingplatform.common.serialization;
+
+import com.bankingplatform.common.event.Transaction;
+
+// No-arg so it can be configured by class name
+public class TransactionDeserializer extends JsonEventDeserializer<Transaction> {
+
+    public TransactionDeserializer() {
+        super(Transaction.class);
+    }
+}
@@ -0,0 +1,12 @@
+package com.bankingplatform.common.serialization;
+
+import com.bankingplatform.common.event.Transaction;
+import org.apache.kafka.common.serialization.Serdes;
+
+// No-arg so it can be the Kafka Streams default value serde
+public class TransactionSerde extends Serdes.WrapperSerde<Transaction> {
+
+    public TransactionSerde() {
+        super(new TransactionSerializer(), new TransactionDeserializer());
+    }
+}
@@ -0,0 +1,136 @@
+package com.bankingplatform.common.id;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final long NOW = SnowflakeIdGenerator.EPOCH_MILLIS + 1_000_000L;
+
+    @Test
+    void idsAreUniqueAcrossThreads() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 50_000; i++) {
+                        ids.add(generator.nextId());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(ids).hasSize(200_000);
+    }
+
+    @Test
+    void layoutHoldsTimestampWorkerAndSequence() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1023, () -> NOW);
+
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        assertThat(timestampOf(first)).isEqualTo(NOW);
+        assertThat(workerOf(first)).isEqualTo(1023);
+        assertThat(sequenceOf(first)).isZero();
+        assertThat(sequenceOf(second)).isEqualTo(1);
+    }
+
+    @Test
+    void exhaustedSequenceBorrowsTheNextMillisecond() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3, () -> NOW);
+
+        long last = 0;
+        for (int i = 0; i < 4096; i++) {
+            last = generator.nextId();
+        }
+        long borrowed = generator.nextId();
+
+        assertThat(timestampOf(last)).isEqualTo(NOW);
+        assertThat(sequenceOf(last)).isEqualTo(4095);
+        assertThat(timestampOf(borrowed)).isEqualTo(NOW + 1);
+        assertThat(sequenceOf(borrowed)).isZero();
+        assertThat(workerOf(borrowed)).isEqualTo(3);
+    }
+
+    @Test
+    void clockSteppingBackContinuesFromTheLastId() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(5, clock::get);
+        long beforeStep = generator.nextId();
+
+        clock.set(NOW - 10_000);
+        long afterStep = generator.nextId();
+        clock.set(NOW + 1);
+        long caughtUp = generator.nextId();
+
+        assertThat(afterStep).isGreaterThan(beforeStep);
+        assertThat(timestampOf(afterStep)).isEqualTo(NOW);
+        assertThat(caughtUp).isGreaterThan(afterStep);
+        assertThat(timestampOf(caughtUp)).isEqualTo(NOW + 1);
+        assertThat(sequenceOf(caughtUp)).isZero();
+    }
+
+    @Test
+    void encodedIdsSortLikeTheIds() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0, clock::get);
+        List<String> encoded = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            clock.addAndGet(i % 3);
+            encoded.add(generator.nextId("TXN"));
+        }
+
+        assertThat(encoded).isSorted().doesNotHaveDuplicates();
+        assertThat(encoded).allSatisfy(id -> assertThat(id).hasSize(16));
+        assertThat(SnowflakeIdGenerator.encode(Long.MAX_VALUE)).isEqualTo("7ZZZZZZZZZZZZ");
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {-2, 1024, 4096})
+    void rejectsWorkerIdsOutsideTheRange(long workerId) {
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(workerId))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining(String.valueOf(workerId));
+    }
+
+    @Test
+    void derivesAWorkerIdInRange() {
+        long id = new SnowflakeIdGenerator(SnowflakeIdGenerator.DERIVED_WORKER_ID, () -> NOW).nextId();
+
+        assertThat(workerOf(id)).isBetween(0L, 1023L);
+    }
+
+    private static long timestampOf(long id) {
+        return (id >>> 22) + SnowflakeIdGenerator.EPOCH_MILLIS;
+    }
+
+    private static long workerOf(long id) {
+        return (id >>> 12) & 1023;
+    }
+
+    private static long sequenceOf(long id) {
+        return id & 4095;
+    }
+}
@@ -5,6 +5,7 @@ import com.bankingplatform.notificationservice.model.NotificationChannel;
 import com.bankingplatform.notificationservice.model.NotificationPriority;
 import com.bankingplatform.notificationservice.model.NotificationStatus;
 import com.bankingplatform.notificationservice.model.NotificationType;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -12,6 +13,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
 
@@ -26,12 +28,18 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class NotificationEntity {
+public class NotificationEntity implements Persistable<String> {
 
+    // Assigned from SnowflakeIdGenerator, so the id alone cannot tell a new row from a stored one
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
     private String id;
 
+    // Lets save() insert without first selecting the assigned id
+    @Transient
+    @JsonIgnore
+    @Builder.Default
+    private boolean isNew = true;
+
     @Column(nullable = false)
     private String customerId;
 
@@ -78,5 +86,11 @@ public class NotificationEntity {
     private String sourceAlertId; // For fraud alerts
     private String transactionId;
 
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
 
 }
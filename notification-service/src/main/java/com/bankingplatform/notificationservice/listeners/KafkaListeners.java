@@ -1,5 +1,6 @@
 package com.bankingplatform.notificationservice.listeners;
 
+import com.bankingplatform.common.event.Transaction;
 import com.bankingplatform.notificationservice.model.FraudAlert;
 import com.bankingplatform.notificationservice.model.NotificationChannel;
 import com.bankingplatform.notificationservice.model.NotificationPriority;
@@ -16,6 +17,7 @@ import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
+import java.util.Objects;
 
 @Slf4j
 @Component
@@ -92,10 +94,10 @@ public class KafkaListeners {
     @KafkaListener(
             topics = "banking-transactions",
             groupId = "notification-service-transactions",
-            containerFactory = "genericKafkaListenerContainerFactory"
+            containerFactory = "transactionKafkaListenerContainerFactory"
     )
     public void handleTransactionNotification(
-            @Payload String transactionJson,
+            @Payload Transaction transaction,
             @Header(KafkaHeaders.RECEIVED_KEY) String customerId,
             Acknowledgment acknowledgment) {
 
@@ -108,7 +110,7 @@ public class KafkaListeners {
                     .channel(NotificationChannel.EMAIL)
                     .priority(NotificationPriority.NORMAL)
                     .subject("Transaction Confirmation")
-                    .templateData(Map.of("transactionData", transactionJson))
+                    .templateData(createTransactionTemplateData(transaction))
                     .build();
 
             notificationService.sendNotification(notificationRequest);
@@ -127,6 +129,17 @@ public class KafkaListeners {
         return NotificationPriority.LOW;
     }
 
+    private Map<String, Object> createTransactionTemplateData(Transaction transaction) {
+        return Map.of(
+                "transactionId", Objects.requireNonNullElse(transaction.getTransactionId(), "N/A"),
+                "type", transaction.getType() != null ? transaction.getType().toString() : "N/A",
+                "amount", transaction.getAmount() != null ? transaction.getAmount().toString() : "N/A",
+                "currency", Objects.requireNonNullElse(transaction.getCurrency(), ""),
+                "merchantName", Objects.requireNonNullElse(transaction.getMerchantName(), "N/A"),
+                "timestamp", transaction.getTimestamp() != null ? transaction.getTimestamp().toString() : "N/A"
+        );
+    }
+
     private Map<String, Object> createFraudAlertTemplateData(FraudAlert fraudAlert) {
         return Map.of(
                 "alertId", fraudAlert.getAlertId(),
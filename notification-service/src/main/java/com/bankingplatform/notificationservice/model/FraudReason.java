@@ -6,5 +6,10 @@ public enum FraudReason {
     UNUSUAL_LOCATION,
     HIGH_RISK_SCORE,
     VELOCITY_CHECK_FAILED,
-    SUSPICIOUS_PATTERN
+    SUSPICIOUS_PATTERN,
+    IMPOSSIBLE_TRAVEL,
+    DEVICE_IP_VELOCITY,
+    MODEL_SCORE,
+    ACCOUNT_RESTRICTION,
+    OVERDRAFT_BREACH
 }
\ No newline at end of file
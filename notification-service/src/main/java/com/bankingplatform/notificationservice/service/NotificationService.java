@@ -1,5 +1,6 @@
 // NotificationService.java
 package com.bankingplatform.notificationservice.service;
+import com.bankingplatform.common.id.SnowflakeIdGenerator;
 import com.bankingplatform.notificationservice.entity.CustomerContactEntity;
 import com.bankingplatform.notificationservice.entity.NotificationEntity;
 import com.bankingplatform.notificationservice.model.*;
@@ -32,6 +33,7 @@ public class NotificationService {
     private final SmsService smsService;
     private final WebSocketService webSocketService;
     private final MeterRegistry meterRegistry;
+    private final SnowflakeIdGenerator idGenerator;
 
     // Metrics
     private Counter notificationsProcessed;
@@ -243,6 +245,7 @@ public class NotificationService {
 
         // Create notification entity
         NotificationEntity notification = NotificationEntity.builder()
+                .id(idGenerator.nextId("NTF-"))
                 .customerId(request.getCustomerId())
                 .type(mapToEntityType(request.getType()))
                 .channel(channel)
@@ -0,0 +1,72 @@
+package com.bankingplatform.streamprocessor.service;
+
+import com.bankingplatform.common.event.Transaction;
+import com.bankingplatform.common.event.TransactionType;
+import com.bankingplatform.streamprocessor.model.CustomerProfile;
+import com.bankingplatform.streamprocessor.model.TransactionContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// FraudScoringService.score for a customer with a full profile. Run with -prof gc: the
+// per-transaction path is meant to allocate nothing, so gc.alloc.rate.norm should stay near 0.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FraudScoringBenchmark {
+
+    private FraudScoringService scoring;
+    private Transaction transaction;
+    private TransactionContext context;
+
+    @Setup
+    public void setUp() throws Exception {
+        scoring = new FraudScoringService(new DefaultResourceLoader(), new ObjectMapper());
+        ReflectionTestUtils.setField(scoring, "modelLocation", "classpath:fraud-model.json");
+        scoring.init();
+
+        LocalDateTime now = LocalDateTime.of(2026, 3, 14, 23, 30);
+        long nowMillis = CustomerProfileService.eventMillis(Transaction.builder().timestamp(now).build());
+        CustomerProfile profile = new CustomerProfile();
+        for (int i = 0; i < 50; i++) {
+            long seenMillis = nowMillis - (50 - i) * 3_600_000L;
+            profile.getAmounts().add(100 + i);
+            profile.getLocations().record(i % 4, seenMillis, 30L * 86_400_000L);
+            profile.setLastCityId(i % 4);
+            profile.setLastSeenMillis(seenMillis);
+        }
+
+        transaction = Transaction.builder()
+                .transactionId("TXN-1")
+                .customerId("CUST-1")
+                .type(TransactionType.PAYMENT)
+                .amount(new BigDecimal("2500.00"))
+                .sourceLocation("Agadir")
+                .timestamp(now)
+                .isInternational(true)
+                .build();
+        context = TransactionContext.builder().profile(profile).build();
+    }
+
+    @Benchmark
+    public double score() {
+        return scoring.score(transaction, context);
+    }
+}
@@ -0,0 +1,15 @@
+package com.bankingplatform.streamprocessor.config;
+
+import com.bankingplatform.common.id.SnowflakeIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdGeneratorConfig {
+
+    @Bean
+    public SnowflakeIdGenerator snowflakeIdGenerator(@Value("${banking.id.worker-id:-1}") long workerId) {
+        return new SnowflakeIdGenerator(workerId);
+    }
+}
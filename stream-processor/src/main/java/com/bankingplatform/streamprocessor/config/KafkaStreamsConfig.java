@@ -1,9 +1,12 @@
 package com.bankingplatform.streamprocessor.config;
 
-import com.bankingplatform.streamprocessor.model.Transaction;
+import com.bankingplatform.common.event.Transaction;
+import com.bankingplatform.common.serialization.TransactionSerde;
+import com.bankingplatform.streamprocessor.service.DeadLetterService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.streams.StreamsConfig;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,8 +15,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafkaStreams;
 import org.springframework.kafka.annotation.KafkaStreamsDefaultConfiguration;
 import org.springframework.kafka.config.KafkaStreamsConfiguration;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerde;
+import org.springframework.kafka.streams.RecoveringDeserializationExceptionHandler;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -30,27 +32,24 @@ public class KafkaStreamsConfig {
     private String applicationId;
 
     @Bean(name = KafkaStreamsDefaultConfiguration.DEFAULT_STREAMS_CONFIG_BEAN_NAME)
-    public KafkaStreamsConfiguration kStreamsConfig() {
+    public KafkaStreamsConfiguration kStreamsConfig(DeadLetterService deadLetterService) {
         Map<String, Object> props = new HashMap<>();
 
         props.put(StreamsConfig.APPLICATION_ID_CONFIG, applicationId);
         props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
 
         props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
-        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, JsonSerde.class.getName());
-
-        // Force deserialization into our Transaction model
-        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, Transaction.class.getName());
-        props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, TransactionSerde.class.getName());
 
         props.put(StreamsConfig.PROCESSING_GUARANTEE_CONFIG, StreamsConfig.EXACTLY_ONCE_V2);
         props.put(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG, 1000);
         props.put(StreamsConfig.CACHE_MAX_BYTES_BUFFERING_CONFIG, 10 * 1024 * 1024L);
         props.put(StreamsConfig.STATE_DIR_CONFIG, "/tmp/kafka-streams/" + applicationId);
 
-        // Handle deserialization errors gracefully
+        // Send records that cannot be deserialized to the dead-letter topic and continue
         props.put(StreamsConfig.DEFAULT_DESERIALIZATION_EXCEPTION_HANDLER_CLASS_CONFIG,
-                org.apache.kafka.streams.errors.LogAndContinueExceptionHandler.class);
+                RecoveringDeserializationExceptionHandler.class);
+        props.put(RecoveringDeserializationExceptionHandler.KSTREAM_DESERIALIZATION_RECOVERER, deadLetterService);
 
         log.info("Kafka Streams config initialized for appId={}", applicationId);
         return new KafkaStreamsConfiguration(props);
@@ -63,16 +62,9 @@ public class KafkaStreamsConfig {
         return mapper;
     }
 
+    // Fixed-type serde from banking-common: no type headers or trusted packages to resolve
     @Bean
-    public JsonSerde<Transaction> transactionSerde(ObjectMapper mapper) {
-        JsonSerde<Transaction> serde = new JsonSerde<>(Transaction.class, mapper);
-        serde.deserializer().ignoreTypeHeaders();  // ignore producer type headers
-        serde.deserializer().trustedPackages(
-                "com.bankingplatform.transactiongenerator.model," +
-                        "com.bankingplatform.streamprocessor.model," +
-                        "java.util," +
-                        "java.lang"
-        );
-        return serde;
+    public Serde<Transaction> transactionSerde() {
+        return new TransactionSerde();
     }
 }
@@ -0,0 +1,37 @@
+package com.bankingplatform.streamprocessor.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+// Compacted topics holding the latest customers and accounts rows, read as GlobalKTables
+@Configuration
+public class ReferenceDataConfig {
+
+    @Value("${stream.reference.customers-topic:banking-customers}")
+    private String customersTopic;
+
+    @Value("${stream.reference.accounts-topic:banking-accounts}")
+    private String accountsTopic;
+
+    @Value("${stream.reference.partitions:3}")
+    private int partitions;
+
+    @Bean
+    public NewTopic customersReferenceTopic() {
+        return TopicBuilder.name(customersTopic)
+                .partitions(partitions)
+                .compact()
+                .build();
+    }
+
+    @Bean
+    public NewTopic accountsReferenceTopic() {
+        return TopicBuilder.name(accountsTopic)
+                .partitions(partitions)
+                .compact()
+                .build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.bankingplatform.streamprocessor.controller;
+
+import com.bankingplatform.streamprocessor.model.AccountBalance;
+import com.bankingplatform.streamprocessor.service.AccountBalanceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/accounts")
+@RequiredArgsConstructor
+public class AccountController {
+
+    private final AccountBalanceService accountBalanceService;
+
+    // Live balance from the stream state store rather than the periodically flushed table
+    @GetMapping("/{accountNumber}/balance")
+    public ResponseEntity<AccountBalance> getBalance(@PathVariable String accountNumber) {
+        return accountBalanceService.getBalance(accountNumber)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
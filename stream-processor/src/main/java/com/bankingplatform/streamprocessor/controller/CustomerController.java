@@ -6,10 +6,12 @@ import com.bankingplatform.streamprocessor.repository.TransactionRepository;
 import com.bankingplatform.streamprocessor.service.CustomerSummaryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +21,9 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class CustomerController {
 
+    // Lookback applied to the listing, in days; echoed so a client can tell a narrowed result apart
+    public static final String WINDOW_DAYS_HEADER = "X-Window-Days";
+
     private final CustomerSummaryService customerSummaryService;
     private final TransactionRepository transactionRepository;
 
@@ -33,18 +38,20 @@ public class CustomerController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // Most recent first, limited to the last `days` days (default 30) and `limit` rows (default 50)
     @GetMapping("/{customerId}/transactions")
     public ResponseEntity<List<TransactionEntity>> getCustomerTransactions(
             @PathVariable String customerId,
-            @RequestParam(defaultValue = "50") int limit) {
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "30") int days) {
 
         List<TransactionEntity> transactions = transactionRepository
-                .findByCustomerIdOrderByTimestampDesc(customerId)
-                .stream()
-                .limit(limit)
-                .toList();
+                .findByCustomerIdAndTimestampAfterOrderByTimestampDesc(customerId,
+                        LocalDateTime.now().minusDays(days), PageRequest.of(0, limit));
 
-        return ResponseEntity.ok(transactions);
+        return ResponseEntity.ok()
+                .header(WINDOW_DAYS_HEADER, String.valueOf(days))
+                .body(transactions);
     }
 
     @GetMapping("/high-value")
@@ -24,11 +24,15 @@ public class FraudController {
         return ResponseEntity.ok(alerts);
     }
 
+    // Limited to the last `days` days (default 90)
     @GetMapping("/alerts/customer/{customerId}")
     public ResponseEntity<List<FraudAlertEntity>> getCustomerAlerts(
-            @PathVariable String customerId) {
-        List<FraudAlertEntity> alerts = fraudDetectionService.getCustomerAlerts(customerId);
-        return ResponseEntity.ok(alerts);
+            @PathVariable String customerId,
+            @RequestParam(defaultValue = "90") int days) {
+        List<FraudAlertEntity> alerts = fraudDetectionService.getCustomerAlerts(customerId, days);
+        return ResponseEntity.ok()
+                .header(CustomerController.WINDOW_DAYS_HEADER, String.valueOf(days))
+                .body(alerts);
     }
 
     @PutMapping("/alerts/{alertId}/status")
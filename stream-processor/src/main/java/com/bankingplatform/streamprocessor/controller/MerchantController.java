@@ -0,0 +1,48 @@
+package com.bankingplatform.streamprocessor.controller;
+
+import com.bankingplatform.streamprocessor.model.MerchantStats;
+import com.bankingplatform.streamprocessor.service.MerchantStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/merchants")
+@RequiredArgsConstructor
+public class MerchantController {
+
+    private final MerchantStatsService merchantStatsService;
+
+    // Volume and alert rate in the current window
+    @GetMapping("/{merchantName}")
+    public ResponseEntity<MerchantStats> getMerchant(@PathVariable String merchantName) {
+        return merchantStatsService.getMerchant(merchantName)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{merchantName}/history")
+    public ResponseEntity<List<MerchantStats>> getMerchantHistory(
+            @PathVariable String merchantName,
+            @RequestParam(defaultValue = "24") int hours) {
+        return ResponseEntity.ok(merchantStatsService.getMerchantHistory(merchantName, hours));
+    }
+
+    @GetMapping("/categories/{merchantCategory}")
+    public ResponseEntity<MerchantStats> getCategory(@PathVariable String merchantCategory) {
+        return merchantStatsService.getCategory(merchantCategory)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/categories/{merchantCategory}/history")
+    public ResponseEntity<List<MerchantStats>> getCategoryHistory(
+            @PathVariable String merchantCategory,
+            @RequestParam(defaultValue = "24") int hours) {
+        return ResponseEntity.ok(merchantStatsService.getCategoryHistory(merchantCategory, hours));
+    }
+}
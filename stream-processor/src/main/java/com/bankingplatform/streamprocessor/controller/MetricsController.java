@@ -2,11 +2,14 @@ package com.bankingplatform.streamprocessor.controller;
 
 import com.bankingplatform.streamprocessor.entity.TransactionMetricsEntity;
 import com.bankingplatform.streamprocessor.service.MetricsAggregationService;
+import com.bankingplatform.streamprocessor.service.MetricsBroadcastService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -19,19 +22,35 @@ import java.util.Map;
 public class MetricsController {
 
     private final MetricsAggregationService metricsService;
+    private final MetricsBroadcastService broadcastService;
 
+    // Served from the shared once-per-second snapshot
     @GetMapping("/realtime")
     public ResponseEntity<Map<String, Object>> getRealTimeMetrics() {
-        Map<String, Object> metrics = metricsService.getRealTimeMetrics();
+        Map<String, Object> metrics = broadcastService.getLatestSnapshot();
         return ResponseEntity.ok(metrics);
     }
 
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRealTimeMetrics() {
+        return broadcastService.subscribe();
+    }
+
     @GetMapping("/current")
     public ResponseEntity<TransactionMetricsEntity> getCurrentMetrics() {
         TransactionMetricsEntity metrics = metricsService.getCurrentMetrics();
         return metrics != null ? ResponseEntity.ok(metrics) : ResponseEntity.noContent().build();
     }
 
+    // Defaults to the last closed hour
+    @GetMapping("/hourly-summary")
+    public ResponseEntity<TransactionMetricsEntity> getHourlySummary(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hour) {
+        TransactionMetricsEntity summary = metricsService.getHourlySummary(
+                hour != null ? hour : LocalDateTime.now().minusHours(1));
+        return summary != null ? ResponseEntity.ok(summary) : ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/recent")
     public ResponseEntity<List<TransactionMetricsEntity>> getRecentMetrics(
             @RequestParam(defaultValue = "24") int hours) {
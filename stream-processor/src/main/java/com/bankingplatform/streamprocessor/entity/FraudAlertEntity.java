@@ -1,30 +1,36 @@
 package com.bankingplatform.streamprocessor.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "fraud_alerts", indexes = {
-        @Index(name = "idx_customer_id_alert", columnList = "customer_id"),
-        @Index(name = "idx_timestamp_alert", columnList = "timestamp"),
-        @Index(name = "idx_status", columnList = "status")
-})
+// Partitioned by month on timestamp; schema and indexes are managed by the Flyway migrations
+// The id is unique across partitions through fraud_alerts_id_lookup (see V6)
+@Table(name = "fraud_alerts")
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class FraudAlertEntity {
+public class FraudAlertEntity implements Persistable<String> {
 
     @Id
     @Column(name = "alert_id")
     private String alertId;
 
+    // Assigned from SnowflakeIdGenerator; lets saveAll() insert without selecting each id first
+    @Transient
+    @JsonIgnore
+    @Builder.Default
+    private boolean isNew = true;
+
     @Column(name = "customer_id", nullable = false)
     private String customerId;
 
@@ -60,9 +66,23 @@ public class FraudAlertEntity {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    @Override
+    @JsonIgnore
+    public String getId() {
+        return alertId;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
     public enum FraudReason {
         HIGH_AMOUNT, FREQUENT_TRANSACTIONS, UNUSUAL_LOCATION,
-        HIGH_RISK_SCORE, VELOCITY_CHECK_FAILED, SUSPICIOUS_PATTERN
+        HIGH_RISK_SCORE, VELOCITY_CHECK_FAILED, SUSPICIOUS_PATTERN,
+        IMPOSSIBLE_TRAVEL, DEVICE_IP_VELOCITY, MODEL_SCORE, ACCOUNT_RESTRICTION,
+        OVERDRAFT_BREACH
     }
 
     public enum AlertStatus {
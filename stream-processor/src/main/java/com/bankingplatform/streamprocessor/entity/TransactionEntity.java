@@ -1,29 +1,36 @@
 package com.bankingplatform.streamprocessor.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions", indexes = {
-        @Index(name = "idx_customer_id", columnList = "customerId"),
-        @Index(name = "idx_timestamp", columnList = "timestamp"),
-        @Index(name = "idx_merchant_category", columnList = "merchantCategory")
-})
+// Partitioned by month on timestamp; schema and indexes are managed by the Flyway migrations
+// The id is unique across partitions through transactions_id_lookup (see V6)
+@Table(name = "transactions")
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class TransactionEntity {
+public class TransactionEntity implements Persistable<String> {
 
     @Id
     private String transactionId;
 
+    // The id comes from the event, so save() and saveAll() would otherwise select each row
+    // before inserting it
+    @Transient
+    @JsonIgnore
+    @Builder.Default
+    private boolean isNew = true;
+
     @Column(nullable = false)
     private String customerId;
 
@@ -57,6 +64,18 @@ public class TransactionEntity {
     @Column(name = "processed_at")
     private LocalDateTime processedAt;
 
+    @Override
+    @JsonIgnore
+    public String getId() {
+        return transactionId;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
     public enum TransactionType {
         PAYMENT, TRANSFER, WITHDRAWAL, DEPOSIT, REFUND, SUBSCRIPTION, INVESTMENT
     }
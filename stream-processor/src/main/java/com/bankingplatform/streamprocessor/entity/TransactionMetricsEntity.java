@@ -47,9 +47,12 @@ public class TransactionMetricsEntity {
     @Column(name = "transactions_by_status", length = 1000, nullable = false)
     private String transactionsByStatus;
 
-    @Column(name = "transactions_by_location", length = 1000, nullable = false)
+    @Column(name = "transactions_by_location", length = 4000, nullable = false)
     private String transactionsByLocation;
 
+    @Column(name = "transactions_by_merchant", length = 4000, nullable = false)
+    private String transactionsByMerchant;
+
     @Column(name = "alerts_generated", nullable = false)
     private Long alertsGenerated;
 
@@ -0,0 +1,90 @@
+package com.bankingplatform.streamprocessor.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+@Entity
+@Table(name = "transaction_metrics_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_rollup_resolution_window",
+                columnNames = {"resolution", "window_start"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionMetricsRollupEntity {
+
+    @Id
+    @Column(columnDefinition = "uuid")
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Resolution resolution;
+
+    @Column(name = "window_start", nullable = false)
+    private LocalDateTime windowStart;
+
+    @Column(name = "window_end", nullable = false)
+    private LocalDateTime windowEnd;
+
+    @Column(name = "total_transactions", nullable = false)
+    private Long totalTransactions;
+
+    @Column(name = "total_amount", precision = 15, scale = 2, nullable = false)
+    private BigDecimal totalAmount;
+
+    @Column(name = "avg_amount", precision = 15, scale = 2, nullable = false)
+    private BigDecimal avgAmount;
+
+    @Column(name = "transactions_by_type", length = 1000, nullable = false)
+    private String transactionsByType;
+
+    @Column(name = "transactions_by_status", length = 1000, nullable = false)
+    private String transactionsByStatus;
+
+    @Column(name = "transactions_by_location", length = 4000, nullable = false)
+    private String transactionsByLocation;
+
+    @Column(name = "transactions_by_merchant", length = 4000, nullable = false)
+    private String transactionsByMerchant;
+
+    @Column(name = "alerts_generated", nullable = false)
+    private Long alertsGenerated;
+
+    @Column(name = "avg_risk_score", nullable = false)
+    private Double avgRiskScore;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // MINUTE windows are the raw rows in transaction_metrics; only HOUR and DAY are stored here
+    public enum Resolution {
+        MINUTE(ChronoUnit.MINUTES), HOUR(ChronoUnit.HOURS), DAY(ChronoUnit.DAYS);
+
+        private final ChronoUnit unit;
+
+        Resolution(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        public LocalDateTime windowStartOf(LocalDateTime time) {
+            return time.truncatedTo(unit);
+        }
+
+        public LocalDateTime windowEndOf(LocalDateTime windowStart) {
+            return windowStart.plus(1, unit);
+        }
+
+        public Resolution finer() {
+            return this == DAY ? HOUR : MINUTE;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.bankingplatform.streamprocessor.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Running balance of one account, kept in the account-balances state store
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalance {
+
+    private String accountNumber;
+    private BigDecimal balance;
+    private String lastTransactionId;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime lastTransactionAt;
+
+    // Changed since the balance was last written to the accounts table
+    private boolean dirty;
+
+    // Below the overdraft limit and already alerted; cleared once the balance is back within it
+    private boolean overdrawn;
+}
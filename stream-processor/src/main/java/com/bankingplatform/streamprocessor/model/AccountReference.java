@@ -0,0 +1,24 @@
+package com.bankingplatform.streamprocessor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Row of the accounts reference table as published to the compacted accounts topic
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountReference {
+
+    private String accountNumber;
+    private String customerId;
+    private String accountType;
+    private BigDecimal balance;
+    private String currency;
+    private String status;
+    private BigDecimal overdraftLimit;
+}
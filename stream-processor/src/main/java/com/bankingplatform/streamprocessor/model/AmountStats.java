@@ -0,0 +1,33 @@
+package com.bankingplatform.streamprocessor.model;
+
+import lombok.Data;
+
+// Running mean and variance of a customer's transaction amounts (Welford's algorithm):
+// three numbers, updated in O(1) per transaction and numerically stable for long histories.
+@Data
+public class AmountStats {
+
+    private long count;
+    private double mean;
+    // Sum of squared deviations from the running mean
+    private double m2;
+
+    public void add(double amount) {
+        count++;
+        double delta = amount - mean;
+        mean += delta / count;
+        m2 += delta * (amount - mean);
+    }
+
+    public AmountStats copy() {
+        AmountStats copy = new AmountStats();
+        copy.count = count;
+        copy.mean = mean;
+        copy.m2 = m2;
+        return copy;
+    }
+
+    public double standardDeviation() {
+        return count > 1 ? Math.sqrt(m2 / (count - 1)) : 0.0;
+    }
+}
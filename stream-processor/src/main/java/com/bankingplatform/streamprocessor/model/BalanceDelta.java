@@ -0,0 +1,23 @@
+package com.bankingplatform.streamprocessor.model;
+
+import com.bankingplatform.common.event.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// One leg of a transaction's effect on an account balance, repartitioned by account number.
+// A TRANSFER produces a debit on the sending account and a credit on the counterparty.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceDelta {
+
+    private String accountNumber;
+    // Signed: negative for money leaving the account
+    private BigDecimal amount;
+    private Transaction transaction;
+}
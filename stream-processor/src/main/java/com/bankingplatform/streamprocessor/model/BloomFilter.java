@@ -0,0 +1,48 @@
+package com.bankingplatform.streamprocessor.model;
+
+// Bloom filter over a caller-owned byte[] of bits, so filters can be stored as raw bytes in a
+// state store without a wrapper. The k probe positions come from the two halves of one 64-bit
+// hash (Kirsch-Mitzenmacher double hashing).
+public final class BloomFilter {
+
+    private BloomFilter() {
+    }
+
+    // Bytes for n insertions at false-positive rate p: m = -n ln p / (ln 2)^2
+    public static int optimalBytes(long expectedInsertions, double falsePositiveRate) {
+        double bits = -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        return (int) Math.max(8, Math.ceil(bits / 8));
+    }
+
+    // k = m/n ln 2
+    public static int optimalHashes(long expectedInsertions, int bytes) {
+        return Math.max(1, (int) Math.round((double) bytes * 8 / expectedInsertions * Math.log(2)));
+    }
+
+    public static void add(byte[] bits, int hashes, String value) {
+        long hash = HyperLogLog.hash(value);
+        long size = (long) bits.length * 8;
+        for (int i = 0; i < hashes; i++) {
+            long bit = position(hash, i, size);
+            bits[(int) (bit >>> 3)] |= (byte) (1 << (bit & 7));
+        }
+    }
+
+    public static boolean mightContain(byte[] bits, int hashes, String value) {
+        long hash = HyperLogLog.hash(value);
+        long size = (long) bits.length * 8;
+        for (int i = 0; i < hashes; i++) {
+            long bit = position(hash, i, size);
+            if ((bits[(int) (bit >>> 3)] & (1 << (bit & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long position(long hash, int i, long size) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return Math.floorMod(h1 + (long) i * h2, size);
+    }
+}
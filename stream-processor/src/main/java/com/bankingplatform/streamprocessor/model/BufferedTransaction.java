@@ -0,0 +1,23 @@
+package com.bankingplatform.streamprocessor.model;
+
+import com.bankingplatform.common.event.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A transaction parked in the micro-batch buffer store, with the source coordinates needed to
+// dead-letter it later from a punctuation, where no record metadata is available
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BufferedTransaction {
+
+    private String topic;
+    private int partition;
+    private long offset;
+    private long timestamp;
+    private String key;
+    private Transaction transaction;
+    private CustomerReference customer;
+    private AccountReference account;
+}
@@ -0,0 +1,46 @@
+package com.bankingplatform.streamprocessor.model;
+
+import com.bankingplatform.common.event.Transaction;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Aggregate of one customer activity session (transactions separated by less than the inactivity
+// gap). alertPending is set only by the update that first takes the session over a limit, so each
+// session raises at most one burst alert however long it keeps going.
+@Data
+@NoArgsConstructor
+public class BurstSession {
+
+    private long count;
+    private BigDecimal amount = BigDecimal.ZERO;
+    private Transaction lastTransaction;
+    private boolean alerted;
+    private boolean alertPending;
+
+    public BurstSession add(Transaction transaction, long maxCount, BigDecimal maxAmount) {
+        count++;
+        if (transaction.getAmount() != null) {
+            amount = amount.add(transaction.getAmount());
+        }
+        lastTransaction = transaction;
+        return settle(maxCount, maxAmount);
+    }
+
+    // Sessions merge when a transaction bridges the gap between them
+    public BurstSession merge(BurstSession other, long maxCount, BigDecimal maxAmount) {
+        BurstSession merged = new BurstSession();
+        merged.count = count + other.count;
+        merged.amount = amount.add(other.amount);
+        merged.lastTransaction = other.lastTransaction != null ? other.lastTransaction : lastTransaction;
+        merged.alerted = alerted || other.alerted;
+        return merged.settle(maxCount, maxAmount);
+    }
+
+    private BurstSession settle(long maxCount, BigDecimal maxAmount) {
+        alertPending = !alerted && (count > maxCount || amount.compareTo(maxAmount) > 0);
+        alerted = alerted || alertPending;
+        return this;
+    }
+}
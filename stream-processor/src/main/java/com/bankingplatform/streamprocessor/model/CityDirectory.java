@@ -0,0 +1,71 @@
+package com.bankingplatform.streamprocessor.model;
+
+// Fixed table of the cities that appear in sourceLocation (the generator's moroccanCities).
+// The array index is the city id stored in customer profiles, so entries may only be appended.
+// Coordinates sit in parallel primitive arrays so distance lookups allocate nothing.
+public final class CityDirectory {
+
+    private static final String[] NAMES = {
+            "Casablanca", "Rabat", "Marrakech", "Fez", "Tangier",
+            "Agadir", "Meknes", "Oujda", "Kenitra", "Tetouan"
+    };
+
+    // Degrees, same order as NAMES
+    private static final double[] LATITUDES = {
+            33.5731, 34.0209, 31.6295, 34.0181, 35.7595,
+            30.4278, 33.8935, 34.6814, 34.2610, 35.5785
+    };
+    private static final double[] LONGITUDES = {
+            -7.5898, -6.8416, -7.9811, -5.0078, -5.8340,
+            -9.5981, -5.5547, -1.9086, -6.5802, -5.3684
+    };
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private CityDirectory() {
+    }
+
+    // -1 for locations outside the table; those are not tracked. Matches like
+    // trim().equalsIgnoreCase() without building either string, as it runs for every transaction.
+    public static int idOf(String location) {
+        if (location == null) {
+            return -1;
+        }
+        int start = 0;
+        int end = location.length();
+        while (start < end && location.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && location.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].length() == end - start && location.regionMatches(true, start, NAMES[i], 0, end - start)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static String nameOf(int cityId) {
+        return cityId >= 0 && cityId < NAMES.length ? NAMES[cityId] : null;
+    }
+
+    public static int size() {
+        return NAMES.length;
+    }
+
+    // Great-circle (haversine) distance between two known cities
+    public static double distanceKm(int fromId, int toId) {
+        if (fromId == toId) {
+            return 0.0;
+        }
+        double lat1 = Math.toRadians(LATITUDES[fromId]);
+        double lat2 = Math.toRadians(LATITUDES[toId]);
+        double dLat = lat2 - lat1;
+        double dLon = Math.toRadians(LONGITUDES[toId] - LONGITUDES[fromId]);
+        double h = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(lat1) * Math.cos(lat2) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(h));
+    }
+}
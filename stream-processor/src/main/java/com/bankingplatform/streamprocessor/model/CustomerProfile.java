@@ -0,0 +1,35 @@
+package com.bankingplatform.streamprocessor.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Per-customer behavioural state kept in the customer-profiles Kafka Streams store.
+// Fraud rules read the profile as it was before the current transaction.
+@Data
+@NoArgsConstructor
+public class CustomerProfile {
+
+    private LocationHistory locations = new LocationHistory();
+
+    // Last known city and when the customer was seen there (event time, epoch millis)
+    private int lastCityId = -1;
+    private long lastSeenMillis;
+
+    // Approximate distinct devices and IP addresses over the recent rolling window
+    private RollingDistinctCount devices = new RollingDistinctCount();
+    private RollingDistinctCount ipAddresses = new RollingDistinctCount();
+
+    private AmountStats amounts = new AmountStats();
+
+    // Deep copy, for handing out the state before a transaction while folding it into another
+    public CustomerProfile copy() {
+        CustomerProfile copy = new CustomerProfile();
+        copy.locations = locations.copy();
+        copy.lastCityId = lastCityId;
+        copy.lastSeenMillis = lastSeenMillis;
+        copy.devices = devices.copy();
+        copy.ipAddresses = ipAddresses.copy();
+        copy.amounts = amounts.copy();
+        return copy;
+    }
+}
@@ -0,0 +1,20 @@
+package com.bankingplatform.streamprocessor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Row of the customers reference table as published to the compacted customers topic
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerReference {
+
+    private String customerId;
+    private String accountStatus;
+    private Double riskScore;
+    private String kycStatus;
+    private String timezone;
+}
@@ -0,0 +1,20 @@
+package com.bankingplatform.streamprocessor.model;
+
+import com.bankingplatform.common.event.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A transaction joined with its customer and account reference data; either side is null when
+// the reference topics have no entry for it
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnrichedTransaction {
+
+    private Transaction transaction;
+    private CustomerReference customer;
+    private AccountReference account;
+}
@@ -0,0 +1,61 @@
+package com.bankingplatform.streamprocessor.model;
+
+// HyperLogLog over a caller-owned byte[] of registers, so sketches can live inside serialized
+// profiles without wrapper objects. 2^7 registers keep a sketch at 128 bytes with about 9%
+// standard error; small cardinalities fall back to linear counting and are close to exact.
+public final class HyperLogLog {
+
+    public static final int PRECISION = 7;
+    public static final int REGISTERS = 1 << PRECISION;
+
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private HyperLogLog() {
+    }
+
+    public static void add(byte[] registers, String value) {
+        long hash = hash(value);
+        int index = index(hash);
+        registers[index] = (byte) Math.max(registers[index], rank(hash));
+    }
+
+    public static int index(long hash) {
+        return (int) (hash >>> (64 - PRECISION));
+    }
+
+    // Position of the first set bit after the index bits, 1-based
+    public static byte rank(long hash) {
+        return (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+    }
+
+    public static double estimate(int[] registerValues) {
+        double sum = 0;
+        int zeros = 0;
+        for (int value : registerValues) {
+            sum += 1.0 / (1L << value);
+            if (value == 0) {
+                zeros++;
+            }
+        }
+        double raw = ALPHA * REGISTERS * REGISTERS / sum;
+        if (raw <= 2.5 * REGISTERS && zeros > 0) {
+            return REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return raw;
+    }
+
+    // 64-bit FNV-1a over the UTF-16 chars followed by the murmur3 finaliser for avalanche
+    public static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,100 @@
+package com.bankingplatform.streamprocessor.model;
+
+import lombok.Data;
+
+import java.util.Arrays;
+
+// Small counted set of the cities a customer transacts from. Weights decay exponentially with
+// event time, and when all slots are taken a new city replaces the lightest one, so recent
+// habits win over old ones while the structure stays a fixed handful of primitives.
+@Data
+public class LocationHistory {
+
+    public static final int SLOTS = 8;
+
+    private int[] cityIds = emptySlots();
+    private float[] weights = new float[SLOTS];
+    // Event time (epoch millis) the weights were last decayed to
+    private long decayedTo;
+
+    public void record(int cityId, long eventMillis, long halfLifeMillis) {
+        decay(eventMillis, halfLifeMillis);
+        int slot = slotOf(cityId);
+        if (slot < 0) {
+            slot = lightestSlot();
+            cityIds[slot] = cityId;
+            weights[slot] = 0f;
+        }
+        weights[slot] += 1f;
+    }
+
+    // Familiar when the city holds one of the topN heaviest slots. Decay scales every weight
+    // by the same factor, so the ranking does not depend on when it was last applied.
+    public boolean isAmongTop(int cityId, int topN) {
+        int slot = slotOf(cityId);
+        if (slot < 0) {
+            return false;
+        }
+        int heavier = 0;
+        for (int i = 0; i < SLOTS; i++) {
+            if (weights[i] > weights[slot]) {
+                heavier++;
+            }
+        }
+        return heavier < topN;
+    }
+
+    public double totalWeight() {
+        double total = 0;
+        for (float weight : weights) {
+            total += weight;
+        }
+        return total;
+    }
+
+    public LocationHistory copy() {
+        LocationHistory copy = new LocationHistory();
+        copy.cityIds = cityIds.clone();
+        copy.weights = weights.clone();
+        copy.decayedTo = decayedTo;
+        return copy;
+    }
+
+    private void decay(long eventMillis, long halfLifeMillis) {
+        if (decayedTo > 0 && eventMillis > decayedTo) {
+            float factor = (float) Math.pow(0.5, (double) (eventMillis - decayedTo) / halfLifeMillis);
+            for (int i = 0; i < SLOTS; i++) {
+                weights[i] *= factor;
+            }
+        }
+        decayedTo = Math.max(decayedTo, eventMillis);
+    }
+
+    private int slotOf(int cityId) {
+        for (int i = 0; i < SLOTS; i++) {
+            if (cityIds[i] == cityId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int lightestSlot() {
+        int lightest = 0;
+        for (int i = 0; i < SLOTS; i++) {
+            if (cityIds[i] < 0) {
+                return i;
+            }
+            if (weights[i] < weights[lightest]) {
+                lightest = i;
+            }
+        }
+        return lightest;
+    }
+
+    private static int[] emptySlots() {
+        int[] slots = new int[SLOTS];
+        Arrays.fill(slots, -1);
+        return slots;
+    }
+}
@@ -0,0 +1,31 @@
+package com.bankingplatform.streamprocessor.model;
+
+import com.bankingplatform.common.event.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Outcome of one processed transaction as seen by the merchant aggregations
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MerchantActivity {
+
+    private String merchantName;
+    private String merchantCategory;
+    private BigDecimal amount;
+    private boolean flagged;
+
+    public static MerchantActivity of(Transaction transaction, boolean flagged) {
+        return MerchantActivity.builder()
+                .merchantName(transaction.getMerchantName())
+                .merchantCategory(transaction.getMerchantCategory())
+                .amount(transaction.getAmount())
+                .flagged(flagged)
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.bankingplatform.streamprocessor.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+
+// Per-window totals for a merchant or a merchant category. The window bounds are filled in from
+// the store key when the value is served and are not stored.
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MerchantStats {
+
+    private String merchantCategory;
+    private long transactionCount;
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+    private long alertCount;
+    private double alertRate;
+
+    private Instant windowStart;
+    private Instant windowEnd;
+
+    public MerchantStats add(MerchantActivity activity) {
+        if (activity.getMerchantCategory() != null) {
+            merchantCategory = activity.getMerchantCategory();
+        }
+        transactionCount++;
+        if (activity.getAmount() != null) {
+            totalAmount = totalAmount.add(activity.getAmount());
+        }
+        if (activity.isFlagged()) {
+            alertCount++;
+        }
+        alertRate = (double) alertCount / transactionCount;
+        return this;
+    }
+
+    public BigDecimal getAverageAmount() {
+        return transactionCount == 0
+                ? BigDecimal.ZERO
+                : totalAmount.divide(BigDecimal.valueOf(transactionCount), 2, RoundingMode.HALF_UP);
+    }
+}
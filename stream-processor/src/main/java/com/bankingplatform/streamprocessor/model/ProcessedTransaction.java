@@ -0,0 +1,17 @@
+package com.bankingplatform.streamprocessor.model;
+
+import com.bankingplatform.common.event.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A transaction the processing pipeline stored, forwarded to the merchant aggregations and the
+// balance projection; failed and redelivered records are never forwarded
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessedTransaction {
+
+    private Transaction transaction;
+    private boolean flagged;
+}
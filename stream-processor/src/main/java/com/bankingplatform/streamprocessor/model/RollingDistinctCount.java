@@ -0,0 +1,79 @@
+package com.bankingplatform.streamprocessor.model;
+
+import lombok.Data;
+
+import java.util.Arrays;
+
+// Approximate distinct count over a rolling window made of BUCKETS tumbling sub-windows, one
+// HyperLogLog sketch each. Sketches merge by register-wise max, so the window estimate never
+// needs the raw values and the size stays fixed however many transactions arrive.
+@Data
+public class RollingDistinctCount {
+
+    public static final int BUCKETS = 4;
+
+    private byte[][] buckets = new byte[BUCKETS][HyperLogLog.REGISTERS];
+    // Start (epoch millis) of the sub-window each bucket currently holds
+    private long[] bucketStarts = new long[BUCKETS];
+    private long bucketMillis;
+
+    public void add(String value, long eventMillis, long bucketMillis) {
+        if (value == null) {
+            return;
+        }
+        if (this.bucketMillis != bucketMillis) {
+            clear(bucketMillis);
+        }
+        long start = eventMillis - Math.floorMod(eventMillis, bucketMillis);
+        int bucket = (int) Math.floorMod(start / bucketMillis, (long) BUCKETS);
+        if (start > bucketStarts[bucket]) {
+            Arrays.fill(buckets[bucket], (byte) 0);
+            bucketStarts[bucket] = start;
+        } else if (start < bucketStarts[bucket]) {
+            // Older than the rolling window this slot has moved on to
+            return;
+        }
+        HyperLogLog.add(buckets[bucket], value);
+    }
+
+    // Distinct values in the window ending at nowMillis, counting the extra value as well
+    // when given, without modifying the sketch
+    public double estimateWith(String extra, long nowMillis) {
+        if (bucketMillis <= 0) {
+            return extra != null ? 1.0 : 0.0;
+        }
+        long oldestStart = nowMillis - Math.floorMod(nowMillis, bucketMillis) - (BUCKETS - 1) * bucketMillis;
+        int[] registers = new int[HyperLogLog.REGISTERS];
+        for (int b = 0; b < BUCKETS; b++) {
+            if (bucketStarts[b] >= oldestStart && bucketStarts[b] <= nowMillis) {
+                for (int r = 0; r < HyperLogLog.REGISTERS; r++) {
+                    registers[r] = Math.max(registers[r], buckets[b][r]);
+                }
+            }
+        }
+        if (extra != null) {
+            long hash = HyperLogLog.hash(extra);
+            int index = HyperLogLog.index(hash);
+            registers[index] = Math.max(registers[index], HyperLogLog.rank(hash));
+        }
+        return HyperLogLog.estimate(registers);
+    }
+
+    public RollingDistinctCount copy() {
+        RollingDistinctCount copy = new RollingDistinctCount();
+        for (int b = 0; b < BUCKETS; b++) {
+            copy.buckets[b] = buckets[b].clone();
+        }
+        copy.bucketStarts = bucketStarts.clone();
+        copy.bucketMillis = bucketMillis;
+        return copy;
+    }
+
+    private void clear(long bucketMillis) {
+        for (int b = 0; b < BUCKETS; b++) {
+            Arrays.fill(buckets[b], (byte) 0);
+            bucketStarts[b] = 0;
+        }
+        this.bucketMillis = bucketMillis;
+    }
+}
@@ -0,0 +1,25 @@
+package com.bankingplatform.streamprocessor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Stream state handed to the processing pipeline along with a transaction
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionContext {
+
+    // Null when the customer has no history yet or the state is not available (e.g. replay)
+    private CustomerProfile profile;
+
+    // Reference data joined from the customers and accounts GlobalKTables, null when unknown
+    private CustomerReference customer;
+    private AccountReference account;
+
+    public static TransactionContext empty() {
+        return new TransactionContext();
+    }
+}
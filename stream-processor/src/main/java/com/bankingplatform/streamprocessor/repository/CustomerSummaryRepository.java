@@ -1,7 +1,10 @@
 package com.bankingplatform.streamprocessor.repository;
 
 import com.bankingplatform.streamprocessor.entity.CustomerSummaryEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -9,10 +12,16 @@ import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CustomerSummaryRepository extends JpaRepository<CustomerSummaryEntity, String> {
 
+    // SELECT ... FOR UPDATE: serializes read-modify-write updates of one customer's summary
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CustomerSummaryEntity c WHERE c.customerId = :customerId")
+    Optional<CustomerSummaryEntity> findByIdForUpdate(@Param("customerId") String customerId);
+
     @Query("SELECT c FROM CustomerSummaryEntity c WHERE c.totalAmount > :minAmount " +
             "ORDER BY c.totalAmount DESC")
     List<CustomerSummaryEntity> findHighValueCustomers(@Param("minAmount") BigDecimal minAmount);
@@ -20,6 +29,11 @@ public interface CustomerSummaryRepository extends JpaRepository<CustomerSummary
     @Query("SELECT c FROM CustomerSummaryEntity c WHERE c.avgRiskScore > :riskThreshold")
     List<CustomerSummaryEntity> findHighRiskCustomers(@Param("riskThreshold") Double riskThreshold);
 
+    // Used to warm the in-memory leaderboards
+    List<CustomerSummaryEntity> findAllByOrderByTotalAmountDesc(Pageable pageable);
+
+    List<CustomerSummaryEntity> findByAvgRiskScoreNotNullOrderByAvgRiskScoreDesc(Pageable pageable);
+
     @Query("SELECT c FROM CustomerSummaryEntity c WHERE c.transactionsLast1Hour > :threshold")
     List<CustomerSummaryEntity> findCustomersWithHighActivity(@Param("threshold") Long threshold);
 
@@ -7,12 +7,14 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface FraudAlertRepository extends JpaRepository<FraudAlertEntity, String> {
 
-    List<FraudAlertEntity> findByCustomerIdOrderByTimestampDesc(String customerId);
+    List<FraudAlertEntity> findByCustomerIdAndTimestampAfterOrderByTimestampDesc(
+            String customerId, LocalDateTime since);
 
     List<FraudAlertEntity> findByStatusOrderByTimestampDesc(
             FraudAlertEntity.AlertStatus status);
@@ -31,4 +33,11 @@ public interface FraudAlertRepository extends JpaRepository<FraudAlertEntity, St
     @Query("SELECT f.reason, COUNT(f) FROM FraudAlertEntity f " +
             "WHERE f.timestamp >= :since GROUP BY f.reason ORDER BY COUNT(f) DESC")
     List<Object[]> findAlertReasonStatisticsSince(@Param("since") LocalDateTime since);
-}
\ No newline at end of file
+
+    // Transactions among the given ones that raised an alert; the customer ids let the
+    // (customer_id, timestamp) index narrow the scan
+    @Query("SELECT DISTINCT f.transactionId FROM FraudAlertEntity f " +
+            "WHERE f.customerId IN :customerIds AND f.transactionId IN :transactionIds")
+    List<String> findAlertedTransactionIds(@Param("customerIds") Collection<String> customerIds,
+                                           @Param("transactionIds") Collection<String> transactionIds);
+}
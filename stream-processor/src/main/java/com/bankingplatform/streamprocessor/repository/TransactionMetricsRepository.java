@@ -2,6 +2,7 @@ package com.bankingplatform.streamprocessor.repository;
 
 import com.bankingplatform.streamprocessor.entity.TransactionMetricsEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -24,4 +25,15 @@ public interface TransactionMetricsRepository extends JpaRepository<TransactionM
 
     @Query("SELECT MAX(t.windowStart) FROM TransactionMetricsEntity t")
     Optional<LocalDateTime> findLatestWindowStart();
-}
\ No newline at end of file
+
+    @Query("SELECT t FROM TransactionMetricsEntity t WHERE t.windowStart >= :from AND t.windowStart < :to " +
+            "ORDER BY t.windowStart")
+    List<TransactionMetricsEntity> findWindows(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT MIN(t.windowStart) FROM TransactionMetricsEntity t")
+    Optional<LocalDateTime> findEarliestWindowStart();
+
+    @Modifying
+    @Query("DELETE FROM TransactionMetricsEntity t WHERE t.windowStart < :cutoff")
+    int deleteWindowsBefore(@Param("cutoff") LocalDateTime cutoff);
+}
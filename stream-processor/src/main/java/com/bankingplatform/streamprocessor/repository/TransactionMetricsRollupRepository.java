@@ -0,0 +1,35 @@
+package com.bankingplatform.streamprocessor.repository;
+
+import com.bankingplatform.streamprocessor.entity.TransactionMetricsRollupEntity;
+import com.bankingplatform.streamprocessor.entity.TransactionMetricsRollupEntity.Resolution;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface TransactionMetricsRollupRepository extends JpaRepository<TransactionMetricsRollupEntity, UUID> {
+
+    @Query("SELECT r FROM TransactionMetricsRollupEntity r WHERE r.resolution = :resolution " +
+            "AND r.windowStart >= :from AND r.windowStart < :to ORDER BY r.windowStart")
+    List<TransactionMetricsRollupEntity> findWindows(@Param("resolution") Resolution resolution,
+                                                     @Param("from") LocalDateTime from,
+                                                     @Param("to") LocalDateTime to);
+
+    @Query("SELECT MAX(r.windowStart) FROM TransactionMetricsRollupEntity r WHERE r.resolution = :resolution")
+    Optional<LocalDateTime> findLatestWindowStart(@Param("resolution") Resolution resolution);
+
+    @Query("SELECT MIN(r.windowStart) FROM TransactionMetricsRollupEntity r WHERE r.resolution = :resolution")
+    Optional<LocalDateTime> findEarliestWindowStart(@Param("resolution") Resolution resolution);
+
+    @Modifying
+    @Query("DELETE FROM TransactionMetricsRollupEntity r WHERE r.resolution = :resolution " +
+            "AND r.windowStart < :cutoff")
+    int deleteWindowsBefore(@Param("resolution") Resolution resolution, @Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,6 +1,7 @@
 package com.bankingplatform.streamprocessor.repository;
 
 import com.bankingplatform.streamprocessor.entity.TransactionEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -8,12 +9,15 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<TransactionEntity, String> {
 
-    List<TransactionEntity> findByCustomerIdOrderByTimestampDesc(String customerId);
+    // Bounded by time so only the recent monthly partitions are scanned
+    List<TransactionEntity> findByCustomerIdAndTimestampAfterOrderByTimestampDesc(
+            String customerId, LocalDateTime since, Pageable pageable);
 
     List<TransactionEntity> findByCustomerIdAndTimestampBetween(
             String customerId, LocalDateTime start, LocalDateTime end);
@@ -31,13 +35,36 @@ public interface TransactionRepository extends JpaRepository<TransactionEntity,
             @Param("since") LocalDateTime since);
 
     @Query("SELECT t.merchantCategory, COUNT(t) as count FROM TransactionEntity t " +
-            "WHERE t.customerId = :customerId GROUP BY t.merchantCategory " +
+            "WHERE t.customerId = :customerId AND t.timestamp >= :since GROUP BY t.merchantCategory " +
             "ORDER BY count DESC")
     List<Object[]> findMostFrequentMerchantCategoryByCustomerId(
-            @Param("customerId") String customerId);
+            @Param("customerId") String customerId,
+            @Param("since") LocalDateTime since);
+
+    @Query("SELECT AVG(t.riskScore) FROM TransactionEntity t WHERE t.customerId = :customerId " +
+            "AND t.timestamp >= :since")
+    Double findAvgRiskScoreByCustomerId(
+            @Param("customerId") String customerId,
+            @Param("since") LocalDateTime since);
+
+    // Bulk variants of the two lookups above for the replay batches, one row per customer
+    // (and per merchant category)
+    @Query("SELECT t.customerId, t.merchantCategory, COUNT(t) FROM TransactionEntity t " +
+            "WHERE t.customerId IN :customerIds AND t.timestamp >= :since " +
+            "GROUP BY t.customerId, t.merchantCategory")
+    List<Object[]> countMerchantCategoriesByCustomerIds(
+            @Param("customerIds") Collection<String> customerIds,
+            @Param("since") LocalDateTime since);
+
+    @Query("SELECT t.customerId, AVG(t.riskScore) FROM TransactionEntity t " +
+            "WHERE t.customerId IN :customerIds AND t.timestamp >= :since GROUP BY t.customerId")
+    List<Object[]> findAvgRiskScoreByCustomerIds(
+            @Param("customerIds") Collection<String> customerIds,
+            @Param("since") LocalDateTime since);
 
-    @Query("SELECT AVG(t.riskScore) FROM TransactionEntity t WHERE t.customerId = :customerId")
-    Double findAvgRiskScoreByCustomerId(@Param("customerId") String customerId);
+    // Pairs of (transactionId, processedAt) for the ids already stored
+    @Query("SELECT t.transactionId, t.processedAt FROM TransactionEntity t WHERE t.transactionId IN :transactionIds")
+    List<Object[]> findExistingTransactionIds(@Param("transactionIds") List<String> transactionIds);
 
     @Query("SELECT COUNT(t) FROM TransactionEntity t WHERE t.timestamp >= :since")
     Long countTransactionsSince(@Param("since") LocalDateTime since);
@@ -0,0 +1,101 @@
+package com.bankingplatform.streamprocessor.service;
+
+import com.bankingplatform.common.event.Transaction;
+import com.bankingplatform.common.event.TransactionStatus;
+import com.bankingplatform.streamprocessor.model.AccountBalance;
+import com.bankingplatform.streamprocessor.model.BalanceDelta;
+import com.bankingplatform.streamprocessor.topology.AccountBalanceProcessor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// Balance projection per account number: turns transactions into signed balance legs, writes
+// changed balances back to the accounts table in batches and answers balance lookups from the
+// local state store (interactive queries)
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccountBalanceService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StreamsBuilderFactoryBean streamsBuilderFactoryBean;
+
+    @Value("${stream.balances.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    // Only completed transactions move money
+    public List<BalanceDelta> deltasOf(Transaction transaction) {
+        if (transaction.getStatus() != TransactionStatus.COMPLETED || transaction.getAmount() == null
+                || transaction.getAccountNumber() == null || transaction.getType() == null) {
+            return List.of();
+        }
+        BigDecimal amount = transaction.getAmount();
+        return switch (transaction.getType()) {
+            case DEPOSIT, REFUND -> List.of(leg(transaction.getAccountNumber(), amount, transaction));
+            case WITHDRAWAL, PAYMENT, SUBSCRIPTION, INVESTMENT ->
+                    List.of(leg(transaction.getAccountNumber(), amount.negate(), transaction));
+            case TRANSFER -> transaction.getCounterpartyAccount() != null
+                    ? List.of(leg(transaction.getAccountNumber(), amount.negate(), transaction),
+                    leg(transaction.getCounterpartyAccount(), amount, transaction))
+                    : List.of(leg(transaction.getAccountNumber(), amount.negate(), transaction));
+        };
+    }
+
+    // Returns how many rows were updated; accounts missing from the table are skipped
+    public int flush(List<AccountBalance> balances) {
+        int updated = 0;
+        for (int from = 0; from < balances.size(); from += flushBatchSize) {
+            List<Object[]> rows = new ArrayList<>();
+            for (AccountBalance balance : balances.subList(from, Math.min(balances.size(), from + flushBatchSize))) {
+                rows.add(new Object[]{
+                        balance.getBalance(),
+                        balance.getLastTransactionAt() != null ? Timestamp.valueOf(balance.getLastTransactionAt()) : null,
+                        balance.getAccountNumber()});
+            }
+            for (int count : jdbcTemplate.batchUpdate(
+                    "UPDATE accounts SET balance = ?, last_transaction_date = ? WHERE account_number = ?", rows)) {
+                updated += Math.max(count, 0);
+            }
+        }
+        return updated;
+    }
+
+    // Served from this instance's partitions of the store; empty when the account is unknown here
+    // or the store is not queryable yet (e.g. during a rebalance)
+    public Optional<AccountBalance> getBalance(String accountNumber) {
+        KafkaStreams kafkaStreams = streamsBuilderFactoryBean.getKafkaStreams();
+        if (kafkaStreams == null) {
+            return Optional.empty();
+        }
+        try {
+            ReadOnlyKeyValueStore<String, AccountBalance> store = kafkaStreams.store(StoreQueryParameters.fromNameAndType(
+                    AccountBalanceProcessor.BALANCE_STORE, QueryableStoreTypes.keyValueStore()));
+            return Optional.ofNullable(store.get(accountNumber));
+        } catch (InvalidStateStoreException e) {
+            log.debug("Account balance store not queryable: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static BalanceDelta leg(String accountNumber, BigDecimal amount, Transaction transaction) {
+        return BalanceDelta.builder()
+                .accountNumber(accountNumber)
+                .amount(amount)
+                .transaction(transaction)
+                .build();
+    }
+}
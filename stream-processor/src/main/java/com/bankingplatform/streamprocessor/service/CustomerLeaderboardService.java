@@ -0,0 +1,130 @@
+package com.bankingplatform.streamprocessor.service;
+
+import com.bankingplatform.streamprocessor.entity.CustomerSummaryEntity;
+import com.bankingplatform.streamprocessor.repository.CustomerSummaryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+// In-memory top-K boards for the high-value and high-risk customer endpoints, updated as
+// summaries are committed. Threshold queries that the board cannot answer on its own fall
+// back to the indexed repository queries.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CustomerLeaderboardService {
+
+    private final CustomerSummaryRepository customerSummaryRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${stream.leaderboard.size:100}")
+    private int size;
+
+    private TopKLeaderboard<CustomerSummaryEntity> highValue;
+    private TopKLeaderboard<CustomerSummaryEntity> highRisk;
+
+    private Counter highValueFallbackCounter;
+    private Counter highRiskFallbackCounter;
+
+    @PostConstruct
+    public void init() {
+        this.highValue = new TopKLeaderboard<>(size);
+        this.highRisk = new TopKLeaderboard<>(size);
+
+        this.highValueFallbackCounter = Counter.builder("customer_leaderboard_db_fallback_total")
+                .description("Leaderboard queries answered from the database instead of memory")
+                .tag("board", "high-value")
+                .register(meterRegistry);
+        this.highRiskFallbackCounter = Counter.builder("customer_leaderboard_db_fallback_total")
+                .description("Leaderboard queries answered from the database instead of memory")
+                .tag("board", "high-risk")
+                .register(meterRegistry);
+    }
+
+    // Rebuilding from the database also tightens the outside bound, which only grows between
+    // rebuilds as entries are evicted or lose score. Summaries committed while the top rows are
+    // read are replayed over them by the boards, so a rebuild never undoes a newer update.
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${stream.leaderboard.rebuild-interval-ms:600000}",
+            initialDelayString = "${stream.leaderboard.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        highValue.beginRebuild();
+        highRisk.beginRebuild();
+        try {
+            warm(highValue, customerSummaryRepository.findAllByOrderByTotalAmountDesc(PageRequest.of(0, size + 1)),
+                    summary -> summary.getTotalAmount().doubleValue());
+            warm(highRisk, customerSummaryRepository.findByAvgRiskScoreNotNullOrderByAvgRiskScoreDesc(
+                    PageRequest.of(0, size + 1)), CustomerSummaryEntity::getAvgRiskScore);
+            log.info("Customer leaderboards rebuilt: {} high-value, {} high-risk entries",
+                    highValue.size(), highRisk.size());
+        } catch (Exception e) {
+            highValue.cancelRebuild();
+            highRisk.cancelRebuild();
+            log.warn("Could not rebuild customer leaderboards: {}", e.getMessage());
+        }
+    }
+
+    // Applied after commit so a rolled-back summary update never reaches the boards
+    public void record(CustomerSummaryEntity summary) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(summary);
+                }
+            });
+        } else {
+            apply(summary);
+        }
+    }
+
+    public List<CustomerSummaryEntity> getHighValueCustomers(BigDecimal minAmount) {
+        return highValue.above(minAmount.doubleValue()).orElseGet(() -> {
+            highValueFallbackCounter.increment();
+            return customerSummaryRepository.findHighValueCustomers(minAmount);
+        });
+    }
+
+    public List<CustomerSummaryEntity> getHighRiskCustomers(Double riskThreshold) {
+        return highRisk.above(riskThreshold).orElseGet(() -> {
+            highRiskFallbackCounter.increment();
+            return customerSummaryRepository.findHighRiskCustomers(riskThreshold);
+        });
+    }
+
+    private void apply(CustomerSummaryEntity summary) {
+        if (summary.getTotalAmount() != null) {
+            highValue.update(summary.getCustomerId(), summary.getTotalAmount().doubleValue(), summary);
+        }
+        if (summary.getAvgRiskScore() != null) {
+            highRisk.update(summary.getCustomerId(), summary.getAvgRiskScore(), summary);
+        }
+    }
+
+    // The (K+1)-th row, when there is one, bounds everything left out of the board
+    private void warm(TopKLeaderboard<CustomerSummaryEntity> board, List<CustomerSummaryEntity> top,
+                      ToDoubleFunction<CustomerSummaryEntity> score) {
+        List<CustomerSummaryEntity> held = top.subList(0, Math.min(size, top.size()));
+        double outsideUpperBound = top.size() > size
+                ? score.applyAsDouble(top.get(size))
+                : Double.NEGATIVE_INFINITY;
+        board.reset(held.stream()
+                .map(summary -> new TopKLeaderboard.Entry<>(summary.getCustomerId(),
+                        score.applyAsDouble(summary), summary))
+                .toList(), outsideUpperBound);
+    }
+}
@@ -0,0 +1,64 @@
+package com.bankingplatform.streamprocessor.service;
+
+import com.bankingplatform.common.event.Transaction;
+import com.bankingplatform.streamprocessor.model.CityDirectory;
+import com.bankingplatform.streamprocessor.model.CustomerProfile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+
+// Folds a processed transaction into the customer's stream-side profile
+@Slf4j
+@Service
+public class CustomerProfileService {
+
+    // Resolved once: ZoneId.systemDefault() clones the default TimeZone on every call
+    private static final ZoneRules LOCAL_ZONE = ZoneId.systemDefault().getRules();
+
+    @Value("${stream.profile.location-half-life-days:30}")
+    private long locationHalfLifeDays;
+
+    // Rolling distinct-count window is RollingDistinctCount.BUCKETS of these
+    @Value("${stream.profile.distinct-bucket-minutes:15}")
+    private long distinctBucketMinutes;
+
+    public CustomerProfile update(CustomerProfile current, Transaction transaction) {
+        CustomerProfile profile = current != null ? current : new CustomerProfile();
+        long eventMillis = eventMillis(transaction);
+
+        int cityId = CityDirectory.idOf(transaction.getSourceLocation());
+        if (cityId >= 0) {
+            profile.getLocations().record(cityId, eventMillis, Duration.ofDays(locationHalfLifeDays).toMillis());
+            // Out-of-order events do not move the last known position back in time
+            if (eventMillis >= profile.getLastSeenMillis()) {
+                profile.setLastCityId(cityId);
+                profile.setLastSeenMillis(eventMillis);
+            }
+        }
+
+        if (transaction.getAmount() != null) {
+            profile.getAmounts().add(transaction.getAmount().doubleValue());
+        }
+
+        long bucketMillis = Duration.ofMinutes(distinctBucketMinutes).toMillis();
+        profile.getDevices().add(transaction.getDeviceId(), eventMillis, bucketMillis);
+        profile.getIpAddresses().add(transaction.getIpAddress(), eventMillis, bucketMillis);
+        return profile;
+    }
+
+    // Same instant as timestamp.atZone(systemDefault()).toInstant() without building either; for
+    // local times in a gap or overlap getOffset returns the offset before the transition, which
+    // is what atZone resolves to as well. On the scoring and rule path for every transaction.
+    static long eventMillis(Transaction transaction) {
+        LocalDateTime timestamp = transaction.getTimestamp();
+        if (timestamp == null) {
+            return System.currentTimeMillis();
+        }
+        return timestamp.toEpochSecond(LOCAL_ZONE.getOffset(timestamp)) * 1000L + timestamp.getNano() / 1_000_000;
+    }
+}
@@ -1,20 +1,27 @@
 package com.bankingplatform.streamprocessor.service;
 
+import com.bankingplatform.common.event.Transaction;
+import com.bankingplatform.common.event.TransactionStatus;
 import com.bankingplatform.streamprocessor.entity.CustomerSummaryEntity;
-import com.bankingplatform.streamprocessor.model.Transaction;
-import com.bankingplatform.streamprocessor.model.TransactionStatus;
 import com.bankingplatform.streamprocessor.repository.CustomerSummaryRepository;
 import com.bankingplatform.streamprocessor.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -23,13 +30,21 @@ public class CustomerSummaryService {
 
     private final CustomerSummaryRepository customerSummaryRepository;
     private final TransactionRepository transactionRepository;
+    private final CustomerLeaderboardService leaderboardService;
+
+    // Most frequent merchant category and average risk score cover the last lookbackDays on both
+    // the live and the replay path, so the queries prune partitions; counts and amounts are lifetime
+    @Value("${stream.summary.lookback-days:90}")
+    private int lookbackDays;
 
     @Transactional
     public void updateCustomerSummary(Transaction transaction) {
         String customerId = transaction.getCustomerId();
 
+        // Locked until commit, so the stream threads and the catch-up drain apply their
+        // updates to one customer one after the other
         Optional<CustomerSummaryEntity> existingSummary =
-                customerSummaryRepository.findById(customerId);
+                customerSummaryRepository.findByIdForUpdate(customerId);
 
         CustomerSummaryEntity summary;
         if (existingSummary.isPresent()) {
@@ -39,11 +54,16 @@ public class CustomerSummaryService {
             summary = createNewSummary(customerId, transaction);
         }
 
+        // Lookback aggregates, for new summaries too
+        updateMostFrequentMerchantCategory(summary);
+        updateAverageRiskScore(summary);
+
         // Calculate time-window metrics
         updateTimeWindowMetrics(summary, customerId);
 
         summary.setUpdatedAt(LocalDateTime.now());
         customerSummaryRepository.save(summary);
+        leaderboardService.record(summary);
 
         log.debug("Updated customer summary for: {}", customerId);
     }
@@ -67,12 +87,6 @@ public class CustomerSummaryService {
         if (transaction.getTimestamp().isAfter(summary.getLastTransactionTime())) {
             summary.setLastTransactionTime(transaction.getTimestamp());
         }
-
-        // Update most frequent merchant category
-        updateMostFrequentMerchantCategory(summary);
-
-        // Update average risk score
-        updateAverageRiskScore(summary);
     }
 
     private CustomerSummaryEntity createNewSummary(String customerId, Transaction transaction) {
@@ -122,7 +136,8 @@ public class CustomerSummaryService {
 
     private void updateMostFrequentMerchantCategory(CustomerSummaryEntity summary) {
         List<Object[]> results = transactionRepository
-                .findMostFrequentMerchantCategoryByCustomerId(summary.getCustomerId());
+                .findMostFrequentMerchantCategoryByCustomerId(summary.getCustomerId(),
+                        LocalDateTime.now().minusDays(lookbackDays));
 
         if (!results.isEmpty()) {
             Object[] mostFrequent = results.get(0);
@@ -132,19 +147,112 @@ public class CustomerSummaryService {
 
     private void updateAverageRiskScore(CustomerSummaryEntity summary) {
         Double avgRiskScore = transactionRepository
-                .findAvgRiskScoreByCustomerId(summary.getCustomerId());
+                .findAvgRiskScoreByCustomerId(summary.getCustomerId(),
+                        LocalDateTime.now().minusDays(lookbackDays));
 
         if (avgRiskScore != null) {
             summary.setAvgRiskScore(avgRiskScore);
         }
     }
 
+    // Bulk variant used by the replay mode: one read, two grouped lookback queries and one batched
+    // write per batch. The batch's transactions are already flushed, so the lookups include them.
+    // When rebuiltCustomers is given, a customer seen for the first time starts from an
+    // empty summary instead of the stored one and is added to the set.
+    @Transactional
+    public void applyTransactionBatch(List<Transaction> transactions, Set<String> rebuiltCustomers) {
+        Map<String, List<Transaction>> byCustomer = transactions.stream()
+                .collect(Collectors.groupingBy(Transaction::getCustomerId));
+
+        Map<String, CustomerSummaryEntity> existing = customerSummaryRepository
+                .findAllById(byCustomer.keySet()).stream()
+                .collect(Collectors.toMap(CustomerSummaryEntity::getCustomerId, Function.identity()));
+
+        List<CustomerSummaryEntity> updated = new ArrayList<>(byCustomer.size());
+        byCustomer.forEach((customerId, customerTransactions) -> {
+            CustomerSummaryEntity summary = rebuiltCustomers != null && rebuiltCustomers.add(customerId)
+                    ? emptySummary(customerId, existing.get(customerId))
+                    : existing.getOrDefault(customerId, emptySummary(customerId, null));
+
+            BigDecimal total = summary.getTotalAmount();
+            LocalDateTime lastTime = summary.getLastTransactionTime();
+
+            for (Transaction transaction : customerTransactions) {
+                if (transaction.getStatus() == TransactionStatus.COMPLETED) {
+                    total = total.add(transaction.getAmount());
+                }
+                if (lastTime == null || transaction.getTimestamp().isAfter(lastTime)) {
+                    lastTime = transaction.getTimestamp();
+                }
+            }
+
+            long count = summary.getTotalTransactions() + customerTransactions.size();
+            summary.setTotalTransactions(count);
+            summary.setTotalAmount(total);
+            summary.setAvgAmount(total.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP));
+            summary.setLastTransactionTime(lastTime);
+            summary.setUpdatedAt(LocalDateTime.now());
+            updated.add(summary);
+        });
+
+        applyLookbackAggregates(updated);
+
+        customerSummaryRepository.saveAll(updated);
+        updated.forEach(leaderboardService::record);
+    }
+
+    private void applyLookbackAggregates(List<CustomerSummaryEntity> summaries) {
+        Set<String> customerIds = summaries.stream()
+                .map(CustomerSummaryEntity::getCustomerId)
+                .collect(Collectors.toSet());
+        LocalDateTime since = LocalDateTime.now().minusDays(lookbackDays);
+
+        Map<String, Double> avgRiskScores = new HashMap<>();
+        transactionRepository.findAvgRiskScoreByCustomerIds(customerIds, since)
+                .forEach(row -> avgRiskScores.put((String) row[0], (Double) row[1]));
+
+        Map<String, Object[]> topCategories = new HashMap<>();
+        for (Object[] row : transactionRepository.countMerchantCategoriesByCustomerIds(customerIds, since)) {
+            topCategories.merge((String) row[0], row,
+                    (current, candidate) -> (Long) candidate[2] > (Long) current[2] ? candidate : current);
+        }
+
+        // Same rule as the live path: values are only replaced when the lookback has data
+        for (CustomerSummaryEntity summary : summaries) {
+            Double avgRiskScore = avgRiskScores.get(summary.getCustomerId());
+            if (avgRiskScore != null) {
+                summary.setAvgRiskScore(avgRiskScore);
+            }
+            Object[] topCategory = topCategories.get(summary.getCustomerId());
+            if (topCategory != null) {
+                summary.setMostFrequentMerchantCategory((String) topCategory[1]);
+            }
+        }
+    }
+
+    // Keeps the managed instance when there is one so the reset is written as an update
+    private CustomerSummaryEntity emptySummary(String customerId, CustomerSummaryEntity current) {
+        CustomerSummaryEntity summary = current != null ? current : new CustomerSummaryEntity();
+        summary.setCustomerId(customerId);
+        summary.setTotalTransactions(0L);
+        summary.setTotalAmount(BigDecimal.ZERO);
+        summary.setAvgAmount(BigDecimal.ZERO);
+        summary.setAvgRiskScore(null);
+        summary.setMostFrequentMerchantCategory(null);
+        summary.setLastTransactionTime(null);
+        summary.setTransactionsLast1Hour(0L);
+        summary.setAmountLast1Hour(BigDecimal.ZERO);
+        summary.setTransactionsLast24Hours(0L);
+        summary.setAmountLast24Hours(BigDecimal.ZERO);
+        return summary;
+    }
+
     public List<CustomerSummaryEntity> getHighValueCustomers(BigDecimal minAmount) {
-        return customerSummaryRepository.findHighValueCustomers(minAmount);
+        return leaderboardService.getHighValueCustomers(minAmount);
     }
 
     public List<CustomerSummaryEntity> getHighRiskCustomers(Double riskThreshold) {
-        return customerSummaryRepository.findHighRiskCustomers(riskThreshold);
+        return leaderboardService.getHighRiskCustomers(riskThreshold);
     }
 
     public Optional<CustomerSummaryEntity> getCustomerSummaryById(String customerId) {
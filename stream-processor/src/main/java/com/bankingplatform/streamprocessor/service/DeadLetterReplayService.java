@@ -0,0 +1,242 @@
+package com.bankingplatform.streamprocessor.service;
+
+import com.bankingplatform.streamprocessor.config.DeadLetterConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Re-injects dead-lettered records into the source topic in rate-limited batches.
+// Only records whose kafka_dlt-original-topic is the source topic are replayed; dead letters from the
+// reference-data topics or the internal repartition topics are skipped, since re-publishing them as
+// transactions would be wrong. Records that keep failing are parked once they exceed the maximum
+// number of replay attempts.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeadLetterReplayService {
+
+    public static final String REPLAY_ATTEMPT_HEADER = "dlq-replay-attempt";
+
+    private final MeterRegistry meterRegistry;
+    private final KafkaAdmin kafkaAdmin;
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${stream.dlq.topic:banking-transactions-dlq}")
+    private String deadLetterTopic;
+
+    @Value("${stream.dlq.replay.target-topic:banking-transactions}")
+    private String targetTopic;
+
+    @Value("${stream.dlq.replay.max-records-per-second:50}")
+    private double maxRecordsPerSecond;
+
+    @Value("${stream.dlq.replay.max-attempts:3}")
+    private int maxAttempts;
+
+    private DefaultKafkaProducerFactory<byte[], byte[]> producerFactory;
+    private KafkaTemplate<byte[], byte[]> replayTemplate;
+    private AdminClient adminClient;
+
+    private final AtomicLong deadLetterDepth = new AtomicLong(0);
+    private long nextReplaySlotNanos = System.nanoTime();
+
+    private Counter replayedCounter;
+    private Counter parkedCounter;
+    private Counter skippedCounter;
+
+    @PostConstruct
+    public void init() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        this.producerFactory = new DefaultKafkaProducerFactory<>(props);
+        this.replayTemplate = new KafkaTemplate<>(producerFactory);
+        this.adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+
+        this.replayedCounter = Counter.builder("dlq_records_replayed_total")
+                .description("Dead-lettered records re-injected into the source topic")
+                .register(meterRegistry);
+
+        this.parkedCounter = Counter.builder("dlq_records_parked_total")
+                .description("Dead-lettered records skipped after exhausting replay attempts")
+                .register(meterRegistry);
+
+        this.skippedCounter = Counter.builder("dlq_records_skipped_total")
+                .description("Dead-lettered records not replayed because they did not come from the source topic")
+                .register(meterRegistry);
+
+        Gauge.builder("dlq_depth", deadLetterDepth::get)
+                .description("Records in the dead-letter topic not yet consumed by the replay group")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (adminClient != null) {
+            adminClient.close();
+        }
+        if (producerFactory != null) {
+            producerFactory.destroy();
+        }
+    }
+
+    @KafkaListener(
+            id = "dlq-replay",
+            topics = "${stream.dlq.topic:banking-transactions-dlq}",
+            containerFactory = "deadLetterReplayContainerFactory",
+            autoStartup = "${stream.dlq.replay.enabled:false}"
+    )
+    public void replayBatch(List<ConsumerRecord<byte[], byte[]>> records) {
+        throttle(records.size());
+
+        List<CompletableFuture<?>> sends = new ArrayList<>(records.size());
+        for (ConsumerRecord<byte[], byte[]> record : records) {
+            String originalTopic = originalTopic(record);
+            if (!targetTopic.equals(originalTopic)) {
+                skippedCounter.increment();
+                log.warn("Skipping dead-lettered record {}-{}@{} from {}: only {} records are replayed",
+                        record.topic(), record.partition(), record.offset(), originalTopic, targetTopic);
+                continue;
+            }
+
+            int attempt = replayAttempt(record) + 1;
+            if (attempt > maxAttempts) {
+                parkedCounter.increment();
+                log.warn("Parking dead-lettered record {}-{}@{} after {} replay attempts",
+                        record.topic(), record.partition(), record.offset(), maxAttempts);
+                continue;
+            }
+
+            sends.add(replayTemplate.send(new ProducerRecord<>(targetTopic, null, record.key(),
+                    record.value(), replayHeaders(record, attempt))));
+        }
+
+        // Offsets are committed only after every re-injected record has been acknowledged
+        CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).join();
+        replayedCounter.increment(sends.size());
+        log.info("Replayed {} of {} dead-lettered records to {}", sends.size(), records.size(), targetTopic);
+    }
+
+    // Simple pacing: each batch reserves records / rate seconds of replay time
+    private void throttle(int records) {
+        long now = System.nanoTime();
+        long waitNanos = nextReplaySlotNanos - now;
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        long batchNanos = (long) (records * TimeUnit.SECONDS.toNanos(1) / maxRecordsPerSecond);
+        nextReplaySlotNanos = Math.max(now, nextReplaySlotNanos) + batchNanos;
+    }
+
+    private String originalTopic(ConsumerRecord<byte[], byte[]> record) {
+        Header header = record.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    private int replayAttempt(ConsumerRecord<byte[], byte[]> record) {
+        Header header = record.headers().lastHeader(REPLAY_ATTEMPT_HEADER);
+        if (header == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(new String(header.value(), StandardCharsets.UTF_8));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // Keep the original headers but drop the dead-letter metadata of the previous failure
+    private RecordHeaders replayHeaders(ConsumerRecord<byte[], byte[]> record, int attempt) {
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            String key = header.key();
+            if (!key.startsWith(KafkaHeaders.PREFIX + "dlt-")
+                    && !key.equals(DeadLetterService.STAGE_HEADER)
+                    && !key.equals(REPLAY_ATTEMPT_HEADER)) {
+                headers.add(header);
+            }
+        }
+        headers.add(REPLAY_ATTEMPT_HEADER, String.valueOf(attempt).getBytes(StandardCharsets.UTF_8));
+        return headers;
+    }
+
+    // DLQ depth = end offsets minus the replay group's committed offsets
+    @Scheduled(fixedDelay = 30000)
+    public void refreshDeadLetterDepth() {
+        try {
+            List<TopicPartitionInfo> partitionInfos = adminClient.describeTopics(List.of(deadLetterTopic))
+                    .allTopicNames().get(10, TimeUnit.SECONDS)
+                    .get(deadLetterTopic).partitions();
+
+            Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> endOffsets =
+                    listOffsets(partitionInfos, OffsetSpec.latest());
+            Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> startOffsets =
+                    listOffsets(partitionInfos, OffsetSpec.earliest());
+            Map<TopicPartition, OffsetAndMetadata> committed =
+                    adminClient.listConsumerGroupOffsets(DeadLetterConfig.REPLAY_GROUP_ID)
+                            .partitionsToOffsetAndMetadata().get(10, TimeUnit.SECONDS);
+
+            long depth = 0;
+            for (Map.Entry<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> entry : endOffsets.entrySet()) {
+                OffsetAndMetadata offset = committed.get(entry.getKey());
+                long consumed = offset != null ? offset.offset() : startOffsets.get(entry.getKey()).offset();
+                depth += Math.max(0, entry.getValue().offset() - consumed);
+            }
+            deadLetterDepth.set(depth);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.debug("Could not refresh dead-letter depth: {}", e.getMessage());
+        }
+    }
+
+    private Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> listOffsets(
+            List<TopicPartitionInfo> partitionInfos, OffsetSpec spec) throws Exception {
+        Map<TopicPartition, OffsetSpec> request = partitionInfos.stream()
+                .collect(Collectors.toMap(p -> new TopicPartition(deadLetterTopic, p.partition()), p -> spec));
+        return adminClient.listOffsets(request).all().get(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,133 @@
+package com.bankingplatform.streamprocessor.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.streams.processor.api.RecordMetadata;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+// Publishes records that could not be deserialized or processed to the dead-letter topic.
+// The original topic/partition/offset and the exception are carried as kafka_dlt-* headers.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeadLetterService implements ConsumerRecordRecoverer {
+
+    public static final String STAGE_HEADER = "dlq-stage";
+    public static final String STAGE_DESERIALIZATION = "deserialization";
+    public static final String STAGE_PROCESSING = "processing";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${stream.dlq.topic:banking-transactions-dlq}")
+    private String deadLetterTopic;
+
+    private DefaultKafkaProducerFactory<byte[], byte[]> producerFactory;
+    private DeadLetterPublishingRecoverer recoverer;
+
+    private Counter deserializationFailuresCounter;
+    private Counter processingFailuresCounter;
+    private Counter publishFailuresCounter;
+
+    @PostConstruct
+    public void init() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        this.producerFactory = new DefaultKafkaProducerFactory<>(props);
+
+        this.recoverer = new DeadLetterPublishingRecoverer(new KafkaTemplate<>(producerFactory),
+                (record, exception) -> new TopicPartition(deadLetterTopic, -1));
+        // Records coming from the deserialization handler carry no stage header yet
+        this.recoverer.setHeadersFunction((record, exception) -> {
+            RecordHeaders headers = new RecordHeaders();
+            if (record.headers().lastHeader(STAGE_HEADER) == null) {
+                headers.add(STAGE_HEADER, STAGE_DESERIALIZATION.getBytes(StandardCharsets.UTF_8));
+            }
+            return headers;
+        });
+
+        this.deserializationFailuresCounter = Counter.builder("dlq_records_published_total")
+                .description("Records sent to the dead-letter topic")
+                .tag("stage", STAGE_DESERIALIZATION)
+                .register(meterRegistry);
+
+        this.processingFailuresCounter = Counter.builder("dlq_records_published_total")
+                .description("Records sent to the dead-letter topic")
+                .tag("stage", STAGE_PROCESSING)
+                .register(meterRegistry);
+
+        this.publishFailuresCounter = Counter.builder("dlq_publish_failures_total")
+                .description("Records that could not be written to the dead-letter topic")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (producerFactory != null) {
+            producerFactory.destroy();
+        }
+    }
+
+    @Override
+    public void accept(ConsumerRecord<?, ?> record, Exception exception) {
+        boolean processing = record.headers().lastHeader(STAGE_HEADER) != null;
+        try {
+            recoverer.accept(record, exception);
+            (processing ? processingFailuresCounter : deserializationFailuresCounter).increment();
+            log.warn("Sent record {}-{}@{} to {}: {}", record.topic(), record.partition(), record.offset(),
+                    deadLetterTopic, exception.getMessage());
+        } catch (Exception e) {
+            publishFailuresCounter.increment();
+            log.error("Failed to send record {}-{}@{} to {}: {}", record.topic(), record.partition(),
+                    record.offset(), deadLetterTopic, e.getMessage(), e);
+        }
+    }
+
+    public void publishProcessingFailure(Optional<RecordMetadata> metadata, long timestamp, byte[] key,
+                                         byte[] value, Headers originalHeaders, Exception exception) {
+        RecordHeaders headers = new RecordHeaders(originalHeaders.toArray());
+        headers.remove(STAGE_HEADER);
+        headers.add(STAGE_HEADER, STAGE_PROCESSING.getBytes(StandardCharsets.UTF_8));
+
+        ConsumerRecord<byte[], byte[]> record = new ConsumerRecord<>(
+                metadata.map(RecordMetadata::topic).orElse("unknown"),
+                metadata.map(RecordMetadata::partition).orElse(-1),
+                metadata.map(RecordMetadata::offset).orElse(-1L),
+                timestamp, TimestampType.CREATE_TIME,
+                key != null ? key.length : -1, value != null ? value.length : -1,
+                key, value, headers, Optional.empty());
+
+        accept(record, exception);
+    }
+
+    public String getDeadLetterTopic() {
+        return deadLetterTopic;
+    }
+}
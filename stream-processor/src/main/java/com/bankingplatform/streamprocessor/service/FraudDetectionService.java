@@ -1,21 +1,36 @@
 package com.bankingplatform.streamprocessor.service;
 
+import com.bankingplatform.common.event.Transaction;
+import com.bankingplatform.common.id.SnowflakeIdGenerator;
 import com.bankingplatform.streamprocessor.entity.CustomerSummaryEntity;
 import com.bankingplatform.streamprocessor.entity.FraudAlertEntity;
-import com.bankingplatform.streamprocessor.model.Transaction;
+import com.bankingplatform.streamprocessor.model.AccountReference;
+import com.bankingplatform.streamprocessor.model.AmountStats;
+import com.bankingplatform.streamprocessor.model.CityDirectory;
+import com.bankingplatform.streamprocessor.model.CustomerProfile;
+import com.bankingplatform.streamprocessor.model.CustomerReference;
+import com.bankingplatform.streamprocessor.model.LocationHistory;
+import com.bankingplatform.streamprocessor.model.TransactionContext;
 import com.bankingplatform.streamprocessor.repository.CustomerSummaryRepository;
 import com.bankingplatform.streamprocessor.repository.FraudAlertRepository;
 import jakarta.validation.constraints.Null;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -25,110 +40,287 @@ public class FraudDetectionService {
     private final FraudAlertRepository fraudAlertRepository;
     private final CustomerSummaryRepository customerSummaryRepository;
     private final NotificationService notificationService;
+    private final FraudScoringService scoringService;
+    private final TransferGraphService transferGraphService;
+    private final SnowflakeIdGenerator idGenerator;
 
     // Fraud detection thresholds
-    private static final BigDecimal HIGH_AMOUNT_THRESHOLD = new BigDecimal("10000.00");
+    private static final BigDecimal HIGH_AMOUNT_THRESHOLD = new BigDecimal("10000.00"); // until there is history
+    static final long MIN_AMOUNT_HISTORY = 20L; // transactions before the customer's own baseline applies
+    private static final double HIGH_AMOUNT_Z_SCORE = 4.0;
+    private static final double MIN_STDDEV_FRACTION = 0.05; // of the mean, for customers with near-constant amounts
     private static final Long FREQUENT_TRANSACTIONS_THRESHOLD = 10L; // per hour
     private static final BigDecimal FREQUENT_AMOUNT_THRESHOLD = new BigDecimal("15000.00"); // per hour
     private static final Double HIGH_RISK_SCORE_THRESHOLD = 0.8;
     private static final BigDecimal VELOCITY_AMOUNT_THRESHOLD = new BigDecimal("20000.00"); // per 24h
+    static final int FAMILIAR_LOCATIONS = 3; // top-N cities in the location history
+    static final double MIN_LOCATION_HISTORY = 5.0; // decayed observations before judging
+    private static final double MAX_TRAVEL_SPEED_KMH = 900.0; // roughly airliner cruise speed
+    private static final long MAX_DISTINCT_DEVICES = 3L; // per rolling profile window
+    private static final long MAX_DISTINCT_IPS = 5L; // per rolling profile window
+    private static final BigDecimal UNVERIFIED_KYC_AMOUNT_THRESHOLD = new BigDecimal("5000.00");
+    private static final String ACTIVE = "ACTIVE";
+    private static final String KYC_VERIFIED = "VERIFIED";
+
+    @Value("${fraud.model.threshold:0.9}")
+    private double modelScoreThreshold;
 
     public boolean analyzeTransaction(Transaction transaction) {
-        List<FraudAlertEntity> alerts = new ArrayList<>();
+        return analyzeTransaction(transaction, TransactionContext.empty());
+    }
 
+    // Rules that need stream state read it from the context, as it was before this transaction
+    public boolean analyzeTransaction(Transaction transaction, TransactionContext context) {
         try {
-            // Rule 1: High amount detection
-            if (isHighAmountTransaction(transaction)) {
-                alerts.add(createAlert(transaction,
-                        FraudAlertEntity.FraudReason.HIGH_AMOUNT,
-                        "Transaction amount exceeds threshold: " + transaction.getAmount(),
-                        0.7));
+            Optional<CustomerSummaryEntity> summary =
+                    customerSummaryRepository.findById(transaction.getCustomerId());
+            List<FraudAlertEntity> alerts = evaluateRules(transaction, context, summary);
+            transferGraphService.record(transaction);
+            if (alerts.isEmpty()) {
+                return false;
             }
 
-            // Rule 2: High risk score
-            if (isHighRiskTransaction(transaction)) {
-                alerts.add(createAlert(transaction,
-                        FraudAlertEntity.FraudReason.HIGH_RISK_SCORE,
-                        "Transaction has high risk score: " + transaction.getRiskScore(),
-                        transaction.getRiskScore()));
-            }
+            persistAndNotify(alerts);
+            log.warn("Generated {} fraud alerts for transaction: {}",
+                    alerts.size(), transaction.getTransactionId());
+            return true;
 
-            // Rule 3: Frequent transactions (velocity check)
-            if (isFrequentTransactionPattern(transaction)) {
-                alerts.add(createAlert(transaction,
-                        FraudAlertEntity.FraudReason.FREQUENT_TRANSACTIONS,
-                        "Customer has too many transactions in short time",
-                        0.6));
-            }
+        } catch (Exception e) {
+            log.error("Error during fraud detection for transaction {}: {}",
+                    transaction.getTransactionId(), e.getMessage(), e);
+            return false;
+        }
+    }
 
-            // Rule 4: Velocity check - high amount in short time
-            if (isVelocityCheckFailed(transaction)) {
-                alerts.add(createAlert(transaction,
-                        FraudAlertEntity.FraudReason.VELOCITY_CHECK_FAILED,
-                        "Customer exceeded spending velocity limits",
-                        0.8));
+    // Evaluates the records of one poll with a single summary query and a single alert insert.
+    // Contexts are aligned with the transactions; returns the ids of the flagged transactions.
+    public Set<String> analyzeBatch(List<Transaction> transactions, List<TransactionContext> contexts) {
+        try {
+            Set<String> customerIds = transactions.stream()
+                    .map(Transaction::getCustomerId)
+                    .collect(Collectors.toSet());
+            Map<String, CustomerSummaryEntity> summaries = new HashMap<>();
+            customerSummaryRepository.findAllById(customerIds)
+                    .forEach(summary -> summaries.put(summary.getCustomerId(), summary));
+
+            List<FraudAlertEntity> alerts = new ArrayList<>();
+            Set<String> flagged = new HashSet<>();
+            for (int i = 0; i < transactions.size(); i++) {
+                Transaction transaction = transactions.get(i);
+                List<FraudAlertEntity> transactionAlerts = evaluateRules(transaction, contexts.get(i),
+                        Optional.ofNullable(summaries.get(transaction.getCustomerId())));
+                // Edges land after commit, so transfers of the same batch do not see each other
+                transferGraphService.record(transaction);
+                if (!transactionAlerts.isEmpty()) {
+                    alerts.addAll(transactionAlerts);
+                    flagged.add(transaction.getTransactionId());
+                }
             }
 
-            // Rule 5: Unusual location (simplified)
-            if (isUnusualLocation(transaction)) {
-                alerts.add(createAlert(transaction,
-                        FraudAlertEntity.FraudReason.UNUSUAL_LOCATION,
-                        "Transaction from unusual location: " + transaction.getSourceLocation(),
-                        0.5));
+            if (!alerts.isEmpty()) {
+                persistAndNotify(alerts);
+                log.warn("Generated {} fraud alerts for {} of {} transactions in batch",
+                        alerts.size(), flagged.size(), transactions.size());
             }
+            return flagged;
+
+        } catch (Exception e) {
+            log.error("Error during batch fraud detection for {} transactions: {}",
+                    transactions.size(), e.getMessage(), e);
+            return Set.of();
+        }
+    }
+
+    // Raised by the account balance projection, which sees every leg of an account in order
+    public void raiseOverdraftBreach(Transaction transaction, String accountNumber,
+                                     BigDecimal balance, BigDecimal overdraftLimit) {
+        raiseStreamAlert(transaction, FraudAlertEntity.FraudReason.OVERDRAFT_BREACH,
+                String.format("Account %s balance %s is beyond its overdraft limit of %s",
+                        accountNumber, balance, overdraftLimit),
+                0.8);
+    }
+
+    // Raised by the customer session-window aggregation in the topology
+    public void raiseBurst(Transaction transaction, long count, BigDecimal amount, long gapSeconds) {
+        raiseStreamAlert(transaction, FraudAlertEntity.FraudReason.FREQUENT_TRANSACTIONS,
+                String.format("Burst of %d transactions totalling %s with gaps under %d seconds",
+                        count, amount, gapSeconds),
+                0.7);
+    }
+
+    // Alerts decided by stream state outside the per-transaction rules
+    private void raiseStreamAlert(Transaction transaction, FraudAlertEntity.FraudReason reason,
+                                  String description, double riskScore) {
+        try {
+            persistAndNotify(List.of(createAlert(transaction, reason, description, riskScore)));
+            log.warn("{} alert for transaction {}: {}", reason, transaction.getTransactionId(), description);
+        } catch (Exception e) {
+            log.error("Error raising {} alert for transaction {}: {}",
+                    reason, transaction.getTransactionId(), e.getMessage(), e);
+        }
+    }
 
-            // Rule 6: Suspicious pattern detection
-            if (isSuspiciousPattern(transaction)) {
+    private List<FraudAlertEntity> evaluateRules(Transaction transaction, TransactionContext context,
+                                                 Optional<CustomerSummaryEntity> summary) {
+        List<FraudAlertEntity> alerts = new ArrayList<>();
+
+        // Rule 1: High amount, against the customer's own baseline once there is one
+        AmountStats amountStats = context.getProfile() != null ? context.getProfile().getAmounts() : null;
+        if (amountStats != null && amountStats.getCount() >= MIN_AMOUNT_HISTORY) {
+            double zScore = amountZScore(transaction.getAmount().doubleValue(), amountStats);
+            if (zScore > HIGH_AMOUNT_Z_SCORE) {
                 alerts.add(createAlert(transaction,
-                        FraudAlertEntity.FraudReason.SUSPICIOUS_PATTERN,
-                        "Suspicious transaction pattern detected",
+                        FraudAlertEntity.FraudReason.HIGH_AMOUNT,
+                        String.format("Transaction amount %s is %.1f standard deviations above the customer's mean of %.2f",
+                                transaction.getAmount(), zScore, amountStats.getMean()),
                         0.7));
             }
+        } else if (isHighAmountTransaction(transaction)) {
+            alerts.add(createAlert(transaction,
+                    FraudAlertEntity.FraudReason.HIGH_AMOUNT,
+                    "Transaction amount exceeds threshold: " + transaction.getAmount(),
+                    0.7));
+        }
 
-            // Save all alerts
-            if (!alerts.isEmpty()) {
-                fraudAlertRepository.saveAll(alerts);
+        // Rule 2: High risk score
+        if (isHighRiskTransaction(transaction)) {
+            alerts.add(createAlert(transaction,
+                    FraudAlertEntity.FraudReason.HIGH_RISK_SCORE,
+                    "Transaction has high risk score: " + transaction.getRiskScore(),
+                    transaction.getRiskScore()));
+        }
 
-                // Send notifications for high-severity alerts
-                alerts.stream()
-                        .filter(alert -> "HIGH".equalsIgnoreCase(alert.getSeverity()))
-                        .forEach(alert -> {
-                            try {
-                                notificationService.sendFraudAlert(alert);
-                            } catch (Exception e) {
-                                log.error("Failed to send fraud alert notification: {}", e.getMessage());
-                            }
-                        });
+        // Rule 3: Frequent transactions (velocity check)
+        if (isFrequentTransactionPattern(summary)) {
+            alerts.add(createAlert(transaction,
+                    FraudAlertEntity.FraudReason.FREQUENT_TRANSACTIONS,
+                    "Customer has too many transactions in short time",
+                    0.6));
+        }
 
+        // Rule 4: Velocity check - high amount in short time
+        if (isVelocityCheckFailed(summary)) {
+            alerts.add(createAlert(transaction,
+                    FraudAlertEntity.FraudReason.VELOCITY_CHECK_FAILED,
+                    "Customer exceeded spending velocity limits",
+                    0.8));
+        }
 
-                log.warn("Generated {} fraud alerts for transaction: {}",
-                        alerts.size(), transaction.getTransactionId());
+        // Rule 5: Unusual location (simplified)
+        if (isUnusualLocation(transaction, context)) {
+            alerts.add(createAlert(transaction,
+                    FraudAlertEntity.FraudReason.UNUSUAL_LOCATION,
+                    "Transaction from unusual location: " + transaction.getSourceLocation(),
+                    0.5));
+        }
 
-                return true;
-            }
+        // Rule 6: Suspicious pattern detection
+        if (isSuspiciousPattern(transaction)) {
+            alerts.add(createAlert(transaction,
+                    FraudAlertEntity.FraudReason.SUSPICIOUS_PATTERN,
+                    "Suspicious transaction pattern detected",
+                    0.7));
+        }
 
-            return false;
+        // Rule 7: Impossible travel since the previous transaction
+        double travelSpeed = travelSpeedKmh(transaction, context);
+        if (travelSpeed > MAX_TRAVEL_SPEED_KMH) {
+            alerts.add(createAlert(transaction,
+                    FraudAlertEntity.FraudReason.IMPOSSIBLE_TRAVEL,
+                    String.format("Travel from %s to %s implies %s",
+                            CityDirectory.nameOf(context.getProfile().getLastCityId()),
+                            transaction.getSourceLocation(),
+                            Double.isInfinite(travelSpeed) ? "no elapsed time" : Math.round(travelSpeed) + " km/h"),
+                    0.85));
+        }
 
-        } catch (Exception e) {
-            log.error("Error during fraud detection for transaction {}: {}",
-                    transaction.getTransactionId(), e.getMessage(), e);
-            return false;
+        // Rule 8: Sudden spread over many devices or IP addresses
+        if (isDeviceOrIpVelocityExceeded(transaction, context)) {
+            alerts.add(createAlert(transaction,
+                    FraudAlertEntity.FraudReason.DEVICE_IP_VELOCITY,
+                    "Customer is transacting from too many distinct devices or IP addresses",
+                    0.75));
+        }
+
+        // Rule 9: Transfer cycles and fan-in/fan-out bursts in the account graph
+        List<String> transferFindings = transferGraphService.inspect(transaction);
+        if (!transferFindings.isEmpty()) {
+            alerts.add(createAlert(transaction,
+                    FraudAlertEntity.FraudReason.SUSPICIOUS_PATTERN,
+                    "Transfer " + String.join("; ", transferFindings),
+                    0.8));
+        }
+
+        // Rule 10: Inactive account or customer, or a large amount before KYC is complete
+        String restriction = accountRestriction(transaction, context);
+        if (restriction != null) {
+            alerts.add(createAlert(transaction,
+                    FraudAlertEntity.FraudReason.ACCOUNT_RESTRICTION,
+                    restriction,
+                    0.8));
         }
+
+        // Rule 11: Model score over the transaction and profile features
+        double modelScore = scoringService.score(transaction, context);
+        if (modelScore > modelScoreThreshold) {
+            alerts.add(createAlert(transaction,
+                    FraudAlertEntity.FraudReason.MODEL_SCORE,
+                    String.format("Fraud model %s scored the transaction %.2f",
+                            scoringService.modelVersion(), modelScore),
+                    modelScore));
+        }
+
+        return alerts;
+    }
+
+    private void persistAndNotify(List<FraudAlertEntity> alerts) {
+        fraudAlertRepository.saveAll(alerts);
+
+        // Send notifications for high-severity alerts once the alerts are committed, so a rolled-back
+        // batch that is retried record by record does not notify twice
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    notifyHighSeverity(alerts);
+                }
+            });
+        } else {
+            notifyHighSeverity(alerts);
+        }
+    }
+
+    private void notifyHighSeverity(List<FraudAlertEntity> alerts) {
+        alerts.stream()
+                .filter(alert -> "HIGH".equalsIgnoreCase(alert.getSeverity()))
+                .forEach(alert -> {
+                    try {
+                        notificationService.sendFraudAlert(alert);
+                    } catch (Exception e) {
+                        log.error("Failed to send fraud alert notification: {}", e.getMessage());
+                    }
+                });
     }
 
     private boolean isHighAmountTransaction(Transaction transaction) {
         return transaction.getAmount().compareTo(HIGH_AMOUNT_THRESHOLD) > 0;
     }
 
+    // Shared with FraudScoringService's amount_z feature, so the rule and the model see one scale
+    static double amountZScore(double amount, AmountStats stats) {
+        double stdDev = Math.max(stats.standardDeviation(), Math.abs(stats.getMean()) * MIN_STDDEV_FRACTION);
+        if (stdDev == 0.0) {
+            return 0.0;
+        }
+        return (amount - stats.getMean()) / stdDev;
+    }
+
     private boolean isHighRiskTransaction(Transaction transaction) {
         return transaction.getRiskScore() != null &&
                 transaction.getRiskScore() > HIGH_RISK_SCORE_THRESHOLD;
     }
 
-    private boolean isFrequentTransactionPattern(Transaction transaction) {
-        Optional<CustomerSummaryEntity> summaryOpt =
-                customerSummaryRepository.findById(transaction.getCustomerId());
-
+    private boolean isFrequentTransactionPattern(Optional<CustomerSummaryEntity> summaryOpt) {
         if (summaryOpt.isPresent()) {
             CustomerSummaryEntity summary = summaryOpt.get();
 
@@ -145,10 +337,7 @@ public class FraudDetectionService {
         return false;
     }
 
-    private boolean isVelocityCheckFailed(Transaction transaction) {
-        Optional<CustomerSummaryEntity> summaryOpt =
-                customerSummaryRepository.findById(transaction.getCustomerId());
-
+    private boolean isVelocityCheckFailed(Optional<CustomerSummaryEntity> summaryOpt) {
         if (summaryOpt.isPresent()) {
             CustomerSummaryEntity summary = summaryOpt.get();
 
@@ -160,19 +349,66 @@ public class FraudDetectionService {
         return false;
     }
 
-    private boolean isUnusualLocation(Transaction transaction) {
-        Optional<CustomerSummaryEntity> summaryOpt =
-                customerSummaryRepository.findById(transaction.getCustomerId());
+    // Unusual when the city is not among the customer's most frequent recent cities
+    private boolean isUnusualLocation(Transaction transaction, TransactionContext context) {
+        CustomerProfile profile = context.getProfile();
+        int cityId = CityDirectory.idOf(transaction.getSourceLocation());
+        if (profile == null || cityId < 0) {
+            return false;
+        }
 
-        if (summaryOpt.isPresent()) {
-            CustomerSummaryEntity summary = summaryOpt.get();
+        LocationHistory history = profile.getLocations();
+        return history.totalWeight() >= MIN_LOCATION_HISTORY
+                && !history.isAmongTop(cityId, FAMILIAR_LOCATIONS);
+    }
 
-            // Simple check: if preferred location is set and current location is different
-            return summary.getPreferredLocation() != null &&
-                    !summary.getPreferredLocation().equals(transaction.getSourceLocation());
+    // Speed implied by moving between the last known city and this one; 0 when not applicable,
+    // infinite when a different city is reported at the same instant. Late events compare
+    // against the absolute gap, since the order of the two visits does not change the speed.
+    private double travelSpeedKmh(Transaction transaction, TransactionContext context) {
+        CustomerProfile profile = context.getProfile();
+        int cityId = CityDirectory.idOf(transaction.getSourceLocation());
+        if (profile == null || cityId < 0 || profile.getLastCityId() < 0 || profile.getLastCityId() == cityId) {
+            return 0.0;
         }
 
-        return false;
+        double distanceKm = CityDirectory.distanceKm(profile.getLastCityId(), cityId);
+        long elapsedMillis = Math.abs(CustomerProfileService.eventMillis(transaction) - profile.getLastSeenMillis());
+        if (elapsedMillis == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return distanceKm / (elapsedMillis / 3_600_000.0);
+    }
+
+    // Estimates include the current transaction's device and IP, read from fixed-size sketches
+    private boolean isDeviceOrIpVelocityExceeded(Transaction transaction, TransactionContext context) {
+        CustomerProfile profile = context.getProfile();
+        if (profile == null) {
+            return false;
+        }
+        long now = CustomerProfileService.eventMillis(transaction);
+        return Math.round(profile.getDevices().estimateWith(transaction.getDeviceId(), now)) > MAX_DISTINCT_DEVICES
+                || Math.round(profile.getIpAddresses().estimateWith(transaction.getIpAddress(), now)) > MAX_DISTINCT_IPS;
+    }
+
+    // Reads the joined reference data; nothing is flagged when it is missing
+    private String accountRestriction(Transaction transaction, TransactionContext context) {
+        AccountReference account = context.getAccount();
+        if (account != null && account.getStatus() != null && !ACTIVE.equalsIgnoreCase(account.getStatus())) {
+            return "Transaction on account " + account.getAccountNumber() + " with status " + account.getStatus();
+        }
+        CustomerReference customer = context.getCustomer();
+        if (customer == null) {
+            return null;
+        }
+        if (customer.getAccountStatus() != null && !ACTIVE.equalsIgnoreCase(customer.getAccountStatus())) {
+            return "Transaction by customer with status " + customer.getAccountStatus();
+        }
+        if (customer.getKycStatus() != null && !KYC_VERIFIED.equalsIgnoreCase(customer.getKycStatus())
+                && transaction.getAmount().compareTo(UNVERIFIED_KYC_AMOUNT_THRESHOLD) > 0) {
+            return "Transaction of " + transaction.getAmount() + " by customer with KYC status " + customer.getKycStatus();
+        }
+        return null;
     }
 
     private boolean isSuspiciousPattern(Transaction transaction) {
@@ -224,7 +460,7 @@ public class FraudDetectionService {
         return "LOW";
     }
     private String generateAlertId() {
-        return "ALERT-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        return idGenerator.nextId("ALERT-");
     }
 
     public List<FraudAlertEntity> getActiveAlerts() {
@@ -232,8 +468,9 @@ public class FraudDetectionService {
                 FraudAlertEntity.AlertStatus.NEW);
     }
 
-    public List<FraudAlertEntity> getCustomerAlerts(String customerId) {
-        return fraudAlertRepository.findByCustomerIdOrderByTimestampDesc(customerId);
+    public List<FraudAlertEntity> getCustomerAlerts(String customerId, int days) {
+        return fraudAlertRepository.findByCustomerIdAndTimestampAfterOrderByTimestampDesc(
+                customerId, LocalDateTime.now().minusDays(days));
     }
 
     public void updateAlertStatus(String alertId, FraudAlertEntity.AlertStatus status) {
@@ -0,0 +1,164 @@
+package com.bankingplatform.streamprocessor.service;
+
+import com.bankingplatform.common.event.Transaction;
+import com.bankingplatform.streamprocessor.model.AmountStats;
+import com.bankingplatform.streamprocessor.model.CityDirectory;
+import com.bankingplatform.streamprocessor.model.CustomerProfile;
+import com.bankingplatform.streamprocessor.model.LocationHistory;
+import com.bankingplatform.streamprocessor.model.TransactionContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Map;
+
+// Logistic-regression fraud score over a fixed feature vector built from the transaction and the
+// customer's stream profile. The model is read from fraud.model.location at startup and, when that
+// is a file, swapped in again whenever the file changes. Scoring reuses a per-thread feature
+// array, so the per-transaction path allocates nothing.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FraudScoringService {
+
+    // Feature order of the weight vector; model files name their weights after these
+    static final String[] FEATURES = {
+            "log_amount", "amount_z", "international", "night",
+            "unfamiliar_location", "new_customer", "log_hours_since_last", "round_amount"
+    };
+
+    private static final double MAX_Z_SCORE = 10.0;
+
+    private record Model(String version, double intercept, double[] weights) {}
+
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper;
+
+    @Value("${fraud.model.location:classpath:fraud-model.json}")
+    private String modelLocation;
+
+    private final ThreadLocal<double[]> features = ThreadLocal.withInitial(() -> new double[FEATURES.length]);
+    private volatile Model model;
+    private long loadedLastModified;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Resource resource = resourceLoader.getResource(modelLocation);
+        this.model = load(resource);
+        this.loadedLastModified = resource.isFile() ? resource.lastModified() : 0L;
+        log.info("Loaded fraud scoring model {} from {}", model.version(), modelLocation);
+    }
+
+    // A model that fails to load leaves the current one in place
+    @Scheduled(fixedDelayString = "${fraud.model.reload-interval-ms:30000}")
+    public void reloadIfChanged() {
+        Resource resource = resourceLoader.getResource(modelLocation);
+        try {
+            if (!resource.isFile() || resource.lastModified() == loadedLastModified) {
+                return;
+            }
+            long lastModified = resource.lastModified();
+            Model reloaded = load(resource);
+            this.model = reloaded;
+            this.loadedLastModified = lastModified;
+            log.info("Swapped in fraud scoring model {}", reloaded.version());
+        } catch (Exception e) {
+            log.error("Could not reload fraud scoring model from {}: {}", modelLocation, e.getMessage());
+        }
+    }
+
+    // Probability in [0, 1] that the transaction is fraudulent
+    public double score(Transaction transaction, TransactionContext context) {
+        Model current = model;
+        double[] vector = features.get();
+        extractFeatures(transaction, context, vector);
+
+        double logit = current.intercept();
+        for (int i = 0; i < vector.length; i++) {
+            logit += current.weights()[i] * vector[i];
+        }
+        return 1.0 / (1.0 + Math.exp(-logit));
+    }
+
+    public String modelVersion() {
+        return model.version();
+    }
+
+    static void extractFeatures(Transaction transaction, TransactionContext context, double[] vector) {
+        CustomerProfile profile = context.getProfile();
+        double amount = transaction.getAmount() != null ? transaction.getAmount().doubleValue() : 0.0;
+        int hour = transaction.getTimestamp() != null ? transaction.getTimestamp().getHour() : 12;
+
+        vector[0] = Math.log1p(Math.max(amount, 0.0));
+        vector[1] = 0.0;
+        vector[2] = Boolean.TRUE.equals(transaction.getIsInternational()) ? 1.0 : 0.0;
+        vector[3] = hour >= 22 || hour <= 5 ? 1.0 : 0.0;
+        vector[4] = 0.0;
+        vector[5] = 1.0;
+        vector[6] = 0.0;
+        vector[7] = amount > 0 && amount % 100 == 0 ? 1.0 : 0.0;
+
+        if (profile == null) {
+            return;
+        }
+
+        AmountStats amounts = profile.getAmounts();
+        if (amounts.getCount() >= FraudDetectionService.MIN_AMOUNT_HISTORY) {
+            vector[5] = 0.0;
+            double zScore = FraudDetectionService.amountZScore(amount, amounts);
+            vector[1] = Math.max(-MAX_Z_SCORE, Math.min(MAX_Z_SCORE, zScore));
+        }
+
+        LocationHistory locations = profile.getLocations();
+        int cityId = CityDirectory.idOf(transaction.getSourceLocation());
+        if (cityId >= 0 && locations.totalWeight() >= FraudDetectionService.MIN_LOCATION_HISTORY
+                && !locations.isAmongTop(cityId, FraudDetectionService.FAMILIAR_LOCATIONS)) {
+            vector[4] = 1.0;
+        }
+
+        if (profile.getLastSeenMillis() > 0) {
+            long elapsed = Math.abs(CustomerProfileService.eventMillis(transaction) - profile.getLastSeenMillis());
+            vector[6] = Math.log1p(elapsed / 3_600_000.0);
+        }
+    }
+
+    // {"version": "...", "intercept": -6.0, "weights": {"log_amount": 0.35, ...}};
+    // features the file does not mention get weight 0, unknown names are rejected
+    private Model load(Resource resource) throws IOException {
+        JsonNode root;
+        try (InputStream in = resource.getInputStream()) {
+            root = objectMapper.readTree(in);
+        }
+        double[] weights = new double[FEATURES.length];
+        JsonNode weightsNode = root.path("weights");
+        Iterator<Map.Entry<String, JsonNode>> fields = weightsNode.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            int index = indexOf(field.getKey());
+            if (index < 0) {
+                throw new IOException("Unknown feature in fraud model: " + field.getKey());
+            }
+            weights[index] = field.getValue().asDouble();
+        }
+        return new Model(root.path("version").asText("unversioned"), root.path("intercept").asDouble(), weights);
+    }
+
+    private static int indexOf(String feature) {
+        for (int i = 0; i < FEATURES.length; i++) {
+            if (FEATURES[i].equals(feature)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,99 @@
+package com.bankingplatform.streamprocessor.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Count-Min sketch with a bounded candidate set of heavy hitters. Counting is lock-free and the
+// sketch has a fixed size, so an unbounded set of keys costs the same memory as a handful; only
+// the top entries are ever reported. Estimates can overcount on hash collisions, never under.
+public class HeavyHitters {
+
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 512;
+    // Longer keys are cut so a serialized top list always fits its column
+    static final int MAX_KEY_LENGTH = 64;
+
+    private final int topK;
+    private final AtomicLongArray counts = new AtomicLongArray(DEPTH * WIDTH);
+    private final Map<String, Long> candidates = new ConcurrentHashMap<>();
+    // Estimate an untracked key needs to become a candidate; raised each time the set is trimmed
+    private volatile long admissionFloor;
+
+    public HeavyHitters(int topK) {
+        this.topK = topK;
+    }
+
+    public void add(String key) {
+        if (key == null) {
+            return;
+        }
+        String trimmedKey = key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+        long estimate = increment(trimmedKey);
+        if (estimate >= admissionFloor || candidates.containsKey(trimmedKey)) {
+            candidates.put(trimmedKey, estimate);
+            if (candidates.size() > 2 * topK) {
+                trim();
+            }
+        }
+    }
+
+    // Top entries by estimated count, largest first
+    public Map<String, Long> top() {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>();
+        candidates.keySet().forEach(key -> entries.add(Map.entry(key, estimate(key))));
+        return topOf(entries, topK);
+    }
+
+    int candidateCount() {
+        return candidates.size();
+    }
+
+    public static Map<String, Long> topOf(Map<String, Long> counts, int topK) {
+        return topOf(new ArrayList<>(counts.entrySet()), topK);
+    }
+
+    private static Map<String, Long> topOf(List<Map.Entry<String, Long>> entries, int topK) {
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(topK, entries.size()); i++) {
+            result.put(entries.get(i).getKey(), entries.get(i).getValue());
+        }
+        return result;
+    }
+
+    private synchronized void trim() {
+        if (candidates.size() <= 2 * topK) {
+            return;
+        }
+        Map<String, Long> keep = top();
+        candidates.keySet().retainAll(keep.keySet());
+        keep.values().stream().mapToLong(Long::longValue).min().ifPresent(floor -> admissionFloor = floor);
+    }
+
+    private long increment(String key) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, counts.incrementAndGet(slot(key, row)));
+        }
+        return min;
+    }
+
+    private long estimate(String key) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, counts.get(slot(key, row)));
+        }
+        return min;
+    }
+
+    // Double hashing: the row offsets come from the key hash and a scrambled copy of it
+    private static int slot(String key, int row) {
+        int h1 = key.hashCode();
+        int h2 = Integer.reverse(h1 * 0x9E3779B9) | 1;
+        return row * WIDTH + Math.floorMod(h1 + row * h2, WIDTH);
+    }
+}
@@ -0,0 +1,407 @@
+package com.bankingplatform.streamprocessor.service;
+
+import com.bankingplatform.common.event.Transaction;
+import com.bankingplatform.streamprocessor.entity.TransactionMetricsEntity;
+import com.bankingplatform.streamprocessor.model.TransactionContext;
+import com.bankingplatform.streamprocessor.repository.FraudAlertRepository;
+import com.bankingplatform.streamprocessor.repository.TransactionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Reprocesses banking-transactions from a given offset or timestamp up to the end offsets
+// captured at startup. Runs only with the "replay" profile, where Kafka Streams and
+// notifications are disabled. Each poll is written with bulk inserts and one summary
+// read/write per batch. In merge mode (the default) only transactions that were not stored yet
+// count towards summaries, alerts and metrics, so replaying an already loaded range changes
+// nothing; their event-time minute windows are added to the stored ones after every batch.
+// In rebuild mode every replayed transaction counts, already stored ones included, which
+// recomputes derived data after a fix: summaries start from zero and the minute windows of the
+// replayed range are built in memory and replace the stored rows once the replay is done.
+@Slf4j
+@Service
+@Profile("replay")
+@RequiredArgsConstructor
+public class HistoricalReplayService implements ApplicationRunner {
+
+    // Rebuilt minute windows are written in transactions of this many rows
+    private static final int REPLACE_CHUNK_SIZE = 1000;
+
+    private final TransactionRepository transactionRepository;
+    private final FraudAlertRepository fraudAlertRepository;
+    private final TransactionProcessingService processingService;
+    private final CustomerSummaryService customerSummaryService;
+    private final FraudDetectionService fraudDetectionService;
+    private final MetricsAggregationService metricsService;
+    private final MetricsRollupService rollupService;
+    private final Serde<Transaction> transactionSerde;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ConfigurableApplicationContext applicationContext;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${replay.topic:banking-transactions}")
+    private String topic;
+
+    // Either an ISO timestamp (e.g. 2024-01-01T00:00:00) or an offset applied to every partition;
+    // with neither set the replay starts from the earliest retained offset
+    @Value("${replay.start-timestamp:}")
+    private String startTimestamp;
+
+    @Value("${replay.start-offset:-1}")
+    private long startOffset;
+
+    @Value("${replay.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${replay.progress-interval-ms:10000}")
+    private long progressIntervalMs;
+
+    // merge or rebuild, see above
+    @Value("${replay.mode:merge}")
+    private String mode;
+
+    @Value("${replay.rebuild-summaries:true}")
+    private boolean rebuildSummaries;
+
+    // Start each customer's summary from zero on first sight; unset means on in rebuild mode
+    @Value("${replay.reset-summaries:#{null}}")
+    private Boolean resetSummaries;
+
+    @Value("${replay.fraud-detection-enabled:false}")
+    private boolean fraudDetectionEnabled;
+
+    @Value("${replay.exit-on-completion:true}")
+    private boolean exitOnCompletion;
+
+    private final AtomicLong processedRecords = new AtomicLong(0);
+    private final AtomicLong remainingRecords = new AtomicLong(0);
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Gauge.builder("replay_records_processed", processedRecords::get).register(meterRegistry);
+        Gauge.builder("replay_records_remaining", remainingRecords::get).register(meterRegistry);
+
+        boolean failed = false;
+        try (KafkaConsumer<byte[], byte[]> consumer = createConsumer()) {
+            replay(consumer);
+        } catch (Exception e) {
+            failed = true;
+            log.error("Historical replay failed: {}", e.getMessage(), e);
+        }
+
+        // A non-zero status tells the batch runner the replay did not complete
+        if (exitOnCompletion) {
+            int exitCode = failed ? 1 : 0;
+            System.exit(SpringApplication.exit(applicationContext, () -> exitCode));
+        }
+    }
+
+    private void replay(KafkaConsumer<byte[], byte[]> consumer) {
+        List<TopicPartition> partitions = consumer.partitionsFor(topic).stream()
+                .map(info -> new TopicPartition(topic, info.partition()))
+                .toList();
+        consumer.assign(partitions);
+        seekToStart(consumer, partitions);
+
+        Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+        Map<TopicPartition, Long> pending = new HashMap<>();
+        long total = 0;
+        for (TopicPartition partition : partitions) {
+            long remaining = endOffsets.get(partition) - consumer.position(partition);
+            if (remaining > 0) {
+                pending.put(partition, endOffsets.get(partition));
+                total += remaining;
+            }
+        }
+        consumer.pause(partitions.stream().filter(p -> !pending.containsKey(p)).toList());
+        remainingRecords.set(total);
+        log.info("Starting replay of {} records from {} partitions of {}", total, pending.size(), topic);
+
+        boolean rebuild = "rebuild".equalsIgnoreCase(mode);
+        boolean reset = resetSummaries != null ? resetSummaries : rebuild;
+        log.info("Replay mode {}, summaries {}", rebuild ? "rebuild" : "merge",
+                !rebuildSummaries ? "untouched" : reset ? "reset" : "merged");
+
+        Deserializer<Transaction> deserializer = transactionSerde.deserializer();
+        Set<String> rebuiltCustomers = reset ? new HashSet<>() : null;
+        // Every id counted so far, when stored transactions count too, so one that appears on
+        // the topic more than once is still only counted once
+        Set<String> replayedIds = rebuild || reset ? new HashSet<>() : null;
+        TreeMap<LocalDateTime, MetricsWindow> rebuiltWindows = rebuild ? new TreeMap<>() : null;
+        LocalDateTime firstWindow = null;
+        LocalDateTime lastWindow = null;
+        long started = System.currentTimeMillis();
+        long lastProgress = started;
+        long skipped = 0;
+        long inserted = 0;
+        long windowsWritten = 0;
+
+        while (!pending.isEmpty()) {
+            ConsumerRecords<byte[], byte[]> records = consumer.poll(Duration.ofSeconds(1));
+            List<Transaction> batch = new ArrayList<>(records.count());
+
+            for (ConsumerRecord<byte[], byte[]> record : records) {
+                TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                Long end = pending.get(partition);
+                if (end == null || record.offset() >= end) {
+                    continue;
+                }
+                processedRecords.incrementAndGet();
+                remainingRecords.decrementAndGet();
+
+                Transaction transaction = deserialize(deserializer, record);
+                if (transaction == null || transaction.getCustomerId() == null
+                        || transaction.getTimestamp() == null || transaction.getAmount() == null) {
+                    skipped++;
+                    continue;
+                }
+                batch.add(transaction);
+            }
+
+            if (!batch.isEmpty()) {
+                BatchResult result = writeBatch(batch, rebuiltCustomers, replayedIds);
+                inserted += result.inserted().size();
+
+                Set<String> flagged = new HashSet<>();
+                if (fraudDetectionEnabled && !result.inserted().isEmpty()) {
+                    flagged.addAll(fraudDetectionService.analyzeBatch(result.inserted(),
+                            Collections.nCopies(result.inserted().size(), TransactionContext.empty())));
+                }
+
+                // Merge mode only adds what this replay inserted; rebuild mode counts every
+                // transaction, with the alerts already raised for the stored ones
+                List<Transaction> counted = rebuild ? result.counted() : result.inserted();
+                if (rebuild && counted.size() > result.inserted().size()) {
+                    flagged.addAll(alertedTransactionIds(counted));
+                }
+                TreeMap<LocalDateTime, MetricsWindow> windows = rebuild ? rebuiltWindows : new TreeMap<>();
+                for (Transaction transaction : counted) {
+                    windows.computeIfAbsent(transaction.getTimestamp().truncatedTo(ChronoUnit.MINUTES),
+                            k -> new MetricsWindow()).add(transaction, flagged.contains(transaction.getTransactionId()));
+                }
+                if (!windows.isEmpty()) {
+                    if (!rebuild) {
+                        metricsService.mergeMetricsWindows(toEntities(windows));
+                        windowsWritten += windows.size();
+                    }
+                    firstWindow = firstWindow == null || windows.firstKey().isBefore(firstWindow)
+                            ? windows.firstKey() : firstWindow;
+                    lastWindow = lastWindow == null || windows.lastKey().isAfter(lastWindow)
+                            ? windows.lastKey() : lastWindow;
+                }
+            }
+
+            // Compare positions rather than record offsets: the last offsets may be transaction markers
+            List<TopicPartition> finished = pending.entrySet().stream()
+                    .filter(entry -> consumer.position(entry.getKey()) >= entry.getValue())
+                    .map(Map.Entry::getKey)
+                    .toList();
+            finished.forEach(pending::remove);
+            consumer.pause(finished);
+
+            long now = System.currentTimeMillis();
+            if (now - lastProgress >= progressIntervalMs) {
+                logProgress(started, now, total);
+                lastProgress = now;
+            }
+        }
+
+        if (rebuild && !rebuiltWindows.isEmpty()) {
+            List<TransactionMetricsEntity> entities = toEntities(rebuiltWindows);
+            for (int from = 0; from < entities.size(); from += REPLACE_CHUNK_SIZE) {
+                metricsService.replaceMetricsWindows(
+                        entities.subList(from, Math.min(from + REPLACE_CHUNK_SIZE, entities.size())));
+            }
+            windowsWritten = entities.size();
+        }
+        if (firstWindow != null) {
+            rollupService.rebuildRollups(firstWindow, lastWindow.plusMinutes(1));
+        }
+
+        logProgress(started, System.currentTimeMillis(), total);
+        log.info("Replay completed: {} records processed, {} inserted, {} already stored, {} skipped, " +
+                        "{} metrics windows updated",
+                processedRecords.get(), inserted, processedRecords.get() - skipped - inserted, skipped,
+                windowsWritten);
+    }
+
+    // inserted: the transactions this batch stored. counted: with replayedIds, every transaction
+    // seen for the first time in this replay, stored before or not; otherwise the inserted ones.
+    // Summaries get the counted transactions when they are being reset, else the inserted ones.
+    private record BatchResult(List<Transaction> inserted, List<Transaction> counted) {}
+
+    private BatchResult writeBatch(List<Transaction> batch, Set<String> rebuiltCustomers, Set<String> replayedIds) {
+        return transactionTemplate.execute(status -> {
+            Map<String, LocalDateTime> existing = new HashMap<>();
+            transactionRepository.findExistingTransactionIds(
+                            batch.stream().map(Transaction::getTransactionId).toList())
+                    .forEach(row -> existing.put((String) row[0], (LocalDateTime) row[1]));
+
+            // Insert only transactions not already stored; persist() avoids the select that save() issues
+            List<Transaction> inserted = new ArrayList<>();
+            List<Transaction> counted = new ArrayList<>();
+            Set<String> seen = replayedIds != null ? replayedIds : new HashSet<>();
+            for (Transaction transaction : batch) {
+                String transactionId = transaction.getTransactionId();
+                if (!seen.add(transactionId)) {
+                    continue;
+                }
+                if (!existing.containsKey(transactionId)) {
+                    entityManager.persist(processingService.toEntity(transaction));
+                    inserted.add(transaction);
+                    counted.add(transaction);
+                } else if (replayedIds != null) {
+                    counted.add(transaction);
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+
+            List<Transaction> summarized = rebuiltCustomers != null ? counted : inserted;
+            if (rebuildSummaries && !summarized.isEmpty()) {
+                customerSummaryService.applyTransactionBatch(summarized, rebuiltCustomers);
+            }
+            return new BatchResult(inserted, counted);
+        });
+    }
+
+    private Set<String> alertedTransactionIds(List<Transaction> transactions) {
+        return new HashSet<>(fraudAlertRepository.findAlertedTransactionIds(
+                transactions.stream().map(Transaction::getCustomerId).collect(Collectors.toSet()),
+                transactions.stream().map(Transaction::getTransactionId).toList()));
+    }
+
+    private List<TransactionMetricsEntity> toEntities(TreeMap<LocalDateTime, MetricsWindow> windows) {
+        return windows.entrySet().stream()
+                .map(entry -> entry.getValue().toEntity(entry.getKey()))
+                .toList();
+    }
+
+    private Transaction deserialize(Deserializer<Transaction> deserializer, ConsumerRecord<byte[], byte[]> record) {
+        try {
+            return deserializer.deserialize(record.topic(), record.value());
+        } catch (Exception e) {
+            log.debug("Skipping undeserializable record {}-{}@{}: {}",
+                    record.topic(), record.partition(), record.offset(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void seekToStart(KafkaConsumer<byte[], byte[]> consumer, List<TopicPartition> partitions) {
+        if (!startTimestamp.isBlank()) {
+            long epochMillis = LocalDateTime.parse(startTimestamp)
+                    .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            Map<TopicPartition, OffsetAndTimestamp> offsets = consumer.offsetsForTimes(partitions.stream()
+                    .collect(Collectors.toMap(p -> p, p -> epochMillis)));
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            offsets.forEach((partition, offset) ->
+                    consumer.seek(partition, offset != null ? offset.offset() : endOffsets.get(partition)));
+            log.info("Replay starting from timestamp {}", startTimestamp);
+        } else if (startOffset >= 0) {
+            Map<TopicPartition, Long> beginningOffsets = consumer.beginningOffsets(partitions);
+            partitions.forEach(partition ->
+                    consumer.seek(partition, Math.max(startOffset, beginningOffsets.get(partition))));
+            log.info("Replay starting from offset {}", startOffset);
+        } else {
+            consumer.seekToBeginning(partitions);
+            log.info("Replay starting from the earliest offsets");
+        }
+    }
+
+    private void logProgress(long started, long now, long total) {
+        long processed = processedRecords.get();
+        double elapsedSeconds = Math.max(1, now - started) / 1000.0;
+        double rate = processed / elapsedSeconds;
+        long etaSeconds = rate > 0 ? Math.round(remainingRecords.get() / rate) : -1;
+        log.info("Replay progress: {}/{} records ({}%), {} records/s, ETA {}s",
+                processed, total, total > 0 ? processed * 100 / total : 100, Math.round(rate), etaSeconds);
+    }
+
+    private KafkaConsumer<byte[], byte[]> createConsumer() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchSize);
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, 1024 * 1024);
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, 500);
+        props.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, 8 * 1024 * 1024);
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        return new KafkaConsumer<>(props);
+    }
+
+    // Event-time minute window accumulated during the replay
+    private class MetricsWindow {
+        private long count;
+        private BigDecimal amount = BigDecimal.ZERO;
+        private double riskSum;
+        private long alerts;
+        private final Map<String, Long> byType = new HashMap<>();
+        private final Map<String, Long> byStatus = new HashMap<>();
+        private final HeavyHitters byLocation = new HeavyHitters(MetricsEpoch.TOP_K);
+        private final HeavyHitters byMerchant = new HeavyHitters(MetricsEpoch.TOP_K);
+
+        void add(Transaction transaction, boolean flagged) {
+            count++;
+            if (flagged) {
+                alerts++;
+            }
+            amount = amount.add(transaction.getAmount());
+            if (transaction.getRiskScore() != null) {
+                riskSum += transaction.getRiskScore();
+            }
+            byType.merge(String.valueOf(transaction.getType()), 1L, Long::sum);
+            byStatus.merge(String.valueOf(transaction.getStatus()), 1L, Long::sum);
+            byLocation.add(transaction.getSourceLocation());
+            byMerchant.add(transaction.getMerchantName());
+        }
+
+        TransactionMetricsEntity toEntity(LocalDateTime windowStart) {
+            return metricsService.buildMetricsEntity(windowStart, count, amount,
+                    byType, byStatus, byLocation.top(), byMerchant.top(), alerts, riskSum);
+        }
+    }
+}
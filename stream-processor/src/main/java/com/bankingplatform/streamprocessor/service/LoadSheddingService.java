@@ -0,0 +1,249 @@
+package com.bankingplatform.streamprocessor.service;
+
+import com.bankingplatform.common.event.Transaction;
+import com.bankingplatform.common.serialization.EventJson;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Lag-aware controller: while the smoothed end-to-end lag is above the threshold,
+// customer summary and metrics updates are parked in a bounded catch-up queue so
+// that persistence and fraud detection keep up with the stream.
+// The queue is the deferred_summary_updates table. A deferral is written in the caller's
+// database transaction, so it is discarded with a rollback, cannot be queued twice by a
+// retry and is not lost when the process stops after the offsets are committed.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LoadSheddingService {
+
+    public static final String STAGE_PERSIST = "persist";
+    public static final String STAGE_SUMMARY = "summary";
+    public static final String STAGE_FRAUD = "fraud";
+    public static final String STAGE_METRICS = "metrics";
+
+    private final CustomerSummaryService customerSummaryService;
+    private final MetricsAggregationService metricsService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${stream.load-shedding.enabled:true}")
+    private boolean enabled;
+
+    // Start deferring above this lag, resume inline processing below the low-water mark
+    @Value("${stream.load-shedding.lag-threshold-ms:5000}")
+    private long lagThresholdMs;
+
+    @Value("${stream.load-shedding.lag-recovery-ms:1000}")
+    private long lagRecoveryMs;
+
+    @Value("${stream.load-shedding.catch-up-queue-capacity:50000}")
+    private int catchUpQueueCapacity;
+
+    @Value("${stream.load-shedding.catch-up-batch-size:500}")
+    private int catchUpBatchSize;
+
+    // A deferral that keeps failing is left in the table for inspection after this many drains
+    @Value("${stream.load-shedding.catch-up-max-attempts:5}")
+    private int catchUpMaxAttempts;
+
+    // Rows in the catch-up table as of the last drain plus deferrals committed since
+    private final AtomicLong catchUpQueueSize = new AtomicLong();
+
+    // Exponentially weighted moving average of event-time lag, in milliseconds
+    private volatile double smoothedLagMs = 0.0;
+    private volatile boolean shedding = false;
+    private static final double LAG_SMOOTHING = 0.1;
+
+    private Timer endToEndLagTimer;
+    private Counter deferredCounter;
+    private Counter caughtUpCounter;
+
+    @PostConstruct
+    public void init() {
+        this.endToEndLagTimer = Timer.builder("transaction_end_to_end_lag")
+                .description("Delay between transaction event time and processing")
+                .register(meterRegistry);
+
+        this.deferredCounter = Counter.builder("transactions_deferred_total")
+                .description("Transactions whose summary and metrics updates were deferred")
+                .register(meterRegistry);
+
+        this.caughtUpCounter = Counter.builder("transactions_caught_up_total")
+                .description("Deferred transactions drained from the catch-up queue")
+                .register(meterRegistry);
+
+        Gauge.builder("transaction_catch_up_queue_size", catchUpQueueSize, AtomicLong::get)
+                .description("Transactions waiting in the catch-up queue")
+                .register(meterRegistry);
+
+        Gauge.builder("transaction_load_shedding_active", () -> shedding ? 1 : 0)
+                .description("Whether non-critical stages are currently deferred")
+                .register(meterRegistry);
+    }
+
+    // Records the lag of the incoming transaction and decides whether its
+    // non-critical stages should be deferred
+    public boolean shouldDefer(Transaction transaction) {
+        if (transaction.getTimestamp() != null) {
+            long lagMs = Math.max(0, Duration.between(transaction.getTimestamp(), LocalDateTime.now()).toMillis());
+            endToEndLagTimer.record(lagMs, TimeUnit.MILLISECONDS);
+            smoothedLagMs = smoothedLagMs + LAG_SMOOTHING * (lagMs - smoothedLagMs);
+        }
+
+        if (!enabled) {
+            return false;
+        }
+
+        if (!shedding && smoothedLagMs > lagThresholdMs) {
+            shedding = true;
+            log.warn("End-to-end lag {} ms above threshold, deferring summary and metrics updates",
+                    Math.round(smoothedLagMs));
+        } else if (shedding && smoothedLagMs < lagRecoveryMs) {
+            shedding = false;
+            log.info("End-to-end lag recovered to {} ms, resuming inline summary and metrics updates",
+                    Math.round(smoothedLagMs));
+        }
+
+        return shedding;
+    }
+
+    // Must run inside the transaction that persists the transaction. Returns false when the
+    // queue is full, in which case the caller runs the stages inline.
+    public boolean defer(Transaction transaction) {
+        if (catchUpQueueSize.get() >= catchUpQueueCapacity) {
+            log.debug("Catch-up queue full, processing transaction {} inline", transaction.getTransactionId());
+            return false;
+        }
+
+        int queued = jdbcTemplate.update(
+                "INSERT INTO deferred_summary_updates (transaction_id, customer_id, payload, enqueued_at) " +
+                        "VALUES (?, ?, ?, ?) ON CONFLICT (transaction_id) DO NOTHING",
+                transaction.getTransactionId(), transaction.getCustomerId(), toPayload(transaction),
+                Timestamp.valueOf(LocalDateTime.now()));
+        if (queued == 0) {
+            // Already waiting in the queue: its summary must not be counted a second time
+            return true;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                catchUpQueueSize.incrementAndGet();
+                deferredCounter.increment();
+            }
+        });
+        return true;
+    }
+
+    public <T> T timeStage(String stage, Supplier<T> work) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return work.get();
+        } finally {
+            sample.stop(meterRegistry.timer("transaction_stage_duration", "stage", stage));
+        }
+    }
+
+    public void timeStage(String stage, Runnable work) {
+        timeStage(stage, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    // Drain deferred work whenever the stream has caught up. Each deferral is claimed by
+    // deleting its row in the same transaction as the summary update; the summary row lock
+    // taken by updateCustomerSummary serializes this with the stream threads.
+    @Scheduled(fixedDelay = 1000)
+    public void drainCatchUpQueue() {
+        catchUpQueueSize.set(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM deferred_summary_updates", Long.class));
+        if (shedding || catchUpQueueSize.get() == 0) {
+            return;
+        }
+
+        List<String[]> pending = jdbcTemplate.query(
+                "SELECT transaction_id, payload FROM deferred_summary_updates WHERE attempts < ? " +
+                        "ORDER BY enqueued_at LIMIT ?",
+                (rs, rowNum) -> new String[]{rs.getString(1), rs.getString(2)},
+                catchUpMaxAttempts, catchUpBatchSize);
+
+        int drained = 0;
+        for (String[] row : pending) {
+            if (shedding) {
+                break;
+            }
+            String transactionId = row[0];
+            try {
+                Transaction transaction = EventJson.MAPPER.readValue(row[1], Transaction.class);
+                Boolean applied = transactionTemplate.execute(status -> {
+                    if (jdbcTemplate.update("DELETE FROM deferred_summary_updates WHERE transaction_id = ?",
+                            transactionId) == 0) {
+                        return false;
+                    }
+                    timeStage(STAGE_SUMMARY, () -> customerSummaryService.updateCustomerSummary(transaction));
+                    return true;
+                });
+                if (Boolean.TRUE.equals(applied)) {
+                    timeStage(STAGE_METRICS, () -> metricsService.updateMetrics(transaction));
+                    caughtUpCounter.increment();
+                    drained++;
+                }
+            } catch (Exception e) {
+                log.error("Error applying deferred updates for transaction {}: {}",
+                        transactionId, e.getMessage(), e);
+                jdbcTemplate.update("UPDATE deferred_summary_updates SET attempts = attempts + 1 " +
+                        "WHERE transaction_id = ?", transactionId);
+            }
+        }
+
+        if (drained > 0) {
+            long caughtUp = drained;
+            long remaining = catchUpQueueSize.updateAndGet(size -> Math.max(0, size - caughtUp));
+            log.info("Applied deferred updates for {} transactions, {} remaining", drained, remaining);
+        }
+    }
+
+    private String toPayload(Transaction transaction) {
+        try {
+            return EventJson.MAPPER.writeValueAsString(transaction);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize deferred transaction "
+                    + transaction.getTransactionId(), e);
+        }
+    }
+
+    public boolean isShedding() {
+        return shedding;
+    }
+
+    public long getSmoothedLagMs() {
+        return Math.round(smoothedLagMs);
+    }
+
+    public long getCatchUpQueueSize() {
+        return catchUpQueueSize.get();
+    }
+}
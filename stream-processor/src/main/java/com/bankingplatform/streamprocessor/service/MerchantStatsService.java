@@ -0,0 +1,102 @@
+package com.bankingplatform.streamprocessor.service;
+
+import com.bankingplatform.streamprocessor.model.MerchantStats;
+import com.bankingplatform.streamprocessor.topology.StreamProcessorTopology;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// Merchant and merchant-category window totals served from the local window stores
+// (interactive queries). The current window is a point lookup on key and window start instead
+// of a GROUP BY over the transactions table.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MerchantStatsService {
+
+    private final StreamsBuilderFactoryBean streamsBuilderFactoryBean;
+
+    @Value("${stream.merchants.window-minutes:60}")
+    private long windowMinutes;
+
+    @Value("${stream.merchants.retention-hours:48}")
+    private long retentionHours;
+
+    public Optional<MerchantStats> getMerchant(String merchantName) {
+        return current(StreamProcessorTopology.MERCHANT_STATS_STORE, merchantName);
+    }
+
+    public Optional<MerchantStats> getCategory(String merchantCategory) {
+        return current(StreamProcessorTopology.MERCHANT_CATEGORY_STATS_STORE, merchantCategory);
+    }
+
+    public List<MerchantStats> getMerchantHistory(String merchantName, int hours) {
+        return history(StreamProcessorTopology.MERCHANT_STATS_STORE, merchantName, hours);
+    }
+
+    public List<MerchantStats> getCategoryHistory(String merchantCategory, int hours) {
+        return history(StreamProcessorTopology.MERCHANT_CATEGORY_STATS_STORE, merchantCategory, hours);
+    }
+
+    // Tumbling windows are aligned to the epoch, so the current one starts at now rounded down
+    private Optional<MerchantStats> current(String storeName, String key) {
+        long windowMillis = Duration.ofMinutes(windowMinutes).toMillis();
+        long now = System.currentTimeMillis();
+        long windowStart = now - now % windowMillis;
+        return store(storeName).map(store -> store.fetch(key, windowStart))
+                .map(stats -> withBounds(stats, windowStart, windowMillis));
+    }
+
+    private List<MerchantStats> history(String storeName, String key, int hours) {
+        long windowMillis = Duration.ofMinutes(windowMinutes).toMillis();
+        Instant to = Instant.now();
+        Instant from = to.minus(Duration.ofHours(Math.min(Math.max(hours, 1), retentionHours)));
+        List<MerchantStats> windows = new ArrayList<>();
+        store(storeName).ifPresent(store -> {
+            try (WindowStoreIterator<MerchantStats> iterator = store.fetch(key, from, to)) {
+                while (iterator.hasNext()) {
+                    KeyValue<Long, MerchantStats> window = iterator.next();
+                    windows.add(withBounds(window.value, window.key, windowMillis));
+                }
+            }
+        });
+        return windows;
+    }
+
+    // Empty when this instance does not hold the key's partition or the store is not queryable
+    // yet (e.g. during a rebalance)
+    private Optional<ReadOnlyWindowStore<String, MerchantStats>> store(String storeName) {
+        KafkaStreams kafkaStreams = streamsBuilderFactoryBean.getKafkaStreams();
+        if (kafkaStreams == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(kafkaStreams.store(StoreQueryParameters.fromNameAndType(
+                    storeName, QueryableStoreTypes.windowStore())));
+        } catch (InvalidStateStoreException e) {
+            log.debug("Merchant store {} not queryable: {}", storeName, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static MerchantStats withBounds(MerchantStats stats, long windowStart, long windowMillis) {
+        stats.setWindowStart(Instant.ofEpochMilli(windowStart));
+        stats.setWindowEnd(Instant.ofEpochMilli(windowStart + windowMillis));
+        return stats;
+    }
+}
@@ -1,27 +1,27 @@
 package com.bankingplatform.streamprocessor.service;
 
+import com.bankingplatform.common.event.Transaction;
 import com.bankingplatform.streamprocessor.entity.TransactionMetricsEntity;
-import com.bankingplatform.streamprocessor.model.Transaction;
-import com.bankingplatform.streamprocessor.repository.FraudAlertRepository;
 import com.bankingplatform.streamprocessor.repository.TransactionMetricsRepository;
-import com.bankingplatform.streamprocessor.repository.TransactionRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
@@ -29,51 +29,46 @@ import java.util.concurrent.atomic.AtomicReference;
 @RequiredArgsConstructor
 public class MetricsAggregationService {
 
+    private static final TypeReference<Map<String, Long>> COUNT_MAP = new TypeReference<>() {};
+
     private final TransactionMetricsRepository metricsRepository;
-    private final TransactionRepository transactionRepository;
-    private final FraudAlertRepository fraudAlertRepository;
+    private final MetricsRollupService rollupService;
     private final ObjectMapper objectMapper;
 
-    // In-memory counters for real-time metrics (reset every minute)
-    private final AtomicLong transactionCount = new AtomicLong(0);
-    private final AtomicReference<BigDecimal> totalAmount = new AtomicReference<>(BigDecimal.ZERO);
-    private final Map<String, AtomicLong> transactionsByType = new ConcurrentHashMap<>();
-    private final Map<String, AtomicLong> transactionsByStatus = new ConcurrentHashMap<>();
-    private final Map<String, AtomicLong> transactionsByLocation = new ConcurrentHashMap<>();
-    private final AtomicReference<Double> totalRiskScore = new AtomicReference<>(0.0);
-    private final AtomicLong alertsCount = new AtomicLong(0);
+    // In-memory counters for real-time metrics, swapped for a fresh epoch every minute
+    private final AtomicReference<MetricsEpoch> currentEpoch = new AtomicReference<>(new MetricsEpoch());
 
     public void updateMetrics(Transaction transaction) {
-        // Update real-time counters
-        transactionCount.incrementAndGet();
-
-        // Update total amount atomically
-        totalAmount.updateAndGet(current -> current.add(transaction.getAmount()));
-
-        // Update type counters
-        transactionsByType.computeIfAbsent(transaction.getType().toString(),
-                k -> new AtomicLong(0)).incrementAndGet();
-
-        // Update status counters
-        transactionsByStatus.computeIfAbsent(transaction.getStatus().toString(),
-                k -> new AtomicLong(0)).incrementAndGet();
-
-        // Update location counters
-        if (transaction.getSourceLocation() != null) {
-            transactionsByLocation.computeIfAbsent(transaction.getSourceLocation(),
-                    k -> new AtomicLong(0)).incrementAndGet();
-        }
-
-        // Update risk score
-        if (transaction.getRiskScore() != null) {
-            totalRiskScore.updateAndGet(current -> current + transaction.getRiskScore());
+        MetricsEpoch epoch = enterCurrentEpoch();
+        try {
+            epoch.recordTransaction(transaction);
+        } finally {
+            epoch.exit();
         }
 
         log.debug("Updated real-time metrics for transaction: {}", transaction.getTransactionId());
     }
 
     public void recordFraudAlert() {
-        alertsCount.incrementAndGet();
+        MetricsEpoch epoch = enterCurrentEpoch();
+        try {
+            epoch.recordAlert();
+        } finally {
+            epoch.exit();
+        }
+    }
+
+    // Register as a writer, then re-check the epoch is still current; if the flusher swapped
+    // it in between, back out and retry so the update lands in the new window
+    private MetricsEpoch enterCurrentEpoch() {
+        while (true) {
+            MetricsEpoch epoch = currentEpoch.get();
+            epoch.enter();
+            if (currentEpoch.get() == epoch) {
+                return epoch;
+            }
+            epoch.exit();
+        }
     }
 
     // Scheduled job to aggregate and persist metrics every minute
@@ -82,16 +77,20 @@ public class MetricsAggregationService {
         try {
             LocalDateTime now = LocalDateTime.now();
             LocalDateTime windowStart = now.truncatedTo(ChronoUnit.MINUTES);
-            LocalDateTime windowEnd = windowStart.plusMinutes(1);
 
-            // Capture current metrics and reset counters
-            long totalTxns = transactionCount.getAndSet(0);
-            BigDecimal totalAmt = totalAmount.getAndSet(BigDecimal.ZERO);
-            Map<String, Long> typeMetrics = captureAndResetMap(transactionsByType);
-            Map<String, Long> statusMetrics = captureAndResetMap(transactionsByStatus);
-            Map<String, Long> locationMetrics = captureAndResetMap(transactionsByLocation);
-            double totalRisk = totalRiskScore.getAndSet(0.0);
-            long alerts = alertsCount.getAndSet(0);
+            // Swap in a fresh epoch and wait for in-flight writers before reading the closed one
+            MetricsEpoch closed = currentEpoch.getAndSet(new MetricsEpoch());
+            closed.awaitWriters();
+
+            MetricsEpoch.Totals totals = closed.totals();
+            long totalTxns = totals.transactions();
+            BigDecimal totalAmt = totals.amount();
+            Map<String, Long> typeMetrics = closed.transactionsByType();
+            Map<String, Long> statusMetrics = closed.transactionsByStatus();
+            Map<String, Long> locationMetrics = closed.transactionsByLocation();
+            Map<String, Long> merchantMetrics = closed.transactionsByMerchant();
+            double totalRisk = totals.riskSum();
+            long alerts = totals.alerts();
 
             // Skip if no transactions in this window
             if (totalTxns == 0) {
@@ -99,29 +98,8 @@ public class MetricsAggregationService {
                 return;
             }
 
-            // Calculate average amount and risk score
-            BigDecimal avgAmount = totalAmt.divide(BigDecimal.valueOf(totalTxns), 2, RoundingMode.HALF_UP);
-            double avgRiskScore = totalTxns > 0 ? totalRisk / totalTxns : 0.0;
-
-            // Create metrics entity
-            TransactionMetricsEntity metricsEntity = TransactionMetricsEntity.builder()
-                    .id(UUID.randomUUID())
-                    .metricDate(windowStart.toLocalDate())
-                    .windowStart(windowStart)
-                    .windowEnd(windowEnd)
-                    .totalTransactions(totalTxns)
-                    .totalAmount(totalAmt)
-                    .avgAmount(avgAmount)
-                    .transactionsByType(mapToJson(typeMetrics))
-                    .transactionsByStatus(mapToJson(statusMetrics))
-                    .transactionsByLocation(mapToJson(locationMetrics))
-                    .alertsGenerated(alerts)
-                    .avgRiskScore(avgRiskScore)
-                    .createdAt(now)
-                    .build();
-
-            metricsRepository.save(metricsEntity);
-
+            TransactionMetricsEntity metricsEntity = buildMetricsEntity(windowStart, totalTxns, totalAmt,
+                    typeMetrics, statusMetrics, locationMetrics, merchantMetrics, alerts, totalRisk);
 
             metricsRepository.save(metricsEntity);
 
@@ -133,37 +111,116 @@ public class MetricsAggregationService {
         }
     }
 
-    // Scheduled job to generate hourly summary metrics
-    @Scheduled(fixedRate = 3600000) // Every hour
-    public void generateHourlySummary() {
-        try {
-            LocalDateTime now = LocalDateTime.now();
-            LocalDateTime oneHourAgo = now.minusHours(1);
-
-            // Query database for historical metrics
-            Long totalTransactions = transactionRepository.countTransactionsSince(oneHourAgo);
-            BigDecimal totalAmount = transactionRepository.sumAmountSince(oneHourAgo);
-            Long totalAlerts = fraudAlertRepository.countAlertsSince(oneHourAgo);
-
-            log.info("Hourly Summary - Transactions: {}, Amount: {}, Alerts: {}",
-                    totalTransactions, totalAmount, totalAlerts);
+    public TransactionMetricsEntity buildMetricsEntity(LocalDateTime windowStart, long totalTxns,
+                                                       BigDecimal totalAmt, Map<String, Long> typeMetrics,
+                                                       Map<String, Long> statusMetrics,
+                                                       Map<String, Long> locationMetrics,
+                                                       Map<String, Long> merchantMetrics,
+                                                       long alerts, double totalRisk) {
+        // Calculate average amount and risk score
+        BigDecimal avgAmount = totalAmt.divide(BigDecimal.valueOf(totalTxns), 2, RoundingMode.HALF_UP);
+        double avgRiskScore = totalTxns > 0 ? totalRisk / totalTxns : 0.0;
+
+        return TransactionMetricsEntity.builder()
+                .id(UUID.randomUUID())
+                .metricDate(windowStart.toLocalDate())
+                .windowStart(windowStart)
+                .windowEnd(windowStart.plusMinutes(1))
+                .totalTransactions(totalTxns)
+                .totalAmount(totalAmt)
+                .avgAmount(avgAmount)
+                .transactionsByType(mapToJson(typeMetrics))
+                .transactionsByStatus(mapToJson(statusMetrics))
+                .transactionsByLocation(mapToJson(locationMetrics))
+                .transactionsByMerchant(mapToJson(merchantMetrics))
+                .alertsGenerated(alerts)
+                .avgRiskScore(avgRiskScore)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
 
-            // You could persist this summary to a separate table or send to monitoring system
+    // Adds the given windows to any rows already stored for the same minutes, used when
+    // reprocessing history; each window must only count transactions not counted before
+    @Transactional
+    public void mergeMetricsWindows(List<TransactionMetricsEntity> windows) {
+        if (windows.isEmpty()) {
+            return;
+        }
+        LocalDateTime from = windows.stream().map(TransactionMetricsEntity::getWindowStart)
+                .min(LocalDateTime::compareTo).orElseThrow();
+        LocalDateTime to = windows.stream().map(TransactionMetricsEntity::getWindowEnd)
+                .max(LocalDateTime::compareTo).orElseThrow();
+        Map<LocalDateTime, TransactionMetricsEntity> existing = new HashMap<>();
+        metricsRepository.findWindows(from, to).forEach(row -> existing.put(row.getWindowStart(), row));
+
+        List<TransactionMetricsEntity> merged = new ArrayList<>(windows.size());
+        for (TransactionMetricsEntity window : windows) {
+            TransactionMetricsEntity stored = existing.get(window.getWindowStart());
+            merged.add(stored != null ? mergeInto(stored, window) : window);
+        }
+        metricsRepository.saveAll(merged);
+    }
 
-        } catch (Exception e) {
-            log.error("Error generating hourly summary: {}", e.getMessage(), e);
+    // Overwrites the rows stored for the same minutes, used when history is replayed to
+    // recompute derived data; each window must count every transaction of its minute
+    @Transactional
+    public void replaceMetricsWindows(List<TransactionMetricsEntity> windows) {
+        if (windows.isEmpty()) {
+            return;
+        }
+        LocalDateTime from = windows.stream().map(TransactionMetricsEntity::getWindowStart)
+                .min(LocalDateTime::compareTo).orElseThrow();
+        LocalDateTime to = windows.stream().map(TransactionMetricsEntity::getWindowEnd)
+                .max(LocalDateTime::compareTo).orElseThrow();
+        Map<LocalDateTime, TransactionMetricsEntity> existing = new HashMap<>();
+        metricsRepository.findWindows(from, to).forEach(row -> existing.put(row.getWindowStart(), row));
+
+        for (TransactionMetricsEntity window : windows) {
+            TransactionMetricsEntity stored = existing.get(window.getWindowStart());
+            if (stored != null) {
+                window.setId(stored.getId());
+            }
         }
+        metricsRepository.saveAll(windows);
     }
 
-    private Map<String, Long> captureAndResetMap(Map<String, AtomicLong> atomicMap) {
-        Map<String, Long> result = new HashMap<>();
-        atomicMap.forEach((key, value) -> {
-            long count = value.getAndSet(0);
-            if (count > 0) {
-                result.put(key, count);
+    private TransactionMetricsEntity mergeInto(TransactionMetricsEntity stored, TransactionMetricsEntity added) {
+        long count = stored.getTotalTransactions() + added.getTotalTransactions();
+        BigDecimal amount = stored.getTotalAmount().add(added.getTotalAmount());
+        double riskSum = stored.getAvgRiskScore() * stored.getTotalTransactions()
+                + added.getAvgRiskScore() * added.getTotalTransactions();
+
+        stored.setTotalTransactions(count);
+        stored.setTotalAmount(amount);
+        stored.setAvgAmount(count > 0 ? amount.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO);
+        stored.setAvgRiskScore(count > 0 ? riskSum / count : 0.0);
+        stored.setAlertsGenerated(stored.getAlertsGenerated() + added.getAlertsGenerated());
+        stored.setTransactionsByType(mapToJson(mergeCounts(stored.getTransactionsByType(),
+                added.getTransactionsByType())));
+        stored.setTransactionsByStatus(mapToJson(mergeCounts(stored.getTransactionsByStatus(),
+                added.getTransactionsByStatus())));
+        // Union of the two top lists, cut back to the same size
+        stored.setTransactionsByLocation(mapToJson(HeavyHitters.topOf(mergeCounts(
+                stored.getTransactionsByLocation(), added.getTransactionsByLocation()), MetricsEpoch.TOP_K)));
+        stored.setTransactionsByMerchant(mapToJson(HeavyHitters.topOf(mergeCounts(
+                stored.getTransactionsByMerchant(), added.getTransactionsByMerchant()), MetricsEpoch.TOP_K)));
+        return stored;
+    }
+
+    private Map<String, Long> mergeCounts(String first, String second) {
+        Map<String, Long> counts = new HashMap<>();
+        for (String json : List.of(first, second)) {
+            if (json == null || json.isBlank()) {
+                continue;
+            }
+            try {
+                objectMapper.readValue(json, COUNT_MAP).forEach((key, value) -> counts.merge(key, value, Long::sum));
+            } catch (JsonProcessingException e) {
+                log.warn("Skipping unreadable metrics breakdown: {}", e.getMessage());
             }
-        });
-        return result;
+        }
+        return counts;
     }
 
     private String mapToJson(Map<String, Long> map) {
@@ -182,36 +239,43 @@ public class MetricsAggregationService {
                 .orElse(null);
     }
 
+    // Minute, hour or day windows depending on the span, see MetricsRollupService
     public List<TransactionMetricsEntity> getMetricsForPeriod(LocalDateTime start, LocalDateTime end) {
-        return metricsRepository.findByWindowStartBetweenOrderByWindowStart(start, end);
+        return rollupService.getMetricsForPeriod(start, end);
+    }
+
+    // Summary of one hour, summed from its minute windows when it closes
+    public TransactionMetricsEntity getHourlySummary(LocalDateTime hour) {
+        return rollupService.getHourlySummary(hour).orElse(null);
     }
 
     public List<TransactionMetricsEntity> getRecentMetrics(int hours) {
-        LocalDateTime since = LocalDateTime.now().minusHours(hours);
-        return metricsRepository.findRecentMetrics(since);
+        LocalDateTime now = LocalDateTime.now();
+        List<TransactionMetricsEntity> windows = new ArrayList<>(rollupService.getMetricsForPeriod(now.minusHours(hours), now));
+        Collections.reverse(windows);
+        return windows;
     }
 
+    // Count, amount, alerts and risk come from one totals value and always agree;
+    // the per-dimension breakdowns are read right after and may include a few newer updates
     public Map<String, Object> getRealTimeMetrics() {
+        MetricsEpoch epoch = currentEpoch.get();
+        MetricsEpoch.Totals totals = epoch.totals();
+
         Map<String, Object> metrics = new HashMap<>();
-        metrics.put("currentTransactionCount", transactionCount.get());
-        metrics.put("currentTotalAmount", totalAmount.get());
-        metrics.put("currentAlertCount", alertsCount.get());
-        metrics.put("transactionsByType", getCurrentCountMap(transactionsByType));
-        metrics.put("transactionsByStatus", getCurrentCountMap(transactionsByStatus));
-        metrics.put("transactionsByLocation", getCurrentCountMap(transactionsByLocation));
-
-        long txnCount = transactionCount.get();
-        if (txnCount > 0) {
-            double avgRisk = totalRiskScore.get() / txnCount;
+        metrics.put("currentTransactionCount", totals.transactions());
+        metrics.put("currentTotalAmount", totals.amount());
+        metrics.put("currentAlertCount", totals.alerts());
+        metrics.put("transactionsByType", epoch.transactionsByType());
+        metrics.put("transactionsByStatus", epoch.transactionsByStatus());
+        metrics.put("transactionsByLocation", epoch.transactionsByLocation());
+        metrics.put("transactionsByMerchant", epoch.transactionsByMerchant());
+
+        if (totals.transactions() > 0) {
+            double avgRisk = totals.riskSum() / totals.transactions();
             metrics.put("currentAvgRiskScore", avgRisk);
         }
 
         return metrics;
     }
-
-    private Map<String, Long> getCurrentCountMap(Map<String, AtomicLong> atomicMap) {
-        Map<String, Long> result = new HashMap<>();
-        atomicMap.forEach((key, value) -> result.put(key, value.get()));
-        return result;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,101 @@
+package com.bankingplatform.streamprocessor.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Computes one real-time metrics snapshot per second and pushes it to every SSE subscriber.
+// The snapshot is serialized once per tick, and the REST endpoint serves the same snapshot.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MetricsBroadcastService {
+
+    private final MetricsAggregationService metricsService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${metrics.stream.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+
+    private volatile Map<String, Object> latestSnapshot = Collections.emptyMap();
+    private volatile String latestSnapshotJson;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("metrics_stream_subscribers", subscribers::size)
+                .description("Open server-sent event subscriptions for real-time metrics")
+                .register(meterRegistry);
+        refreshSnapshot();
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(e -> subscribers.remove(emitter));
+        subscribers.add(emitter);
+
+        // Send the current snapshot right away instead of waiting for the next tick
+        String json = latestSnapshotJson;
+        if (json != null) {
+            send(emitter, json);
+        }
+        return emitter;
+    }
+
+    @Scheduled(fixedRate = 1000)
+    public void broadcastSnapshot() {
+        String json = refreshSnapshot();
+        if (json == null || subscribers.isEmpty()) {
+            return;
+        }
+        subscribers.forEach(emitter -> send(emitter, json));
+    }
+
+    public Map<String, Object> getLatestSnapshot() {
+        return latestSnapshot;
+    }
+
+    private String refreshSnapshot() {
+        Map<String, Object> snapshot = metricsService.getRealTimeMetrics();
+        snapshot.put("snapshotTime", LocalDateTime.now().toString());
+        try {
+            String json = objectMapper.writeValueAsString(snapshot);
+            this.latestSnapshot = Collections.unmodifiableMap(snapshot);
+            this.latestSnapshotJson = json;
+            return json;
+        } catch (JsonProcessingException e) {
+            log.error("Error serializing metrics snapshot: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void send(SseEmitter emitter, String json) {
+        try {
+            emitter.send(SseEmitter.event().name("metrics").data(json, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping metrics subscriber: {}", e.getMessage());
+            subscribers.remove(emitter);
+            emitter.completeWithError(e);
+        }
+    }
+}
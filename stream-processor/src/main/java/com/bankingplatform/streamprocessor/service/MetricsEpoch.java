@@ -0,0 +1,101 @@
+package com.bankingplatform.streamprocessor.service;
+
+
+import com.bankingplatform.common.event.Transaction;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters for one metrics window. The headline totals live in a single immutable
+// value swapped by CAS, so count, amount, risk and alerts are always read together.
+// Writers register while recording so that the flusher, after swapping in a fresh
+// epoch, can wait for in-flight updates before reading the closed one. Locations and
+// merchants are open-ended, so they are tracked as bounded heavy-hitter lists, not exact maps.
+public class MetricsEpoch {
+
+    public static final int TOP_K = 20;
+
+    public record Totals(long transactions, BigDecimal amount, double riskSum, long alerts) {
+
+        static final Totals EMPTY = new Totals(0, BigDecimal.ZERO, 0.0, 0);
+
+        Totals plusTransaction(BigDecimal transactionAmount, Double riskScore) {
+            return new Totals(transactions + 1,
+                    transactionAmount != null ? amount.add(transactionAmount) : amount,
+                    riskScore != null ? riskSum + riskScore : riskSum,
+                    alerts);
+        }
+
+        Totals plusAlert() {
+            return new Totals(transactions, amount, riskSum, alerts + 1);
+        }
+    }
+
+    private final AtomicReference<Totals> totals = new AtomicReference<>(Totals.EMPTY);
+    private final Map<String, LongAdder> transactionsByType = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> transactionsByStatus = new ConcurrentHashMap<>();
+    private final HeavyHitters transactionsByLocation = new HeavyHitters(TOP_K);
+    private final HeavyHitters transactionsByMerchant = new HeavyHitters(TOP_K);
+    private final AtomicInteger activeWriters = new AtomicInteger();
+
+    void enter() {
+        activeWriters.incrementAndGet();
+    }
+
+    void exit() {
+        activeWriters.decrementAndGet();
+    }
+
+    // Called by the flusher once this epoch is no longer current; writers never wait
+    void awaitWriters() {
+        while (activeWriters.get() > 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    void recordTransaction(Transaction transaction) {
+        totals.updateAndGet(current -> current.plusTransaction(transaction.getAmount(), transaction.getRiskScore()));
+        increment(transactionsByType, String.valueOf(transaction.getType()));
+        increment(transactionsByStatus, String.valueOf(transaction.getStatus()));
+        transactionsByLocation.add(transaction.getSourceLocation());
+        transactionsByMerchant.add(transaction.getMerchantName());
+    }
+
+    void recordAlert() {
+        totals.updateAndGet(Totals::plusAlert);
+    }
+
+    public Totals totals() {
+        return totals.get();
+    }
+
+    public Map<String, Long> transactionsByType() {
+        return snapshot(transactionsByType);
+    }
+
+    public Map<String, Long> transactionsByStatus() {
+        return snapshot(transactionsByStatus);
+    }
+
+    public Map<String, Long> transactionsByLocation() {
+        return transactionsByLocation.top();
+    }
+
+    public Map<String, Long> transactionsByMerchant() {
+        return transactionsByMerchant.top();
+    }
+
+    private static void increment(Map<String, LongAdder> counters, String key) {
+        counters.computeIfAbsent(key, k -> new LongAdder()).increment();
+    }
+
+    private static Map<String, Long> snapshot(Map<String, LongAdder> counters) {
+        Map<String, Long> result = new HashMap<>();
+        counters.forEach((key, value) -> result.put(key, value.sum()));
+        return result;
+    }
+}
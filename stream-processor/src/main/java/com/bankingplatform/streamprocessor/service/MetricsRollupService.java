@@ -0,0 +1,312 @@
+package com.bankingplatform.streamprocessor.service;
+
+import com.bankingplatform.streamprocessor.entity.TransactionMetricsEntity;
+import com.bankingplatform.streamprocessor.entity.TransactionMetricsRollupEntity;
+import com.bankingplatform.streamprocessor.entity.TransactionMetricsRollupEntity.Resolution;
+import com.bankingplatform.streamprocessor.repository.TransactionMetricsRepository;
+import com.bankingplatform.streamprocessor.repository.TransactionMetricsRollupRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+// Builds hourly rollups from the one-minute metrics rows and daily rollups from the hourly ones,
+// each written once its window has closed. Queries are served at the coarsest resolution that
+// still makes sense for the requested span, and each resolution has its own retention.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MetricsRollupService {
+
+    private static final TypeReference<Map<String, Long>> COUNT_MAP = new TypeReference<>() {};
+
+    private final TransactionMetricsRepository metricsRepository;
+    private final TransactionMetricsRollupRepository rollupRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${metrics.rollup.minute-max-span-hours:6}")
+    private long minuteMaxSpanHours;
+
+    @Value("${metrics.rollup.hour-max-span-days:7}")
+    private long hourMaxSpanDays;
+
+    @Value("${metrics.retention.minute-days:7}")
+    private long minuteRetentionDays;
+
+    @Value("${metrics.retention.hour-days:90}")
+    private long hourRetentionDays;
+
+    @Value("${metrics.retention.day-days:730}")
+    private long dayRetentionDays;
+
+    // Runs just after the hour so the minute rows of the closed hour have been flushed.
+    // Any closed window without a rollup is filled in, so missed runs catch up on their own.
+    @Scheduled(cron = "${metrics.rollup.cron:30 1 * * * *}")
+    public void rollupClosedWindows() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            rollupClosed(Resolution.HOUR, now).forEach(hour ->
+                    log.info("Hourly Summary {} - Transactions: {}, Amount: {}, Alerts: {}",
+                            hour.getWindowStart(), hour.getTotalTransactions(), hour.getTotalAmount(),
+                            hour.getAlertsGenerated()));
+            rollupClosed(Resolution.DAY, now);
+        } catch (Exception e) {
+            log.error("Error rolling up metrics: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(cron = "${metrics.retention.cron:0 15 3 * * *}")
+    @Transactional
+    public void purgeExpiredWindows() {
+        LocalDateTime now = LocalDateTime.now();
+        int minutes = metricsRepository.deleteWindowsBefore(now.minusDays(minuteRetentionDays));
+        int hours = rollupRepository.deleteWindowsBefore(Resolution.HOUR, now.minusDays(hourRetentionDays));
+        int days = rollupRepository.deleteWindowsBefore(Resolution.DAY, now.minusDays(dayRetentionDays));
+        log.info("Purged expired metrics windows: {} minute, {} hour, {} day", minutes, hours, days);
+    }
+
+    // Recomputes the closed hour and day rollups overlapping a range of rewritten minute rows
+    public void rebuildRollups(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Resolution resolution : List.of(Resolution.HOUR, Resolution.DAY)) {
+            LocalDateTime windowFrom = resolution.windowStartOf(from);
+            LocalDateTime windowTo = min(resolution.windowEndOf(resolution.windowStartOf(to)),
+                    resolution.windowStartOf(now));
+            if (windowFrom.isBefore(windowTo)) {
+                upsert(resolution, aggregate(resolution, storedWindows(resolution.finer(), windowFrom, windowTo)));
+            }
+        }
+    }
+
+    public Resolution resolutionFor(LocalDateTime start, LocalDateTime end) {
+        Duration span = Duration.between(start, end);
+        LocalDateTime now = LocalDateTime.now();
+        if (span.compareTo(Duration.ofHours(minuteMaxSpanHours)) <= 0
+                && !start.isBefore(now.minusDays(minuteRetentionDays))) {
+            return Resolution.MINUTE;
+        }
+        if (span.compareTo(Duration.ofDays(hourMaxSpanDays)) <= 0
+                && !start.isBefore(now.minusDays(hourRetentionDays))) {
+            return Resolution.HOUR;
+        }
+        return Resolution.DAY;
+    }
+
+    public List<TransactionMetricsEntity> getMetricsForPeriod(LocalDateTime start, LocalDateTime end) {
+        Resolution resolution = resolutionFor(start, end);
+        if (resolution == Resolution.MINUTE) {
+            return metricsRepository.findByWindowStartBetweenOrderByWindowStart(start, end);
+        }
+        return windows(resolution, resolution.windowStartOf(start), end).stream()
+                .map(this::toMetricsView)
+                .toList();
+    }
+
+    // Stored rollup of a closed hour, or the hour so far when it is still open
+    public Optional<TransactionMetricsEntity> getHourlySummary(LocalDateTime hour) {
+        LocalDateTime hourStart = Resolution.HOUR.windowStartOf(hour);
+        return windows(Resolution.HOUR, hourStart, Resolution.HOUR.windowEndOf(hourStart)).stream()
+                .findFirst()
+                .map(this::toMetricsView);
+    }
+
+    private List<TransactionMetricsRollupEntity> rollupClosed(Resolution resolution, LocalDateTime now) {
+        LocalDateTime to = resolution.windowStartOf(now);
+        Optional<LocalDateTime> from = rollupRepository.findLatestWindowStart(resolution)
+                .map(resolution::windowEndOf)
+                .or(() -> earliestWindowStart(resolution.finer()).map(resolution::windowStartOf));
+        if (from.isEmpty() || !from.get().isBefore(to)) {
+            return List.of();
+        }
+
+        List<TransactionMetricsRollupEntity> rollups =
+                aggregate(resolution, storedWindows(resolution.finer(), from.get(), to));
+        upsert(resolution, rollups);
+        log.info("Rolled up {} {} metrics windows between {} and {}", rollups.size(), resolution, from.get(), to);
+        return rollups;
+    }
+
+    // Stored windows, plus the trailing ones not rolled up yet computed on the fly from finer data
+    private List<TransactionMetricsRollupEntity> windows(Resolution resolution, LocalDateTime from, LocalDateTime to) {
+        List<TransactionMetricsRollupEntity> stored = storedWindows(resolution, from, to);
+        if (resolution == Resolution.MINUTE) {
+            return stored;
+        }
+
+        LocalDateTime tailStart = stored.isEmpty() ? from : max(from, stored.get(stored.size() - 1).getWindowEnd());
+        if (!tailStart.isBefore(to)) {
+            return stored;
+        }
+        List<TransactionMetricsRollupEntity> result = new ArrayList<>(stored);
+        result.addAll(aggregate(resolution, windows(resolution.finer(), tailStart, to)));
+        return result;
+    }
+
+    private List<TransactionMetricsRollupEntity> storedWindows(Resolution resolution, LocalDateTime from,
+                                                               LocalDateTime to) {
+        if (resolution == Resolution.MINUTE) {
+            return metricsRepository.findWindows(from, to).stream()
+                    .map(this::fromMinuteRow)
+                    .toList();
+        }
+        return rollupRepository.findWindows(resolution, from, to);
+    }
+
+    private Optional<LocalDateTime> earliestWindowStart(Resolution resolution) {
+        return resolution == Resolution.MINUTE
+                ? metricsRepository.findEarliestWindowStart()
+                : rollupRepository.findEarliestWindowStart(resolution);
+    }
+
+    // Groups finer windows (already ordered by start) into windows of the target resolution
+    private List<TransactionMetricsRollupEntity> aggregate(Resolution resolution,
+                                                           List<TransactionMetricsRollupEntity> finer) {
+        Map<LocalDateTime, List<TransactionMetricsRollupEntity>> grouped = finer.stream()
+                .collect(Collectors.groupingBy(w -> resolution.windowStartOf(w.getWindowStart()),
+                        LinkedHashMap::new, Collectors.toList()));
+
+        List<TransactionMetricsRollupEntity> result = new ArrayList<>(grouped.size());
+        grouped.forEach((windowStart, parts) -> result.add(merge(resolution, windowStart, parts)));
+        return result;
+    }
+
+    private TransactionMetricsRollupEntity merge(Resolution resolution, LocalDateTime windowStart,
+                                                 List<TransactionMetricsRollupEntity> parts) {
+        long count = 0;
+        long alerts = 0;
+        double riskSum = 0.0;
+        BigDecimal amount = BigDecimal.ZERO;
+        Map<String, Long> byType = new HashMap<>();
+        Map<String, Long> byStatus = new HashMap<>();
+        Map<String, Long> byLocation = new HashMap<>();
+        Map<String, Long> byMerchant = new HashMap<>();
+
+        for (TransactionMetricsRollupEntity part : parts) {
+            count += part.getTotalTransactions();
+            alerts += part.getAlertsGenerated();
+            amount = amount.add(part.getTotalAmount());
+            riskSum += part.getAvgRiskScore() * part.getTotalTransactions();
+            mergeCounts(byType, part.getTransactionsByType());
+            mergeCounts(byStatus, part.getTransactionsByStatus());
+            mergeCounts(byLocation, part.getTransactionsByLocation());
+            mergeCounts(byMerchant, part.getTransactionsByMerchant());
+        }
+
+        return TransactionMetricsRollupEntity.builder()
+                .resolution(resolution)
+                .windowStart(windowStart)
+                .windowEnd(resolution.windowEndOf(windowStart))
+                .totalTransactions(count)
+                .totalAmount(amount)
+                .avgAmount(count > 0 ? amount.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP)
+                        : BigDecimal.ZERO)
+                .transactionsByType(toJson(byType))
+                .transactionsByStatus(toJson(byStatus))
+                // Union of the parts' top lists, cut back to the same size
+                .transactionsByLocation(toJson(HeavyHitters.topOf(byLocation, MetricsEpoch.TOP_K)))
+                .transactionsByMerchant(toJson(HeavyHitters.topOf(byMerchant, MetricsEpoch.TOP_K)))
+                .alertsGenerated(alerts)
+                .avgRiskScore(count > 0 ? riskSum / count : 0.0)
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    // One row per (resolution, window start): reuse the existing id when the window is rewritten
+    private void upsert(Resolution resolution, List<TransactionMetricsRollupEntity> rollups) {
+        if (rollups.isEmpty()) {
+            return;
+        }
+        Map<LocalDateTime, UUID> existing = rollupRepository.findWindows(resolution,
+                        rollups.get(0).getWindowStart(), rollups.get(rollups.size() - 1).getWindowEnd())
+                .stream()
+                .collect(Collectors.toMap(TransactionMetricsRollupEntity::getWindowStart,
+                        TransactionMetricsRollupEntity::getId));
+        rollups.forEach(rollup -> rollup.setId(existing.getOrDefault(rollup.getWindowStart(), UUID.randomUUID())));
+        rollupRepository.saveAll(rollups);
+    }
+
+    private TransactionMetricsRollupEntity fromMinuteRow(TransactionMetricsEntity row) {
+        return TransactionMetricsRollupEntity.builder()
+                .id(row.getId())
+                .resolution(Resolution.MINUTE)
+                .windowStart(row.getWindowStart())
+                .windowEnd(row.getWindowEnd())
+                .totalTransactions(row.getTotalTransactions())
+                .totalAmount(row.getTotalAmount())
+                .avgAmount(row.getAvgAmount())
+                .transactionsByType(row.getTransactionsByType())
+                .transactionsByStatus(row.getTransactionsByStatus())
+                .transactionsByLocation(row.getTransactionsByLocation())
+                .transactionsByMerchant(row.getTransactionsByMerchant())
+                .alertsGenerated(row.getAlertsGenerated())
+                .avgRiskScore(row.getAvgRiskScore())
+                .updatedAt(row.getCreatedAt())
+                .build();
+    }
+
+    // Rollups are returned in the same shape as the minute rows so the API stays unchanged
+    private TransactionMetricsEntity toMetricsView(TransactionMetricsRollupEntity rollup) {
+        return TransactionMetricsEntity.builder()
+                .id(rollup.getId())
+                .metricDate(rollup.getWindowStart().toLocalDate())
+                .windowStart(rollup.getWindowStart())
+                .windowEnd(rollup.getWindowEnd())
+                .totalTransactions(rollup.getTotalTransactions())
+                .totalAmount(rollup.getTotalAmount())
+                .avgAmount(rollup.getAvgAmount())
+                .transactionsByType(rollup.getTransactionsByType())
+                .transactionsByStatus(rollup.getTransactionsByStatus())
+                .transactionsByLocation(rollup.getTransactionsByLocation())
+                .transactionsByMerchant(rollup.getTransactionsByMerchant())
+                .alertsGenerated(rollup.getAlertsGenerated())
+                .avgRiskScore(rollup.getAvgRiskScore())
+                .createdAt(rollup.getUpdatedAt())
+                .build();
+    }
+
+    private void mergeCounts(Map<String, Long> target, String json) {
+        if (json == null || json.isBlank()) {
+            return;
+        }
+        try {
+            objectMapper.readValue(json, COUNT_MAP).forEach((key, value) -> target.merge(key, value, Long::sum));
+        } catch (JsonProcessingException e) {
+            log.warn("Skipping unreadable metrics breakdown: {}", e.getMessage());
+        }
+    }
+
+    private String toJson(Map<String, Long> counts) {
+        try {
+            return objectMapper.writeValueAsString(counts);
+        } catch (JsonProcessingException e) {
+            log.error("Error converting map to JSON: {}", e.getMessage());
+            return "{}";
+        }
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -3,6 +3,7 @@ package com.bankingplatform.streamprocessor.service;
 import com.bankingplatform.streamprocessor.entity.FraudAlertEntity;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
@@ -13,7 +14,15 @@ public class NotificationService {
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
 
+    // Disabled in replay mode so reprocessing history does not notify customers again
+    @Value("${stream.notifications.enabled:true}")
+    private boolean notificationsEnabled;
+
     public void sendFraudAlert(FraudAlertEntity alert) {
+        if (!notificationsEnabled) {
+            log.debug("Notifications disabled, skipping fraud alert {}", alert.getAlertId());
+            return;
+        }
         try {
             // Send to notification service via Kafka
             kafkaTemplate.send("fraud-alerts", alert.getCustomerId(), alert)
@@ -30,6 +39,10 @@ public class NotificationService {
     }
 
     public void sendCustomerAlert(String customerId, String message) {
+        if (!notificationsEnabled) {
+            log.debug("Notifications disabled, skipping customer notification for {}", customerId);
+            return;
+        }
         try {
             kafkaTemplate.send("customer-notifications", customerId, message);
             log.info("Sent customer notification to: {}", customerId);
@@ -0,0 +1,28 @@
+package com.bankingplatform.streamprocessor.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Reported under /actuator/health as "partition": down while a configured month has no
+// partition or the last maintenance run failed
+@Component
+@RequiredArgsConstructor
+public class PartitionHealthIndicator implements HealthIndicator {
+
+    private final PartitionMaintenanceService partitionMaintenanceService;
+
+    @Override
+    public Health health() {
+        Map<String, Integer> missing = partitionMaintenanceService.getMissingPartitions();
+        Map<String, String> failures = partitionMaintenanceService.getLastFailures();
+        boolean healthy = failures.isEmpty() && missing.values().stream().allMatch(count -> count == 0);
+        return (healthy ? Health.up() : Health.down())
+                .withDetail("missingPartitions", missing)
+                .withDetail("failures", failures)
+                .build();
+    }
+}
@@ -0,0 +1,133 @@
+package com.bankingplatform.streamprocessor.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Keeps the monthly partitions of transactions and fraud_alerts ahead of the clock and enforces
+// retention by dropping whole partitions, using the functions created with the schema.
+// After each run the configured months are checked; missing ones are exposed as a gauge and
+// turn PartitionHealthIndicator down, since inserts for them would pile up in the default partition.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PartitionMaintenanceService {
+
+    private static final List<String> TABLES = List.of("transactions", "fraud_alerts");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${stream.partitions.enabled:true}")
+    private boolean enabled;
+
+    // Past months to cover as well, e.g. before replaying history older than the current month
+    @Value("${stream.partitions.months-back:0}")
+    private int monthsBack;
+
+    @Value("${stream.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${stream.partitions.transactions-retention-months:24}")
+    private int transactionsRetentionMonths;
+
+    @Value("${stream.partitions.fraud-alerts-retention-months:36}")
+    private int fraudAlertsRetentionMonths;
+
+    private final Map<String, AtomicInteger> missingPartitions = new ConcurrentHashMap<>();
+    private final Map<String, String> lastFailures = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void initMetrics() {
+        TABLES.forEach(table -> {
+            AtomicInteger missing = missingPartitions.computeIfAbsent(table, k -> new AtomicInteger());
+            Gauge.builder("partition_maintenance_missing_partitions", missing, AtomicInteger::get)
+                    .description("Monthly partitions in the configured range that do not exist")
+                    .tag("table", table)
+                    .register(meterRegistry);
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintainPartitions();
+    }
+
+    @Scheduled(cron = "${stream.partitions.cron:0 0 2 * * *}")
+    public void maintainPartitions() {
+        if (!enabled) {
+            return;
+        }
+        maintain("transactions", transactionsRetentionMonths);
+        maintain("fraud_alerts", fraudAlertsRetentionMonths);
+    }
+
+    private void maintain(String table, int retentionMonths) {
+        try {
+            Integer created = jdbcTemplate.queryForObject(
+                    "SELECT create_monthly_partitions(?, ?, ?)", Integer.class, table, monthsBack, monthsAhead);
+            Integer dropped = jdbcTemplate.queryForObject(
+                    "SELECT drop_expired_partitions(?, ?)", Integer.class, table, retentionMonths);
+            log.info("Partition maintenance for {}: {} created, {} dropped", table, created, dropped);
+            lastFailures.remove(table);
+        } catch (Exception e) {
+            log.error("Partition maintenance for {} failed: {}", table, e.getMessage(), e);
+            lastFailures.put(table, String.valueOf(e.getMessage()));
+            Counter.builder("partition_maintenance_failures_total")
+                    .description("Partition maintenance runs that failed")
+                    .tag("table", table)
+                    .register(meterRegistry)
+                    .increment();
+        }
+        checkMissing(table);
+    }
+
+    // create_monthly_partitions skips a month it cannot create, so coverage is checked separately
+    private void checkMissing(String table) {
+        try {
+            List<String> missing = missingMonths(table);
+            missingPartitions.get(table).set(missing.size());
+            if (!missing.isEmpty()) {
+                log.error("Partitions missing for {}: {}", table, missing);
+            }
+        } catch (Exception e) {
+            log.error("Could not check the partitions of {}: {}", table, e.getMessage(), e);
+            lastFailures.put(table, String.valueOf(e.getMessage()));
+        }
+    }
+
+    public List<String> missingMonths(String table) {
+        return jdbcTemplate.queryForList(
+                "SELECT to_char(m, 'YYYY_MM') FROM generate_series(" +
+                        "date_trunc('month', CURRENT_DATE) - make_interval(months => ?), " +
+                        "date_trunc('month', CURRENT_DATE) + make_interval(months => ?), " +
+                        "INTERVAL '1 month') AS m " +
+                        "WHERE to_regclass(?::text || '_' || to_char(m, 'YYYY_MM')) IS NULL ORDER BY m",
+                String.class, monthsBack, monthsAhead, table);
+    }
+
+    public Map<String, Integer> getMissingPartitions() {
+        Map<String, Integer> missing = new HashMap<>();
+        missingPartitions.forEach((table, count) -> missing.put(table, count.get()));
+        return missing;
+    }
+
+    public Map<String, String> getLastFailures() {
+        return Map.copyOf(lastFailures);
+    }
+}
@@ -0,0 +1,141 @@
+package com.bankingplatform.streamprocessor.service;
+
+import com.bankingplatform.common.serialization.JsonEventSerializer;
+import com.bankingplatform.streamprocessor.model.AccountReference;
+import com.bankingplatform.streamprocessor.model.CustomerReference;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+// Publishes changed customers and accounts rows to their compacted topics, keyed by customer id
+// and account number. The first run after startup publishes every row; later runs only rows
+// updated since the last one. Rows on the watermark are sent again, which compaction absorbs.
+// Values are written by the fixed-type serializers the global tables read with, on a producer
+// of its own, so no type headers are added.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReferenceDataPublisher {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonEventSerializer<CustomerReference> customerSerializer =
+            new JsonEventSerializer<>(CustomerReference.class);
+    private final JsonEventSerializer<AccountReference> accountSerializer =
+            new JsonEventSerializer<>(AccountReference.class);
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${stream.reference.publisher.enabled:true}")
+    private boolean enabled;
+
+    @Value("${stream.reference.customers-topic:banking-customers}")
+    private String customersTopic;
+
+    @Value("${stream.reference.accounts-topic:banking-accounts}")
+    private String accountsTopic;
+
+    private DefaultKafkaProducerFactory<String, byte[]> producerFactory;
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+    private Timestamp customersWatermark = new Timestamp(0);
+    private Timestamp accountsWatermark = new Timestamp(0);
+
+    @PostConstruct
+    public void init() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        this.producerFactory = new DefaultKafkaProducerFactory<>(props);
+        this.kafkaTemplate = new KafkaTemplate<>(producerFactory);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (producerFactory != null) {
+            producerFactory.destroy();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${stream.reference.publisher.interval-ms:60000}",
+            initialDelayString = "${stream.reference.publisher.interval-ms:60000}")
+    public synchronized void publishChanges() {
+        if (!enabled) {
+            return;
+        }
+        customersWatermark = publishCustomers(customersWatermark);
+        accountsWatermark = publishAccounts(accountsWatermark);
+        kafkaTemplate.flush();
+    }
+
+    private Timestamp publishCustomers(Timestamp since) {
+        Timestamp[] watermark = {since};
+        try {
+            jdbcTemplate.query("SELECT customer_id, account_status, risk_score, kyc_status, timezone, "
+                            + "COALESCE(updated_at, created_at, TIMESTAMP 'epoch') AS changed_at "
+                            + "FROM customers WHERE COALESCE(updated_at, created_at, TIMESTAMP 'epoch') >= ?",
+                    rs -> {
+                        CustomerReference customer = CustomerReference.builder()
+                                .customerId(rs.getString("customer_id"))
+                                .accountStatus(rs.getString("account_status"))
+                                .riskScore(rs.getObject("risk_score") != null ? rs.getDouble("risk_score") : null)
+                                .kycStatus(rs.getString("kyc_status"))
+                                .timezone(rs.getString("timezone"))
+                                .build();
+                        kafkaTemplate.send(customersTopic, customer.getCustomerId(),
+                                customerSerializer.serialize(customersTopic, customer));
+                        watermark[0] = latest(watermark[0], rs.getTimestamp("changed_at"));
+                    }, since);
+        } catch (Exception e) {
+            log.warn("Publishing customers reference data failed: {}", e.getMessage());
+        }
+        return watermark[0];
+    }
+
+    private Timestamp publishAccounts(Timestamp since) {
+        Timestamp[] watermark = {since};
+        try {
+            jdbcTemplate.query("SELECT account_number, customer_id, account_type, balance, currency, status, "
+                            + "overdraft_limit, COALESCE(updated_at, created_at, TIMESTAMP 'epoch') AS changed_at "
+                            + "FROM accounts WHERE COALESCE(updated_at, created_at, TIMESTAMP 'epoch') >= ?",
+                    rs -> {
+                        AccountReference account = AccountReference.builder()
+                                .accountNumber(rs.getString("account_number"))
+                                .customerId(rs.getString("customer_id"))
+                                .accountType(rs.getString("account_type"))
+                                .balance(rs.getBigDecimal("balance"))
+                                .currency(rs.getString("currency"))
+                                .status(rs.getString("status"))
+                                .overdraftLimit(rs.getBigDecimal("overdraft_limit"))
+                                .build();
+                        kafkaTemplate.send(accountsTopic, account.getAccountNumber(),
+                                accountSerializer.serialize(accountsTopic, account));
+                        watermark[0] = latest(watermark[0], rs.getTimestamp("changed_at"));
+                    }, since);
+        } catch (Exception e) {
+            log.warn("Publishing accounts reference data failed: {}", e.getMessage());
+        }
+        return watermark[0];
+    }
+
+    private static Timestamp latest(Timestamp a, Timestamp b) {
+        return b != null && b.after(a) ? b : a;
+    }
+}
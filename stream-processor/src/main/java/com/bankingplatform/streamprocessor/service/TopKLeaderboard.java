@@ -0,0 +1,174 @@
+package com.bankingplatform.streamprocessor.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Bounded top-K by score: a min-heap of the K best entries plus an index from key to heap slot,
+// so a changed score is re-sifted in place instead of rebuilding. outsideUpperBound is an upper
+// bound on the score of every entry not held, which tells callers whether a threshold query can
+// be answered from memory. A rebuild from the source of truth is bracketed by beginRebuild and
+// reset: updates made while the source is read are kept and replayed over the snapshot, so a
+// snapshot taken before them never rolls an entry back.
+public class TopKLeaderboard<V> {
+
+    public record Entry<V>(String key, double score, V value) {}
+
+    private final int capacity;
+    private final String[] keys;
+    private final double[] scores;
+    private final Object[] values;
+    private final Map<String, Integer> slots;
+    private int size;
+    // Unknown until the first reset, so every threshold query goes to the source of truth
+    private double outsideUpperBound = Double.POSITIVE_INFINITY;
+    // Latest update per key since beginRebuild, or null when no rebuild is running
+    private Map<String, Entry<V>> updatedDuringRebuild;
+
+    public TopKLeaderboard(int capacity) {
+        this.capacity = capacity;
+        this.keys = new String[capacity];
+        this.scores = new double[capacity];
+        this.values = new Object[capacity];
+        this.slots = new HashMap<>(capacity * 2);
+    }
+
+    public synchronized void update(String key, double score, V value) {
+        if (updatedDuringRebuild != null) {
+            updatedDuringRebuild.put(key, new Entry<>(key, score, value));
+        }
+        apply(key, score, value);
+    }
+
+    // Call before reading the snapshot that is later passed to reset
+    public synchronized void beginRebuild() {
+        updatedDuringRebuild = new LinkedHashMap<>();
+    }
+
+    // Abandons a rebuild whose snapshot could not be read; the board keeps its contents
+    public synchronized void cancelRebuild() {
+        updatedDuringRebuild = null;
+    }
+
+    // Entries scoring above the threshold, best first, or empty when an entry that is not
+    // held could also qualify and the caller has to ask the source of truth
+    @SuppressWarnings("unchecked")
+    public synchronized Optional<List<V>> above(double threshold) {
+        if (threshold < outsideUpperBound) {
+            return Optional.empty();
+        }
+        List<Entry<V>> matches = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (scores[i] > threshold) {
+                matches.add(new Entry<>(keys[i], scores[i], (V) values[i]));
+            }
+        }
+        matches.sort(Comparator.comparingDouble((Entry<V> e) -> e.score()).reversed());
+        return Optional.of(matches.stream().map(Entry::value).toList());
+    }
+
+    // Replaces the contents, e.g. with the top K read from the database, then replays the
+    // updates made since beginRebuild
+    public synchronized void reset(List<Entry<V>> entries, double outsideUpperBound) {
+        slots.clear();
+        size = 0;
+        this.outsideUpperBound = outsideUpperBound;
+        for (Entry<V> entry : entries) {
+            apply(entry.key(), entry.score(), entry.value());
+        }
+        if (updatedDuringRebuild != null) {
+            for (Entry<V> entry : updatedDuringRebuild.values()) {
+                apply(entry.key(), entry.score(), entry.value());
+            }
+            updatedDuringRebuild = null;
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized double outsideUpperBound() {
+        return outsideUpperBound;
+    }
+
+    private void apply(String key, double score, Object value) {
+        Integer slot = slots.get(key);
+        if (slot != null) {
+            double previous = scores[slot];
+            scores[slot] = score;
+            values[slot] = value;
+            if (score < previous) {
+                siftUp(slot);
+            } else {
+                siftDown(slot);
+            }
+        } else if (size < capacity) {
+            set(size, key, score, value);
+            siftUp(size++);
+        } else if (score > scores[0]) {
+            // Evict the current minimum; it is now outside the board
+            outsideUpperBound = Math.max(outsideUpperBound, scores[0]);
+            slots.remove(keys[0]);
+            set(0, key, score, value);
+            siftDown(0);
+        } else {
+            outsideUpperBound = Math.max(outsideUpperBound, score);
+        }
+    }
+
+    private void set(int slot, String key, double score, Object value) {
+        keys[slot] = key;
+        scores[slot] = score;
+        values[slot] = value;
+        slots.put(key, slot);
+    }
+
+    private void siftUp(int slot) {
+        while (slot > 0) {
+            int parent = (slot - 1) / 2;
+            if (scores[parent] <= scores[slot]) {
+                return;
+            }
+            swap(slot, parent);
+            slot = parent;
+        }
+    }
+
+    private void siftDown(int slot) {
+        while (true) {
+            int left = 2 * slot + 1;
+            int right = left + 1;
+            int smallest = slot;
+            if (left < size && scores[left] < scores[smallest]) {
+                smallest = left;
+            }
+            if (right < size && scores[right] < scores[smallest]) {
+                smallest = right;
+            }
+            if (smallest == slot) {
+                return;
+            }
+            swap(slot, smallest);
+            slot = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        String key = keys[a];
+        double score = scores[a];
+        Object value = values[a];
+        keys[a] = keys[b];
+        scores[a] = scores[b];
+        values[a] = values[b];
+        keys[b] = key;
+        scores[b] = score;
+        values[b] = value;
+        slots.put(keys[a], a);
+        slots.put(keys[b], b);
+    }
+}
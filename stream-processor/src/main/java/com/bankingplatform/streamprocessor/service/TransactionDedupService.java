@@ -0,0 +1,112 @@
+package com.bankingplatform.streamprocessor.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ObjLongConsumer;
+
+// Settings, database confirmation and metrics for the per-task transaction id filters (see
+// TransactionDeduplicator). A filter hit is only a candidate duplicate: it is confirmed against
+// the transaction id lookup table, and hits that are not there count as false positives.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionDedupService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Getter
+    @Value("${stream.dedup.enabled:true}")
+    private boolean enabled;
+
+    @Getter
+    @Value("${stream.dedup.bucket-minutes:60}")
+    private long bucketMinutes;
+
+    @Getter
+    @Value("${stream.dedup.buckets:6}")
+    private int buckets;
+
+    @Getter
+    @Value("${stream.dedup.expected-per-bucket:200000}")
+    private long expectedPerBucket;
+
+    @Getter
+    @Value("${stream.dedup.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    @Getter
+    @Value("${stream.dedup.checkpoint-interval-ms:10000}")
+    private long checkpointIntervalMs;
+
+    private final AtomicLong negatives = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    private Counter negativeCounter;
+    private Counter duplicateCounter;
+    private Counter falsePositiveCounter;
+
+    @PostConstruct
+    public void initMetrics() {
+        this.negativeCounter = Counter.builder("transaction_dedup_checks_total")
+                .description("Transaction id filter checks by outcome")
+                .tag("result", "new")
+                .register(meterRegistry);
+        this.duplicateCounter = Counter.builder("transaction_dedup_checks_total")
+                .description("Transaction id filter checks by outcome")
+                .tag("result", "duplicate")
+                .register(meterRegistry);
+        this.falsePositiveCounter = Counter.builder("transaction_dedup_checks_total")
+                .description("Transaction id filter checks by outcome")
+                .tag("result", "false-positive")
+                .register(meterRegistry);
+        Gauge.builder("transaction_dedup_false_positive_rate", this, TransactionDedupService::observedFalsePositiveRate)
+                .description("Share of new transaction ids the filter reported as possibly seen")
+                .register(meterRegistry);
+    }
+
+    public void recordNew() {
+        negatives.incrementAndGet();
+        negativeCounter.increment();
+    }
+
+    // Called on a filter hit; true when the transaction really was processed before. The lookup
+    // table is keyed by id alone, so this is one index probe instead of one per partition.
+    public boolean confirmDuplicate(String transactionId) {
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS(SELECT 1 FROM transactions_id_lookup WHERE transaction_id = ?)",
+                Boolean.class, transactionId))) {
+            duplicateCounter.increment();
+            return true;
+        }
+        falsePositives.incrementAndGet();
+        falsePositiveCounter.increment();
+        return false;
+    }
+
+    // Ids written since a time with their processed_at, to top up a filter restored from its
+    // changelog. Rows are streamed to the action, not collected.
+    public void processedSince(long epochMillis, ObjLongConsumer<String> action) {
+        jdbcTemplate.query("SELECT transaction_id, processed_at FROM transactions WHERE processed_at >= ?",
+                rs -> {
+                    action.accept(rs.getString("transaction_id"), rs.getTimestamp("processed_at").getTime());
+                }, new Timestamp(epochMillis));
+    }
+
+    public double observedFalsePositiveRate() {
+        long fp = falsePositives.get();
+        long total = fp + negatives.get();
+        return total == 0 ? 0.0 : (double) fp / total;
+    }
+}
@@ -1,7 +1,8 @@
 package com.bankingplatform.streamprocessor.service;
 
+import com.bankingplatform.common.event.Transaction;
 import com.bankingplatform.streamprocessor.entity.TransactionEntity;
-import com.bankingplatform.streamprocessor.model.Transaction;
+import com.bankingplatform.streamprocessor.model.TransactionContext;
 import com.bankingplatform.streamprocessor.repository.TransactionRepository;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -11,9 +12,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -24,12 +28,14 @@ public class TransactionProcessingService {
     private final CustomerSummaryService customerSummaryService;
     private final FraudDetectionService fraudDetectionService;
     private final MetricsAggregationService metricsService;
+    private final LoadSheddingService loadSheddingService;
     private final MeterRegistry meterRegistry;
 
     // Metrics
     private Counter processedTransactionsCounter;
     private Counter fraudAlertsCounter;
     private Timer processingTimer;
+    private Timer batchProcessingTimer;
 
     @PostConstruct
     public void initMetrics() {
@@ -44,35 +50,56 @@ public class TransactionProcessingService {
         this.processingTimer = Timer.builder("transaction_processing_duration")
                 .description("Time taken to process a transaction")
                 .register(meterRegistry);
+
+        this.batchProcessingTimer = Timer.builder("transaction_batch_processing_duration")
+                .description("Time taken to process a micro-batch of transactions")
+                .register(meterRegistry);
     }
 
+    // Returns whether the transaction raised a fraud alert
     @Transactional
-    public void processTransaction(Transaction transaction) {
+    public boolean processTransaction(Transaction transaction, TransactionContext context) {
         Timer.Sample sample = Timer.start(meterRegistry);
 
         try {
             log.debug("Starting processing for transaction: {}", transaction.getTransactionId());
+            boolean deferred = loadSheddingService.shouldDefer(transaction)
+                    && loadSheddingService.defer(transaction);
+
             // 1. Store the transaction
-            TransactionEntity savedTransaction = storeTransaction(transaction);
+            TransactionEntity savedTransaction = loadSheddingService.timeStage(
+                    LoadSheddingService.STAGE_PERSIST, () -> storeTransaction(transaction));
             log.debug("Transaction stored: {}", savedTransaction.getTransactionId());
 
-            // 2. Update customer summary
-            customerSummaryService.updateCustomerSummary(transaction);
-            log.debug("Customer summary updated for: {}", transaction.getCustomerId());
+            // 2. Update customer summary (deferred to the catch-up table under lag, in this transaction)
+            if (!deferred) {
+                loadSheddingService.timeStage(LoadSheddingService.STAGE_SUMMARY,
+                        () -> customerSummaryService.updateCustomerSummary(transaction));
+                log.debug("Customer summary updated for: {}", transaction.getCustomerId());
+            }
 
             // 3. Perform fraud detection
-            boolean fraudDetected = fraudDetectionService.analyzeTransaction(transaction);
+            boolean fraudDetected = loadSheddingService.timeStage(LoadSheddingService.STAGE_FRAUD,
+                    () -> fraudDetectionService.analyzeTransaction(transaction, context));
             if (fraudDetected) {
-                fraudAlertsCounter.increment();
+                afterCommit(() -> {
+                    fraudAlertsCounter.increment();
+                    metricsService.recordFraudAlert();
+                });
                 log.warn("Fraud detected for transaction: {}", transaction.getTransactionId());
             }
 
-            // 4. Update metrics
-            metricsService.updateMetrics(transaction);
-
-            processedTransactionsCounter.increment();
+            // 4. Update metrics (deferred together with the summary)
+            afterCommit(() -> {
+                if (!deferred) {
+                    loadSheddingService.timeStage(LoadSheddingService.STAGE_METRICS,
+                            () -> metricsService.updateMetrics(transaction));
+                }
+                processedTransactionsCounter.increment();
+            });
             log.info("Successfully processed transaction: {} for customer: {}",
                     transaction.getTransactionId(), transaction.getCustomerId());
+            return fraudDetected;
 
         } catch (Exception e) {
             log.error("Error processing transaction {}: {}",
@@ -83,8 +110,76 @@ public class TransactionProcessingService {
         }
     }
 
+    // The records of one poll in a single database transaction: one insert for the transactions
+    // and one summary prefetch plus one alert insert for the fraud rules. Contexts are aligned with
+    // the transactions. A failure rolls back the whole batch, so the caller can retry per record;
+    // counters and in-memory metrics are only touched once the batch commits, so a retried record
+    // is not counted twice. Returns the ids of the transactions that raised a fraud alert.
+    @Transactional
+    public Set<String> processBatch(List<Transaction> transactions, List<TransactionContext> contexts) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        try {
+            log.debug("Starting processing for batch of {} transactions", transactions.size());
+            List<Transaction> immediate = transactions.stream()
+                    .filter(transaction -> !(loadSheddingService.shouldDefer(transaction)
+                            && loadSheddingService.defer(transaction)))
+                    .toList();
+
+            // 1. Store the transactions
+            loadSheddingService.timeStage(LoadSheddingService.STAGE_PERSIST,
+                    () -> transactionRepository.saveAll(transactions.stream().map(this::toEntity).toList()));
+
+            // 2. Update customer summaries (deferred ones go to the catch-up table, in this transaction)
+            loadSheddingService.timeStage(LoadSheddingService.STAGE_SUMMARY,
+                    () -> immediate.forEach(customerSummaryService::updateCustomerSummary));
+
+            // 3. Perform fraud detection over the whole batch
+            Set<String> flagged = loadSheddingService.timeStage(LoadSheddingService.STAGE_FRAUD,
+                    () -> fraudDetectionService.analyzeBatch(transactions, contexts));
+
+            // 4. Update metrics (deferred together with the summary)
+            afterCommit(() -> {
+                flagged.forEach(transactionId -> {
+                    fraudAlertsCounter.increment();
+                    metricsService.recordFraudAlert();
+                });
+                loadSheddingService.timeStage(LoadSheddingService.STAGE_METRICS,
+                        () -> immediate.forEach(metricsService::updateMetrics));
+                processedTransactionsCounter.increment(transactions.size());
+            });
+            log.info("Successfully processed batch of {} transactions, {} flagged",
+                    transactions.size(), flagged.size());
+            return flagged;
+
+        } catch (Exception e) {
+            log.error("Error processing batch of {} transactions: {}", transactions.size(), e.getMessage(), e);
+            throw e;
+        } finally {
+            sample.stop(batchProcessingTimer);
+        }
+    }
+
+    // In-memory state cannot roll back with the database transaction
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
     private TransactionEntity storeTransaction(Transaction transaction) {
-        TransactionEntity entity = TransactionEntity.builder()
+        return transactionRepository.save(toEntity(transaction));
+    }
+
+    public TransactionEntity toEntity(Transaction transaction) {
+        return TransactionEntity.builder()
                 .transactionId(transaction.getTransactionId())
                 .customerId(transaction.getCustomerId())
                 .accountNumber(transaction.getAccountNumber())
@@ -103,17 +198,15 @@ public class TransactionProcessingService {
                 .riskScore(transaction.getRiskScore())
                 .processedAt(LocalDateTime.now())
                 .build();
-
-        return transactionRepository.save(entity);
     }
 
     private TransactionEntity.TransactionType mapTransactionType(
-            com.bankingplatform.streamprocessor.model.TransactionType type) {
+            com.bankingplatform.common.event.TransactionType type) {
         return TransactionEntity.TransactionType.valueOf(type.name());
     }
 
     private TransactionEntity.TransactionStatus mapTransactionStatus(
-            com.bankingplatform.streamprocessor.model.TransactionStatus status) {
+            com.bankingplatform.common.event.TransactionStatus status) {
         return TransactionEntity.TransactionStatus.valueOf(status.name());
     }
 }
\ No newline at end of file
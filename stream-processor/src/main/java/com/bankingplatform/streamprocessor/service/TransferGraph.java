@@ -0,0 +1,227 @@
+package com.bankingplatform.streamprocessor.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Directed graph of recent account-to-account transfers. Account numbers are interned to int ids
+// and each account holds primitive adjacency arrays in both directions. An edge carries a
+// transfer weight that decays with a half-life and the edge is dropped once the weight fades, so
+// the graph only ever reflects recent money movement. Not thread-safe; see TransferGraphService.
+public class TransferGraph {
+
+    // Decayed weight below which an edge no longer counts (about 3.3 half-lives for one transfer)
+    private static final float MIN_LIVE_WEIGHT = 0.1f;
+
+    private final long halfLifeMillis;
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] accounts = new String[1024];
+    private EdgeList[] outgoing = new EdgeList[1024];
+    private EdgeList[] incoming = new EdgeList[1024];
+    private int[] freeIds = new int[64];
+    private int freeCount;
+    private int nextId;
+
+    // Search scratch space, reused between calls: visit stamps, BFS queue and depths
+    private int[] visited = new int[1024];
+    private int stamp;
+    private int[] queue = new int[64];
+    private int[] depths = new int[64];
+
+    public TransferGraph(long halfLifeMillis) {
+        this.halfLifeMillis = halfLifeMillis;
+    }
+
+    // Transfers between an account and itself move no money between parties and are ignored
+    public void addTransfer(String from, String to, long eventMillis) {
+        if (from.equals(to)) {
+            return;
+        }
+        int source = intern(from);
+        int target = intern(to);
+        outgoing[source].upsert(target, eventMillis);
+        incoming[target].upsert(source, eventMillis);
+    }
+
+    // Length of the shortest cycle closed by the edge from -> to, or 0 when none of at most
+    // maxLength edges exists. The edge itself need not be in the graph yet: the search walks the
+    // path back from to to from. It stops after maxVisited accounts to bound latency.
+    public int shortestCycle(String from, String to, long nowMillis, int maxLength, int maxVisited) {
+        Integer source = ids.get(from);
+        Integer target = ids.get(to);
+        if (source == null || target == null || source.equals(target)) {
+            return 0;
+        }
+
+        ensureSearchCapacity(maxVisited);
+        stamp++;
+        int head = 0;
+        int tail = 0;
+        queue[tail] = target;
+        depths[tail++] = 1;
+        visited[target] = stamp;
+
+        while (head < tail) {
+            int account = queue[head];
+            int depth = depths[head++];
+            if (depth >= maxLength) {
+                continue;
+            }
+            EdgeList edges = outgoing[account];
+            for (int i = 0; i < edges.size; i++) {
+                if (!edges.isLive(i, nowMillis)) {
+                    continue;
+                }
+                int next = edges.targets[i];
+                if (next == source) {
+                    return depth + 1;
+                }
+                if (visited[next] != stamp) {
+                    if (tail == maxVisited) {
+                        return 0;
+                    }
+                    visited[next] = stamp;
+                    queue[tail] = next;
+                    depths[tail++] = depth + 1;
+                }
+            }
+        }
+        return 0;
+    }
+
+    // Distinct accounts paid by the account within the window, counting a transfer to target
+    // that is not in the graph yet
+    public int fanOut(String account, String target, long nowMillis, long windowMillis) {
+        Integer id = ids.get(account);
+        return id != null ? outgoing[id].countSinceWith(nowMillis - windowMillis, idOrNone(target)) : 1;
+    }
+
+    // Distinct accounts that paid the account within the window, counting a transfer from source
+    // that is not in the graph yet
+    public int fanIn(String account, String source, long nowMillis, long windowMillis) {
+        Integer id = ids.get(account);
+        return id != null ? incoming[id].countSinceWith(nowMillis - windowMillis, idOrNone(source)) : 1;
+    }
+
+    // Drops faded edges and releases accounts left without any, returning how many were released
+    public int prune(long nowMillis) {
+        int released = 0;
+        for (int id = 0; id < nextId; id++) {
+            if (accounts[id] == null) {
+                continue;
+            }
+            outgoing[id].prune(nowMillis);
+            incoming[id].prune(nowMillis);
+            if (outgoing[id].size == 0 && incoming[id].size == 0) {
+                ids.remove(accounts[id]);
+                accounts[id] = null;
+                if (freeCount == freeIds.length) {
+                    freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+                }
+                freeIds[freeCount++] = id;
+                released++;
+            }
+        }
+        return released;
+    }
+
+    public int accountCount() {
+        return ids.size();
+    }
+
+    private int idOrNone(String account) {
+        Integer id = ids.get(account);
+        return id != null ? id : -1;
+    }
+
+    private int intern(String account) {
+        Integer existing = ids.get(account);
+        if (existing != null) {
+            return existing;
+        }
+        int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+        } else {
+            id = nextId++;
+            if (id == accounts.length) {
+                int capacity = accounts.length * 2;
+                accounts = Arrays.copyOf(accounts, capacity);
+                outgoing = Arrays.copyOf(outgoing, capacity);
+                incoming = Arrays.copyOf(incoming, capacity);
+                visited = Arrays.copyOf(visited, capacity);
+            }
+        }
+        ids.put(account, id);
+        accounts[id] = account;
+        outgoing[id] = new EdgeList();
+        incoming[id] = new EdgeList();
+        return id;
+    }
+
+    private void ensureSearchCapacity(int maxVisited) {
+        if (queue.length < maxVisited) {
+            queue = new int[maxVisited];
+            depths = new int[maxVisited];
+        }
+    }
+
+    private class EdgeList {
+        private int[] targets = new int[4];
+        private long[] lastSeen = new long[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        void upsert(int target, long eventMillis) {
+            for (int i = 0; i < size; i++) {
+                if (targets[i] == target) {
+                    weights[i] = decayed(i, eventMillis) + 1f;
+                    lastSeen[i] = Math.max(lastSeen[i], eventMillis);
+                    return;
+                }
+            }
+            if (size == targets.length) {
+                targets = Arrays.copyOf(targets, size * 2);
+                lastSeen = Arrays.copyOf(lastSeen, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            targets[size] = target;
+            lastSeen[size] = eventMillis;
+            weights[size++] = 1f;
+        }
+
+        boolean isLive(int i, long nowMillis) {
+            return decayed(i, nowMillis) >= MIN_LIVE_WEIGHT;
+        }
+
+        // Edges seen since sinceMillis, plus one for extra unless it is among them
+        int countSinceWith(long sinceMillis, int extra) {
+            int count = 0;
+            boolean extraCounted = false;
+            for (int i = 0; i < size; i++) {
+                if (lastSeen[i] >= sinceMillis) {
+                    count++;
+                    extraCounted |= targets[i] == extra;
+                }
+            }
+            return extraCounted ? count : count + 1;
+        }
+
+        void prune(long nowMillis) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (isLive(i, nowMillis)) {
+                    targets[kept] = targets[i];
+                    lastSeen[kept] = lastSeen[i];
+                    weights[kept++] = weights[i];
+                }
+            }
+            size = kept;
+        }
+
+        private float decayed(int i, long nowMillis) {
+            long age = nowMillis - lastSeen[i];
+            return age <= 0 ? weights[i] : (float) (weights[i] * Math.pow(0.5, (double) age / halfLifeMillis));
+        }
+    }
+}
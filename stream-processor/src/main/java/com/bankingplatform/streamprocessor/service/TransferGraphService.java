@@ -0,0 +1,113 @@
+package com.bankingplatform.streamprocessor.service;
+
+import com.bankingplatform.common.event.Transaction;
+import com.bankingplatform.common.event.TransactionType;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Feeds TRANSFER transactions into the in-memory transfer graph and reports mule-ring shapes
+// closed by each new edge: short cycles and fan-in/fan-out bursts. The graph holds the transfers
+// this instance processes; stream threads share it under the service lock.
+@Slf4j
+@Service
+public class TransferGraphService {
+
+    @Value("${stream.transfer-graph.edge-half-life-hours:24}")
+    private long edgeHalfLifeHours;
+
+    @Value("${stream.transfer-graph.max-cycle-length:4}")
+    private int maxCycleLength;
+
+    // Accounts a cycle search may visit before giving up, bounding the per-event cost
+    @Value("${stream.transfer-graph.max-visited:512}")
+    private int maxVisited;
+
+    @Value("${stream.transfer-graph.burst-window-minutes:60}")
+    private long burstWindowMinutes;
+
+    @Value("${stream.transfer-graph.fan-threshold:5}")
+    private int fanThreshold;
+
+    private TransferGraph graph;
+    // Pruning follows event time, so replays of old history age out the same way
+    private long latestEventMillis;
+
+    @PostConstruct
+    public void init() {
+        this.graph = new TransferGraph(Duration.ofHours(edgeHalfLifeHours).toMillis());
+    }
+
+    // Findings for the transfer as descriptions, empty when it does not look like mule activity.
+    // Read-only: the transfer is judged as if its edge were already there, and record adds the
+    // edge once the transaction commits.
+    public synchronized List<String> inspect(Transaction transaction) {
+        if (!isTransferBetweenAccounts(transaction)) {
+            return List.of();
+        }
+
+        String from = transaction.getAccountNumber();
+        String to = transaction.getCounterpartyAccount();
+        long now = CustomerProfileService.eventMillis(transaction);
+        long window = Duration.ofMinutes(burstWindowMinutes).toMillis();
+
+        List<String> findings = new ArrayList<>(3);
+        int cycle = graph.shortestCycle(from, to, now, maxCycleLength, maxVisited);
+        if (cycle > 0) {
+            findings.add("closes a transfer cycle of " + cycle + " accounts");
+        }
+        int fanOut = graph.fanOut(from, to, now, window);
+        if (fanOut >= fanThreshold) {
+            findings.add(from + " paid " + fanOut + " accounts within " + burstWindowMinutes + " minutes");
+        }
+        int fanIn = graph.fanIn(to, from, now, window);
+        if (fanIn >= fanThreshold) {
+            findings.add(to + " was paid by " + fanIn + " accounts within " + burstWindowMinutes + " minutes");
+        }
+        return findings;
+    }
+
+    // Added after commit, so a rolled-back transaction leaves no edge and a retried one does not
+    // count twice
+    public void record(Transaction transaction) {
+        if (!isTransferBetweenAccounts(transaction)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addEdge(transaction);
+                }
+            });
+        } else {
+            addEdge(transaction);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stream.transfer-graph.prune-interval-ms:300000}")
+    public synchronized void prune() {
+        int released = graph.prune(latestEventMillis);
+        log.debug("Transfer graph pruned: {} accounts released, {} tracked", released, graph.accountCount());
+    }
+
+    private synchronized void addEdge(Transaction transaction) {
+        long now = CustomerProfileService.eventMillis(transaction);
+        graph.addTransfer(transaction.getAccountNumber(), transaction.getCounterpartyAccount(), now);
+        latestEventMillis = Math.max(latestEventMillis, now);
+    }
+
+    private static boolean isTransferBetweenAccounts(Transaction transaction) {
+        return transaction.getType() == TransactionType.TRANSFER
+                && transaction.getAccountNumber() != null && transaction.getCounterpartyAccount() != null
+                && !transaction.getAccountNumber().equals(transaction.getCounterpartyAccount());
+    }
+}
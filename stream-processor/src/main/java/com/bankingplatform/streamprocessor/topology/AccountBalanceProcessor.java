@@ -0,0 +1,120 @@
+package com.bankingplatform.streamprocessor.topology;
+
+import com.bankingplatform.streamprocessor.model.AccountBalance;
+import com.bankingplatform.streamprocessor.model.AccountReference;
+import com.bankingplatform.streamprocessor.model.BalanceDelta;
+import com.bankingplatform.streamprocessor.service.AccountBalanceService;
+import com.bankingplatform.streamprocessor.service.FraudDetectionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.TimestampedKeyValueStore;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Applies balance legs keyed by account number to the account-balances store. A new account
+// starts from the balance in the accounts reference data. The debit that takes an account below
+// its overdraft limit raises an alert right away; further debits while it stays below do not,
+// until the balance is back within the limit. Changed balances are written to the accounts
+// table on a punctuation, in batches.
+@Slf4j
+@RequiredArgsConstructor
+public class AccountBalanceProcessor implements Processor<String, BalanceDelta, Void, Void> {
+
+    public static final String BALANCE_STORE = "account-balances";
+
+    private final AccountBalanceService balanceService;
+    private final FraudDetectionService fraudDetectionService;
+    private final Duration flushInterval;
+
+    private KeyValueStore<String, AccountBalance> balances;
+    private TimestampedKeyValueStore<String, AccountReference> accountReferences;
+    private final Set<String> dirtyAccounts = new HashSet<>();
+
+    @Override
+    public void init(ProcessorContext<Void, Void> context) {
+        this.balances = context.getStateStore(BALANCE_STORE);
+        this.accountReferences = context.getStateStore(StreamProcessorTopology.ACCOUNT_REFERENCE_STORE);
+        // Balances restored from the changelog that never reached the table
+        try (KeyValueIterator<String, AccountBalance> iterator = balances.all()) {
+            while (iterator.hasNext()) {
+                KeyValue<String, AccountBalance> entry = iterator.next();
+                if (entry.value.isDirty()) {
+                    dirtyAccounts.add(entry.key);
+                }
+            }
+        }
+        context.schedule(flushInterval, PunctuationType.WALL_CLOCK_TIME, timestamp -> flush());
+    }
+
+    @Override
+    public void process(Record<String, BalanceDelta> record) {
+        BalanceDelta delta = record.value();
+        String accountNumber = delta.getAccountNumber();
+        AccountReference reference = ValueAndTimestamp.getValueOrNull(accountReferences.get(accountNumber));
+
+        AccountBalance current = balances.get(accountNumber);
+        BigDecimal before = current != null ? current.getBalance()
+                : reference != null && reference.getBalance() != null ? reference.getBalance() : BigDecimal.ZERO;
+        BigDecimal after = before.add(delta.getAmount());
+
+        // The limit is only known for accounts in the reference data
+        boolean wasOverdrawn = current != null && current.isOverdrawn();
+        boolean overdrawn = wasOverdrawn;
+        BigDecimal limit = null;
+        if (reference != null) {
+            limit = reference.getOverdraftLimit() != null ? reference.getOverdraftLimit() : BigDecimal.ZERO;
+            overdrawn = after.compareTo(limit.negate()) < 0;
+        }
+
+        balances.put(accountNumber, AccountBalance.builder()
+                .accountNumber(accountNumber)
+                .balance(after)
+                .lastTransactionId(delta.getTransaction().getTransactionId())
+                .lastTransactionAt(delta.getTransaction().getTimestamp())
+                .dirty(true)
+                .overdrawn(overdrawn)
+                .build());
+        dirtyAccounts.add(accountNumber);
+
+        if (overdrawn && !wasOverdrawn && delta.getAmount().signum() < 0) {
+            fraudDetectionService.raiseOverdraftBreach(delta.getTransaction(), accountNumber, after, limit);
+        }
+    }
+
+    private void flush() {
+        if (dirtyAccounts.isEmpty()) {
+            return;
+        }
+        List<AccountBalance> pending = new ArrayList<>(dirtyAccounts.size());
+        dirtyAccounts.forEach(accountNumber -> {
+            AccountBalance balance = balances.get(accountNumber);
+            if (balance != null) {
+                pending.add(balance);
+            }
+        });
+        try {
+            int updated = balanceService.flush(pending);
+            pending.forEach(balance -> {
+                balance.setDirty(false);
+                balances.put(balance.getAccountNumber(), balance);
+            });
+            dirtyAccounts.clear();
+            log.debug("Flushed {} account balances, {} rows updated", pending.size(), updated);
+        } catch (Exception e) {
+            log.warn("Flushing {} account balances failed, will retry: {}", pending.size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.bankingplatform.streamprocessor.topology;
+
+import com.bankingplatform.common.event.Transaction;
+import com.bankingplatform.streamprocessor.model.BufferedTransaction;
+import com.bankingplatform.streamprocessor.model.CustomerProfile;
+import com.bankingplatform.streamprocessor.model.EnrichedTransaction;
+import com.bankingplatform.streamprocessor.model.ProcessedTransaction;
+import com.bankingplatform.streamprocessor.model.TransactionContext;
+import com.bankingplatform.streamprocessor.service.CustomerProfileService;
+import com.bankingplatform.streamprocessor.service.DeadLetterService;
+import com.bankingplatform.streamprocessor.service.TransactionDedupService;
+import com.bankingplatform.streamprocessor.service.TransactionProcessingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.processor.api.RecordMetadata;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Micro-batch variant of TransactionProcessor. Records are parked in a changelogged buffer store
+// and processed together once batchSize are waiting or maxWait has passed, so offsets committed
+// while records are still buffered never lose them. Every record in a batch sees its customer's
+// profile as updated by the earlier records of the batch, as record-by-record processing would;
+// the updated profiles are written to the store once the batch succeeds.
+// A failed batch is retried record by record, so only the failing record is dead-lettered.
+// Redelivered transactions that were already processed are dropped before the batch runs.
+@Slf4j
+@RequiredArgsConstructor
+public class BatchingTransactionProcessor implements Processor<String, EnrichedTransaction, String, ProcessedTransaction> {
+
+    public static final String BUFFER_STORE = "transaction-batch-buffer";
+
+    private record SourceMetadata(String topic, int partition, long offset) implements RecordMetadata {}
+
+    private final TransactionProcessingService processingService;
+    private final CustomerProfileService profileService;
+    private final DeadLetterService deadLetterService;
+    private final Serializer<Transaction> transactionSerializer;
+    private final int batchSize;
+    private final Duration maxWait;
+    private final TransactionDedupService dedupService;
+    private final StringSerializer keySerializer = new StringSerializer();
+
+    private ProcessorContext<String, ProcessedTransaction> context;
+    private KeyValueStore<String, CustomerProfile> profiles;
+    private KeyValueStore<String, BufferedTransaction> buffer;
+    private TransactionDeduplicator deduplicator;
+    private int buffered;
+
+    @Override
+    public void init(ProcessorContext<String, ProcessedTransaction> context) {
+        this.context = context;
+        this.profiles = context.getStateStore(TransactionProcessor.PROFILE_STORE);
+        this.buffer = context.getStateStore(BUFFER_STORE);
+        if (dedupService.isEnabled()) {
+            this.deduplicator = new TransactionDeduplicator(dedupService,
+                    context.getStateStore(TransactionDeduplicator.DEDUP_STORE), context.currentSystemTimeMs());
+            context.schedule(Duration.ofMillis(dedupService.getCheckpointIntervalMs()),
+                    PunctuationType.WALL_CLOCK_TIME, deduplicator::checkpoint);
+        }
+        // Records restored from the changelog after a restart go out with the next flush
+        try (KeyValueIterator<String, BufferedTransaction> iterator = buffer.all()) {
+            while (iterator.hasNext()) {
+                iterator.next();
+                buffered++;
+            }
+        }
+        context.schedule(maxWait, PunctuationType.WALL_CLOCK_TIME, timestamp -> flush());
+    }
+
+    @Override
+    public void process(Record<String, EnrichedTransaction> record) {
+        // Keys are zero-padded offsets so the buffer iterates in arrival order; the task reads
+        // a single partition of the input topic
+        RecordMetadata metadata = context.recordMetadata().orElse(null);
+        long offset = metadata != null ? metadata.offset() : -1L;
+        buffer.put(String.format("%019d", offset), new BufferedTransaction(
+                metadata != null ? metadata.topic() : null,
+                metadata != null ? metadata.partition() : -1,
+                offset, record.timestamp(), record.key(), record.value().getTransaction(),
+                record.value().getCustomer(), record.value().getAccount()));
+        if (++buffered >= batchSize) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (buffered == 0) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(buffered);
+        List<BufferedTransaction> batch = new ArrayList<>(buffered);
+        try (KeyValueIterator<String, BufferedTransaction> iterator = buffer.all()) {
+            while (iterator.hasNext()) {
+                KeyValue<String, BufferedTransaction> entry = iterator.next();
+                keys.add(entry.key);
+                batch.add(entry.value);
+            }
+        }
+        keys.forEach(buffer::delete);
+        buffered = 0;
+
+        // Also drops an id repeated within the batch, which the filter has not recorded yet
+        Set<String> batchIds = new HashSet<>();
+        batch.removeIf(entry -> {
+            String transactionId = entry.getTransaction().getTransactionId();
+            boolean duplicate = !batchIds.add(transactionId) || isDuplicate(transactionId);
+            if (duplicate) {
+                log.info("Skipping redelivered transaction: {}", transactionId);
+            }
+            return duplicate;
+        });
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<Transaction> transactions = batch.stream().map(BufferedTransaction::getTransaction).toList();
+        // Folded into a copy, so the profile already handed to a context keeps its before-state
+        Map<String, CustomerProfile> updated = new HashMap<>();
+        List<TransactionContext> contexts = new ArrayList<>(batch.size());
+        for (BufferedTransaction entry : batch) {
+            String customerId = entry.getTransaction().getCustomerId();
+            CustomerProfile before = updated.containsKey(customerId)
+                    ? updated.get(customerId)
+                    : profiles.get(customerId);
+            contexts.add(contextOf(entry, before));
+            updated.put(customerId,
+                    profileService.update(before != null ? before.copy() : null, entry.getTransaction()));
+        }
+        try {
+            Set<String> flagged = processingService.processBatch(transactions, contexts);
+            updated.forEach(profiles::put);
+            batch.forEach(entry -> {
+                record(entry.getTransaction().getTransactionId());
+                forward(entry, flagged.contains(entry.getTransaction().getTransactionId()));
+            });
+            log.debug("Processed batch of {} transactions", transactions.size());
+        } catch (Exception e) {
+            log.warn("Batch of {} transactions failed, retrying record by record: {}",
+                    transactions.size(), e.getMessage());
+            batch.forEach(this::processSingle);
+        }
+    }
+
+    private void processSingle(BufferedTransaction entry) {
+        Transaction transaction = entry.getTransaction();
+        try {
+            if (isDuplicate(transaction.getTransactionId())) {
+                log.info("Skipping redelivered transaction: {}", transaction.getTransactionId());
+                return;
+            }
+            CustomerProfile profile = profiles.get(transaction.getCustomerId());
+            boolean flagged = processingService.processTransaction(transaction, contextOf(entry, profile));
+            profiles.put(transaction.getCustomerId(), profileService.update(profile, transaction));
+            record(transaction.getTransactionId());
+            forward(entry, flagged);
+        } catch (Exception e) {
+            log.error("Error processing transaction {}: {}",
+                    transaction.getTransactionId(), e.getMessage(), e);
+            // Original headers are not kept in the buffer
+            deadLetterService.publishProcessingFailure(
+                    Optional.of(new SourceMetadata(entry.getTopic(), entry.getPartition(), entry.getOffset())),
+                    entry.getTimestamp(),
+                    keySerializer.serialize(entry.getTopic(), entry.getKey()),
+                    transactionSerializer.serialize(entry.getTopic(), transaction),
+                    new RecordHeaders(), e);
+        }
+    }
+
+    private boolean isDuplicate(String transactionId) {
+        return deduplicator != null && deduplicator.isDuplicate(transactionId, context.currentSystemTimeMs());
+    }
+
+    private void record(String transactionId) {
+        if (deduplicator != null) {
+            deduplicator.record(transactionId, context.currentSystemTimeMs());
+        }
+    }
+
+    // Forwarded from the punctuation, so the buffered record timestamp is carried over explicitly
+    private void forward(BufferedTransaction entry, boolean flagged) {
+        context.forward(new Record<>(entry.getKey(),
+                new ProcessedTransaction(entry.getTransaction(), flagged), entry.getTimestamp()));
+    }
+
+    private static TransactionContext contextOf(BufferedTransaction entry, CustomerProfile profile) {
+        return TransactionContext.builder()
+                .profile(profile)
+                .customer(entry.getCustomer())
+                .account(entry.getAccount())
+                .build();
+    }
+}
@@ -1,29 +1,127 @@
 package com.bankingplatform.streamprocessor.topology;
 
-import com.bankingplatform.streamprocessor.model.Transaction;
+import com.bankingplatform.common.event.Transaction;
+import com.bankingplatform.common.serialization.JsonEventSerde;
+import com.bankingplatform.streamprocessor.model.AccountBalance;
+import com.bankingplatform.streamprocessor.model.AccountReference;
+import com.bankingplatform.streamprocessor.model.BalanceDelta;
+import com.bankingplatform.streamprocessor.model.BufferedTransaction;
+import com.bankingplatform.streamprocessor.model.BurstSession;
+import com.bankingplatform.streamprocessor.model.CustomerProfile;
+import com.bankingplatform.streamprocessor.model.CustomerReference;
+import com.bankingplatform.streamprocessor.model.EnrichedTransaction;
+import com.bankingplatform.streamprocessor.model.MerchantActivity;
+import com.bankingplatform.streamprocessor.model.MerchantStats;
+import com.bankingplatform.streamprocessor.model.ProcessedTransaction;
+import com.bankingplatform.streamprocessor.service.AccountBalanceService;
+import com.bankingplatform.streamprocessor.service.CustomerProfileService;
+import com.bankingplatform.streamprocessor.service.DeadLetterService;
+import com.bankingplatform.streamprocessor.service.FraudDetectionService;
+import com.bankingplatform.streamprocessor.service.TransactionDedupService;
 import com.bankingplatform.streamprocessor.service.TransactionProcessingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.kstream.GlobalKTable;
+import org.apache.kafka.streams.kstream.Grouped;
 import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.Repartitioned;
+import org.apache.kafka.streams.kstream.SessionWindows;
+import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.state.SessionStore;
+import org.apache.kafka.streams.state.WindowStore;
+import org.apache.kafka.streams.state.Stores;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.kafka.support.serializer.JsonSerde;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class StreamProcessorTopology {
 
+    public static final String CUSTOMER_REFERENCE_STORE = "customer-reference";
+    public static final String ACCOUNT_REFERENCE_STORE = "account-reference";
+    public static final String BURST_SESSION_STORE = "customer-burst-sessions";
+    public static final String MERCHANT_STATS_STORE = "merchant-stats";
+    public static final String MERCHANT_CATEGORY_STATS_STORE = "merchant-category-stats";
+
     private final TransactionProcessingService processingService;
-    private final JsonSerde<Transaction> transactionSerde;
+    private final CustomerProfileService profileService;
+    private final DeadLetterService deadLetterService;
+    private final AccountBalanceService balanceService;
+    private final FraudDetectionService fraudDetectionService;
+    private final TransactionDedupService dedupService;
+    private final Serde<Transaction> transactionSerde;
+
+    // Topic and state store values, each of one fixed type, so no type headers are written or read
+    private final Serde<CustomerProfile> customerProfileSerde = new JsonEventSerde<>(CustomerProfile.class);
+    private final Serde<BufferedTransaction> bufferedTransactionSerde = new JsonEventSerde<>(BufferedTransaction.class);
+    private final Serde<CustomerReference> customerReferenceSerde = new JsonEventSerde<>(CustomerReference.class);
+    private final Serde<AccountReference> accountReferenceSerde = new JsonEventSerde<>(AccountReference.class);
+    private final Serde<BalanceDelta> balanceDeltaSerde = new JsonEventSerde<>(BalanceDelta.class);
+    private final Serde<AccountBalance> accountBalanceSerde = new JsonEventSerde<>(AccountBalance.class);
+    private final Serde<BurstSession> burstSessionSerde = new JsonEventSerde<>(BurstSession.class);
+    private final Serde<MerchantActivity> merchantActivitySerde = new JsonEventSerde<>(MerchantActivity.class);
+    private final Serde<MerchantStats> merchantStatsSerde = new JsonEventSerde<>(MerchantStats.class);
+
+    @Value("${stream.balances.flush-interval-ms:30000}")
+    private long balanceFlushIntervalMs;
+
+    @Value("${stream.burst.inactivity-gap-seconds:60}")
+    private long burstGapSeconds;
+
+    @Value("${stream.burst.max-count:8}")
+    private long burstMaxCount;
+
+    @Value("${stream.burst.max-amount:20000}")
+    private BigDecimal burstMaxAmount;
+
+    @Value("${stream.merchants.window-minutes:60}")
+    private long merchantWindowMinutes;
+
+    @Value("${stream.merchants.grace-minutes:5}")
+    private long merchantGraceMinutes;
+
+    @Value("${stream.merchants.retention-hours:48}")
+    private long merchantRetentionHours;
+
+    @Value("${stream.reference.customers-topic:banking-customers}")
+    private String customersTopic;
+
+    @Value("${stream.reference.accounts-topic:banking-accounts}")
+    private String accountsTopic;
+
+    // Micro-batch fraud evaluation, see BatchingTransactionProcessor
+    @Value("${stream.fraud.batch.enabled:false}")
+    private boolean batchEnabled;
+
+    @Value("${stream.fraud.batch.size:200}")
+    private int batchSize;
+
+    @Value("${stream.fraud.batch.max-wait-ms:200}")
+    private long batchMaxWaitMs;
 
     @Autowired
     public void buildPipeline(StreamsBuilder streamsBuilder) {
         log.info("Building Kafka Streams topology...");
 
+        streamsBuilder.addStateStore(Stores.keyValueStoreBuilder(
+                Stores.persistentKeyValueStore(TransactionProcessor.PROFILE_STORE),
+                Serdes.String(), customerProfileSerde));
+
         KStream<String, Transaction> transactionStream = streamsBuilder
                 .stream("banking-transactions",
                         Consumed.with(Serdes.String(), transactionSerde))
@@ -34,19 +132,121 @@ public class StreamProcessorTopology {
                     }
                 });
 
-        // Process transactions
-        transactionStream
+        // Reference data, replicated in full to every instance and looked up locally
+        GlobalKTable<String, CustomerReference> customers = streamsBuilder.globalTable(customersTopic,
+                Consumed.with(Serdes.String(), customerReferenceSerde),
+                Materialized.as(CUSTOMER_REFERENCE_STORE));
+        GlobalKTable<String, AccountReference> accounts = streamsBuilder.globalTable(accountsTopic,
+                Consumed.with(Serdes.String(), accountReferenceSerde),
+                Materialized.as(ACCOUNT_REFERENCE_STORE));
+
+        // Left joins keep transactions without reference data; a null join key would drop the
+        // record, so missing ids look up the empty key instead
+        KStream<String, EnrichedTransaction> validTransactions = transactionStream
                 .filter((key, transaction) -> transaction != null)
-                .foreach((key, transaction) -> {
-                    try {
-                        processingService.processTransaction(transaction);
-                        log.debug("Processed transaction: {}", transaction.getTransactionId());
-                    } catch (Exception e) {
-                        log.error("Error processing transaction {}: {}",
-                                transaction.getTransactionId(), e.getMessage(), e);
-                    }
-                });
+                .leftJoin(customers,
+                        (key, transaction) -> Objects.requireNonNullElse(transaction.getCustomerId(), ""),
+                        (transaction, customer) -> EnrichedTransaction.builder()
+                                .transaction(transaction)
+                                .customer(customer)
+                                .build())
+                .leftJoin(accounts,
+                        (key, enriched) -> Objects.requireNonNullElse(enriched.getTransaction().getAccountNumber(), ""),
+                        (enriched, account) -> {
+                            enriched.setAccount(account);
+                            return enriched;
+                        });
+
+        // Ids of processed transactions, checked so redelivered records are not applied twice
+        List<String> transactionStores = new ArrayList<>(List.of(TransactionProcessor.PROFILE_STORE));
+        if (dedupService.isEnabled()) {
+            streamsBuilder.addStateStore(Stores.keyValueStoreBuilder(
+                    Stores.persistentKeyValueStore(TransactionDeduplicator.DEDUP_STORE),
+                    Serdes.String(), Serdes.ByteArray()));
+            transactionStores.add(TransactionDeduplicator.DEDUP_STORE);
+        }
+
+        // Process transactions, failures are routed to the dead-letter topic. Only transactions
+        // that were stored, not failed or redelivered ones, flow on to the aggregations below.
+        KStream<String, ProcessedTransaction> processedTransactions;
+        if (batchEnabled) {
+            streamsBuilder.addStateStore(Stores.keyValueStoreBuilder(
+                    Stores.persistentKeyValueStore(BatchingTransactionProcessor.BUFFER_STORE),
+                    Serdes.String(), bufferedTransactionSerde));
+            transactionStores.add(BatchingTransactionProcessor.BUFFER_STORE);
+            processedTransactions = validTransactions.process(() -> new BatchingTransactionProcessor(processingService, profileService,
+                            deadLetterService, transactionSerde.serializer(), batchSize,
+                            Duration.ofMillis(batchMaxWaitMs), dedupService),
+                    transactionStores.toArray(String[]::new));
+            log.info("Micro-batch processing enabled: up to {} records or {} ms per batch", batchSize, batchMaxWaitMs);
+        } else {
+            processedTransactions = validTransactions.process(() -> new TransactionProcessor(processingService, profileService,
+                    deadLetterService, transactionSerde.serializer(), dedupService),
+                    transactionStores.toArray(String[]::new));
+        }
+
+        // Merchant volume and alert rates per tumbling window, by merchant name and by category.
+        // The window stores are the served table: a lookup is a point get on key and window start.
+        TimeWindows merchantWindows = TimeWindows.ofSizeAndGrace(Duration.ofMinutes(merchantWindowMinutes),
+                Duration.ofMinutes(merchantGraceMinutes));
+        KStream<String, MerchantActivity> merchantActivity = processedTransactions
+                .filter((key, processed) -> processed.getTransaction().getMerchantName() != null)
+                .map((key, processed) -> KeyValue.pair(processed.getTransaction().getMerchantName(),
+                        MerchantActivity.of(processed.getTransaction(), processed.isFlagged())));
+        merchantActivity
+                .groupByKey(Grouped.with("merchant-activity", Serdes.String(), merchantActivitySerde))
+                .windowedBy(merchantWindows)
+                .aggregate(MerchantStats::new, (merchantName, activity, stats) -> stats.add(activity),
+                        merchantStatsStore(MERCHANT_STATS_STORE));
+        merchantActivity
+                .filter((merchantName, activity) -> activity.getMerchantCategory() != null)
+                .groupBy((merchantName, activity) -> activity.getMerchantCategory(),
+                        Grouped.with("merchant-category-activity", Serdes.String(), merchantActivitySerde))
+                .windowedBy(merchantWindows)
+                .aggregate(MerchantStats::new, (category, activity, stats) -> stats.add(activity),
+                        merchantStatsStore(MERCHANT_CATEGORY_STATS_STORE));
+
+        // Bursts: per-customer sessions that close after the inactivity gap, over processed
+        // transactions only, so redelivered and dead-lettered records never count. Caching is off
+        // so every update is forwarded and the alert fires on the transaction that crosses a limit.
+        processedTransactions
+                .filter((key, processed) -> processed.getTransaction().getCustomerId() != null)
+                .map((key, processed) -> KeyValue.pair(processed.getTransaction().getCustomerId(),
+                        processed.getTransaction()))
+                .groupByKey(Grouped.with("burst-transactions", Serdes.String(), transactionSerde))
+                .windowedBy(SessionWindows.ofInactivityGapWithNoGrace(Duration.ofSeconds(burstGapSeconds)))
+                .aggregate(BurstSession::new,
+                        (customerId, transaction, session) -> session.add(transaction, burstMaxCount, burstMaxAmount),
+                        (customerId, left, right) -> left.merge(right, burstMaxCount, burstMaxAmount),
+                        Materialized.<String, BurstSession, SessionStore<Bytes, byte[]>>as(BURST_SESSION_STORE)
+                                .withKeySerde(Serdes.String())
+                                .withValueSerde(burstSessionSerde)
+                                .withCachingDisabled())
+                .toStream()
+                .filter((window, session) -> session != null && session.isAlertPending())
+                .foreach((window, session) -> fraudDetectionService.raiseBurst(session.getLastTransaction(),
+                        session.getCount(), session.getAmount(), burstGapSeconds));
+
+        // Running balances per account: legs are repartitioned by account number so every change
+        // to an account is applied by one task, in order
+        streamsBuilder.addStateStore(Stores.keyValueStoreBuilder(
+                Stores.persistentKeyValueStore(AccountBalanceProcessor.BALANCE_STORE),
+                Serdes.String(), accountBalanceSerde));
+        processedTransactions
+                .flatMap((key, processed) -> balanceService.deltasOf(processed.getTransaction()).stream()
+                        .map(delta -> KeyValue.pair(delta.getAccountNumber(), delta))
+                        .toList())
+                .repartition(Repartitioned.with(Serdes.String(), balanceDeltaSerde).withName("balance-deltas"))
+                .process(() -> new AccountBalanceProcessor(balanceService, fraudDetectionService,
+                        Duration.ofMillis(balanceFlushIntervalMs)), AccountBalanceProcessor.BALANCE_STORE);
 
         log.info("Kafka Streams topology built successfully");
     }
+
+    private Materialized<String, MerchantStats, WindowStore<Bytes, byte[]>> merchantStatsStore(String name) {
+        return Materialized.<String, MerchantStats, WindowStore<Bytes, byte[]>>as(name)
+                .withKeySerde(Serdes.String())
+                .withValueSerde(merchantStatsSerde)
+                .withRetention(Duration.ofHours(merchantRetentionHours));
+    }
 }
@@ -0,0 +1,142 @@
+package com.bankingplatform.streamprocessor.topology;
+
+import com.bankingplatform.streamprocessor.model.BloomFilter;
+import com.bankingplatform.streamprocessor.service.TransactionDedupService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Rolling filter of the transaction ids one task has processed: one Bloom filter per
+// processing-time bucket, the last few buckets kept, so memory is fixed however many ids pass.
+// Buckets are written to a changelogged store on checkpoint rather than per record. The store
+// rolls back with the offsets after a crash while the database writes do not, so on init the
+// filter is topped up with the ids written since its last checkpoint, each in the bucket of its
+// processed_at so it ages out when it would have without the crash.
+@Slf4j
+public class TransactionDeduplicator {
+
+    public static final String DEDUP_STORE = "transaction-dedup-filter";
+
+    private static final String CHECKPOINT_KEY = "checkpoint";
+    private static final String BUCKET_PREFIX = "bucket-";
+    // Covers clock differences between instances writing processed_at
+    private static final long CHECKPOINT_SLACK_MILLIS = Duration.ofMinutes(1).toMillis();
+
+    private final TransactionDedupService dedupService;
+    private final KeyValueStore<String, byte[]> store;
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final int bytesPerBucket;
+    private final int hashes;
+    private final TreeMap<Long, byte[]> buckets = new TreeMap<>();
+    private final Set<Long> dirtyBuckets = new HashSet<>();
+
+    public TransactionDeduplicator(TransactionDedupService dedupService, KeyValueStore<String, byte[]> store,
+                                   long nowMillis) {
+        this.dedupService = dedupService;
+        this.store = store;
+        this.bucketMillis = Duration.ofMinutes(dedupService.getBucketMinutes()).toMillis();
+        this.bucketCount = dedupService.getBuckets();
+        this.bytesPerBucket = BloomFilter.optimalBytes(dedupService.getExpectedPerBucket(),
+                dedupService.getFalsePositiveRate());
+        this.hashes = BloomFilter.optimalHashes(dedupService.getExpectedPerBucket(), bytesPerBucket);
+        restore(nowMillis);
+    }
+
+    // A filter hit is confirmed against the database before the record is dropped
+    public boolean isDuplicate(String transactionId, long nowMillis) {
+        rotate(nowMillis);
+        for (byte[] bits : buckets.values()) {
+            if (BloomFilter.mightContain(bits, hashes, transactionId)) {
+                return dedupService.confirmDuplicate(transactionId);
+            }
+        }
+        dedupService.recordNew();
+        return false;
+    }
+
+    // Called once the transaction has been processed successfully
+    public void record(String transactionId, long nowMillis) {
+        long bucketStart = rotate(nowMillis);
+        BloomFilter.add(buckets.get(bucketStart), hashes, transactionId);
+        dirtyBuckets.add(bucketStart);
+    }
+
+    public void checkpoint(long nowMillis) {
+        rotate(nowMillis);
+        dirtyBuckets.forEach(bucketStart -> {
+            byte[] bits = buckets.get(bucketStart);
+            if (bits != null) {
+                store.put(bucketKey(bucketStart), bits);
+            }
+        });
+        dirtyBuckets.clear();
+        store.put(CHECKPOINT_KEY, ByteBuffer.allocate(Long.BYTES).putLong(nowMillis).array());
+    }
+
+    private void restore(long nowMillis) {
+        Long checkpoint = null;
+        try (KeyValueIterator<String, byte[]> iterator = store.all()) {
+            while (iterator.hasNext()) {
+                KeyValue<String, byte[]> entry = iterator.next();
+                if (CHECKPOINT_KEY.equals(entry.key)) {
+                    checkpoint = ByteBuffer.wrap(entry.value).getLong();
+                } else if (entry.value.length == bytesPerBucket) {
+                    buckets.put(Long.parseLong(entry.key.substring(BUCKET_PREFIX.length())), entry.value);
+                } else {
+                    // Sized under different settings; the database top-up covers its window
+                    store.delete(entry.key);
+                }
+            }
+        }
+        long windowStart = nowMillis - bucketMillis * bucketCount;
+        long since = checkpoint != null ? Math.max(checkpoint - CHECKPOINT_SLACK_MILLIS, windowStart) : windowStart;
+        long currentBucket = rotate(nowMillis);
+        long oldestBucket = currentBucket - bucketMillis * (bucketCount - 1);
+        long[] toppedUp = {0};
+        dedupService.processedSince(since, (transactionId, processedAt) -> {
+            // Written by an instance whose clock is ahead: keep it in the current bucket
+            long bucketStart = Math.min(bucketStartOf(processedAt), currentBucket);
+            if (bucketStart < oldestBucket) {
+                return;
+            }
+            BloomFilter.add(buckets.computeIfAbsent(bucketStart, start -> new byte[bytesPerBucket]),
+                    hashes, transactionId);
+            dirtyBuckets.add(bucketStart);
+            toppedUp[0]++;
+        });
+        log.info("Transaction dedup filter restored: {} buckets of {} bytes, {} hashes, {} ids topped up",
+                buckets.size(), bytesPerBucket, hashes, toppedUp[0]);
+    }
+
+    // Opens the bucket for the current time and drops the ones that have aged out
+    private long rotate(long nowMillis) {
+        long bucketStart = bucketStartOf(nowMillis);
+        buckets.computeIfAbsent(bucketStart, start -> new byte[bytesPerBucket]);
+        Map<Long, byte[]> expired = buckets.headMap(bucketStart - bucketMillis * (bucketCount - 1));
+        if (!expired.isEmpty()) {
+            expired.keySet().forEach(start -> {
+                store.delete(bucketKey(start));
+                dirtyBuckets.remove(start);
+            });
+            expired.clear();
+        }
+        return bucketStart;
+    }
+
+    private long bucketStartOf(long millis) {
+        return millis - millis % bucketMillis;
+    }
+
+    private static String bucketKey(long bucketStart) {
+        return BUCKET_PREFIX + String.format("%019d", bucketStart);
+    }
+}
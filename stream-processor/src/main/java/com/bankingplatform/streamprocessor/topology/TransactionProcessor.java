@@ -0,0 +1,89 @@
+package com.bankingplatform.streamprocessor.topology;
+
+import com.bankingplatform.common.event.Transaction;
+import com.bankingplatform.streamprocessor.model.CustomerProfile;
+import com.bankingplatform.streamprocessor.model.EnrichedTransaction;
+import com.bankingplatform.streamprocessor.model.ProcessedTransaction;
+import com.bankingplatform.streamprocessor.model.TransactionContext;
+import com.bankingplatform.streamprocessor.service.CustomerProfileService;
+import com.bankingplatform.streamprocessor.service.DeadLetterService;
+import com.bankingplatform.streamprocessor.service.TransactionDedupService;
+import com.bankingplatform.streamprocessor.service.TransactionProcessingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueStore;
+
+import java.time.Duration;
+
+// Runs the processing pipeline for each transaction and routes failures to the dead-letter topic.
+// The customer's profile is read from the store before processing and updated only on success;
+// the input topic is keyed by customer id, so each profile lives on a single task. Processed
+// transactions are forwarded for the merchant aggregations and the balance projection. Redelivered
+// transactions that were already processed are skipped, see TransactionDeduplicator.
+@Slf4j
+@RequiredArgsConstructor
+public class TransactionProcessor implements Processor<String, EnrichedTransaction, String, ProcessedTransaction> {
+
+    public static final String PROFILE_STORE = "customer-profiles";
+
+    private final TransactionProcessingService processingService;
+    private final CustomerProfileService profileService;
+    private final DeadLetterService deadLetterService;
+    private final Serializer<Transaction> transactionSerializer;
+    private final TransactionDedupService dedupService;
+    private final StringSerializer keySerializer = new StringSerializer();
+
+    private ProcessorContext<String, ProcessedTransaction> context;
+    private KeyValueStore<String, CustomerProfile> profiles;
+    private TransactionDeduplicator deduplicator;
+
+    @Override
+    public void init(ProcessorContext<String, ProcessedTransaction> context) {
+        this.context = context;
+        this.profiles = context.getStateStore(PROFILE_STORE);
+        if (dedupService.isEnabled()) {
+            this.deduplicator = new TransactionDeduplicator(dedupService,
+                    context.getStateStore(TransactionDeduplicator.DEDUP_STORE), context.currentSystemTimeMs());
+            context.schedule(Duration.ofMillis(dedupService.getCheckpointIntervalMs()),
+                    PunctuationType.WALL_CLOCK_TIME, deduplicator::checkpoint);
+        }
+    }
+
+    @Override
+    public void process(Record<String, EnrichedTransaction> record) {
+        Transaction transaction = record.value().getTransaction();
+        try {
+            if (deduplicator != null
+                    && deduplicator.isDuplicate(transaction.getTransactionId(), context.currentSystemTimeMs())) {
+                log.info("Skipping redelivered transaction: {}", transaction.getTransactionId());
+                return;
+            }
+            CustomerProfile profile = profiles.get(transaction.getCustomerId());
+            boolean flagged = processingService.processTransaction(transaction, TransactionContext.builder()
+                    .profile(profile)
+                    .customer(record.value().getCustomer())
+                    .account(record.value().getAccount())
+                    .build());
+            profiles.put(transaction.getCustomerId(), profileService.update(profile, transaction));
+            if (deduplicator != null) {
+                deduplicator.record(transaction.getTransactionId(), context.currentSystemTimeMs());
+            }
+            log.debug("Processed transaction: {}", transaction.getTransactionId());
+            context.forward(record.withValue(new ProcessedTransaction(transaction, flagged)));
+        } catch (Exception e) {
+            log.error("Error processing transaction {}: {}",
+                    transaction.getTransactionId(), e.getMessage(), e);
+            String topic = context.recordMetadata().map(m -> m.topic()).orElse(null);
+            deadLetterService.publishProcessingFailure(context.recordMetadata(), record.timestamp(),
+                    keySerializer.serialize(topic, record.key()),
+                    transactionSerializer.serialize(topic, transaction),
+                    record.headers(), e);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+-- Stream-processor schema. Column names and types follow the JPA entities
+-- (Spring's physical naming: camelCase -> snake_case).
+
+-- LEGACY TABLES
+-- A database that predates Flyway (created by the old shared init script and/or Hibernate's
+-- ddl-auto) is baselined at version 0, so this migration still runs on it. Its heap tables have
+-- other columns and constraints, so they are moved aside here, the tables below are created as
+-- usual, and the rows are copied back at the end of this migration. Indexes are renamed too,
+-- because index names are schema-wide, and the views on the old tables are recreated below.
+DO $$
+DECLARE
+    legacy_table TEXT;
+    legacy_index RECORD;
+BEGIN
+    DROP VIEW IF EXISTS active_fraud_alerts;
+    DROP VIEW IF EXISTS high_risk_customers;
+    FOREACH legacy_table IN ARRAY ARRAY['transactions', 'fraud_alerts', 'customer_summaries', 'transaction_metrics'] LOOP
+        IF to_regclass(legacy_table) IS NOT NULL THEN
+            EXECUTE format('ALTER TABLE %I RENAME TO %I', legacy_table, legacy_table || '_legacy');
+            FOR legacy_index IN
+                SELECT c.relname
+                FROM pg_index i
+                JOIN pg_class c ON c.oid = i.indexrelid
+                WHERE i.indrelid = (legacy_table || '_legacy')::regclass
+            LOOP
+                EXECUTE format('ALTER INDEX %I RENAME TO %I',
+                               legacy_index.relname, left(legacy_index.relname, 56) || '_legacy');
+            END LOOP;
+        END IF;
+    END LOOP;
+END
+$$;
+
+-- Copies the rows of <target>_legacy into <target> and drops it. Columns are matched by name;
+-- a fallback (target column, expression over the legacy columns) fills a column that is
+-- missing, renamed or null in the legacy table, and a fallback starting with '=' replaces the
+-- legacy column entirely. Fallbacks naming a column the legacy table lacks are ignored.
+CREATE FUNCTION pg_temp.copy_legacy_rows(target TEXT, fallbacks TEXT[])
+RETURNS VOID AS $$
+DECLARE
+    legacy TEXT := target || '_legacy';
+    target_column RECORD;
+    fallback TEXT;
+    candidates TEXT[];
+    insert_columns TEXT[] := ARRAY[]::TEXT[];
+    select_columns TEXT[] := ARRAY[]::TEXT[];
+    i INT;
+BEGIN
+    IF to_regclass(legacy) IS NULL THEN
+        RETURN;
+    END IF;
+
+    FOR target_column IN
+        SELECT attname FROM pg_attribute
+        WHERE attrelid = target::regclass AND attnum > 0 AND NOT attisdropped
+        ORDER BY attnum
+    LOOP
+        candidates := ARRAY[]::TEXT[];
+        IF EXISTS (SELECT 1 FROM pg_attribute WHERE attrelid = legacy::regclass
+                   AND attname = target_column.attname AND attnum > 0 AND NOT attisdropped) THEN
+            candidates := candidates || quote_ident(target_column.attname);
+        END IF;
+        FOR i IN 1 .. coalesce(array_length(fallbacks, 1), 0) BY 2 LOOP
+            CONTINUE WHEN fallbacks[i] <> target_column.attname;
+            fallback := fallbacks[i + 1];
+            IF left(fallback, 1) = '=' THEN
+                candidates := ARRAY[substr(fallback, 2)];
+            ELSIF fallback !~ '^[a-z_][a-z_0-9]*$' THEN
+                candidates := candidates || fallback;
+            ELSIF EXISTS (SELECT 1 FROM pg_attribute WHERE attrelid = legacy::regclass
+                          AND attname = fallback AND attnum > 0 AND NOT attisdropped) THEN
+                candidates := candidates || quote_ident(fallback);
+            END IF;
+        END LOOP;
+
+        IF array_length(candidates, 1) = 1 THEN
+            insert_columns := insert_columns || quote_ident(target_column.attname);
+            select_columns := select_columns || candidates[1];
+        ELSIF array_length(candidates, 1) > 1 THEN
+            insert_columns := insert_columns || quote_ident(target_column.attname);
+            select_columns := select_columns || format('COALESCE(%s)', array_to_string(candidates, ', '));
+        END IF;
+    END LOOP;
+
+    EXECUTE format('INSERT INTO %I (%s) SELECT %s FROM %I', target,
+                   array_to_string(insert_columns, ', '), array_to_string(select_columns, ', '), legacy);
+    EXECUTE format('DROP TABLE %I', legacy);
+END;
+$$ LANGUAGE plpgsql;
+
+-- transactions and fraud_alerts are range-partitioned by month on timestamp, so queries
+-- bounded by time only touch the matching partitions and retention is a partition drop.
+-- Primary keys must include the partition key.
+CREATE TABLE IF NOT EXISTS transactions (
+    transaction_id VARCHAR(255) NOT NULL,
+    customer_id VARCHAR(255) NOT NULL,
+    account_number VARCHAR(255),
+    transaction_type VARCHAR(255),
+    amount NUMERIC(15,2),
+    currency VARCHAR(255),
+    merchant_name VARCHAR(255),
+    merchant_category VARCHAR(255),
+    description VARCHAR(255),
+    status VARCHAR(255),
+    source_location VARCHAR(255),
+    timestamp TIMESTAMP(6) NOT NULL,
+    ip_address VARCHAR(255),
+    device_id VARCHAR(255),
+    is_international BOOLEAN,
+    risk_score DOUBLE PRECISION,
+    processed_at TIMESTAMP(6),
+    PRIMARY KEY (transaction_id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+CREATE TABLE IF NOT EXISTS fraud_alerts (
+    alert_id VARCHAR(255) NOT NULL,
+    customer_id VARCHAR(255) NOT NULL,
+    transaction_id VARCHAR(255) NOT NULL,
+    alert_type VARCHAR(100) NOT NULL,
+    reason VARCHAR(255) NOT NULL,
+    description VARCHAR(1000) NOT NULL,
+    severity VARCHAR(20) NOT NULL,
+    risk_score INTEGER NOT NULL,
+    amount NUMERIC(15,2),
+    timestamp TIMESTAMP(6) NOT NULL,
+    status VARCHAR(255),
+    created_at TIMESTAMP(6),
+    PRIMARY KEY (alert_id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+-- Rows outside every monthly partition land here instead of failing the insert
+CREATE TABLE IF NOT EXISTS transactions_default PARTITION OF transactions DEFAULT;
+CREATE TABLE IF NOT EXISTS fraud_alerts_default PARTITION OF fraud_alerts DEFAULT;
+
+CREATE TABLE IF NOT EXISTS customer_summaries (
+    customer_id VARCHAR(255) PRIMARY KEY,
+    total_transactions BIGINT NOT NULL,
+    total_amount NUMERIC(15,2) NOT NULL,
+    avg_amount NUMERIC(15,2) NOT NULL,
+    most_frequent_merchant_category VARCHAR(255),
+    preferred_location VARCHAR(255),
+    last_transaction_time TIMESTAMP(6),
+    avg_risk_score DOUBLE PRECISION,
+    transactions_last_1_hour BIGINT NOT NULL,
+    amount_last_1_hour NUMERIC(15,2) NOT NULL,
+    transactions_last_24_hours BIGINT NOT NULL,
+    amount_last_24_hours NUMERIC(15,2) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS transaction_metrics (
+    id UUID PRIMARY KEY,
+    metric_date DATE NOT NULL,
+    window_start TIMESTAMP(6) NOT NULL,
+    window_end TIMESTAMP(6) NOT NULL,
+    total_transactions BIGINT NOT NULL,
+    total_amount NUMERIC(15,2) NOT NULL,
+    avg_amount NUMERIC(15,2) NOT NULL,
+    transactions_by_type VARCHAR(1000) NOT NULL,
+    transactions_by_status VARCHAR(1000) NOT NULL,
+    transactions_by_location VARCHAR(4000) NOT NULL,
+    alerts_generated BIGINT NOT NULL,
+    avg_risk_score DOUBLE PRECISION NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_window_start ON transaction_metrics (window_start);
+
+-- Hourly and daily rollups of transaction_metrics
+CREATE TABLE IF NOT EXISTS transaction_metrics_rollups (
+    id UUID PRIMARY KEY,
+    resolution VARCHAR(10) NOT NULL,
+    window_start TIMESTAMP(6) NOT NULL,
+    window_end TIMESTAMP(6) NOT NULL,
+    total_transactions BIGINT NOT NULL,
+    total_amount NUMERIC(15,2) NOT NULL,
+    avg_amount NUMERIC(15,2) NOT NULL,
+    transactions_by_type VARCHAR(1000) NOT NULL,
+    transactions_by_status VARCHAR(1000) NOT NULL,
+    transactions_by_location VARCHAR(4000) NOT NULL,
+    alerts_generated BIGINT NOT NULL,
+    avg_risk_score DOUBLE PRECISION NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_rollup_resolution_window UNIQUE (resolution, window_start)
+);
+
+-- PARTITION MAINTENANCE
+-- Monthly partitions are named <table>_YYYY_MM. Both functions are idempotent and are
+-- called by PartitionMaintenanceService on a schedule.
+CREATE OR REPLACE FUNCTION create_monthly_partitions(parent_table TEXT, months_back INT, months_ahead INT)
+RETURNS INT AS $$
+DECLARE
+    month_start DATE := (date_trunc('month', CURRENT_DATE) - make_interval(months => months_back))::DATE;
+    last_month DATE := (date_trunc('month', CURRENT_DATE) + make_interval(months => months_ahead))::DATE;
+    partition_name TEXT;
+    created INT := 0;
+BEGIN
+    WHILE month_start <= last_month LOOP
+        partition_name := format('%s_%s', parent_table, to_char(month_start, 'YYYY_MM'));
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, parent_table, month_start,
+                           (month_start + INTERVAL '1 month')::DATE);
+            created := created + 1;
+        END IF;
+        month_start := (month_start + INTERVAL '1 month')::DATE;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION drop_expired_partitions(parent_table TEXT, retention_months INT)
+RETURNS INT AS $$
+DECLARE
+    cutoff DATE := (date_trunc('month', CURRENT_DATE) - make_interval(months => retention_months))::DATE;
+    expired RECORD;
+    dropped INT := 0;
+BEGIN
+    FOR expired IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = parent_table::regclass
+          AND c.relname ~ ('^' || parent_table || '_[0-9]{4}_[0-9]{2}$')
+          AND to_date(right(c.relname, 7), 'YYYY_MM') < cutoff
+    LOOP
+        EXECUTE format('DROP TABLE %I', expired.relname);
+        dropped := dropped + 1;
+    END LOOP;
+    RETURN dropped;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT create_monthly_partitions('transactions', 12, 3);
+SELECT create_monthly_partitions('fraud_alerts', 12, 3);
+
+-- Rows of the legacy tables moved aside at the top, if any. Transactions and alerts outside the
+-- monthly partitions created above land in the default partitions.
+SELECT pg_temp.copy_legacy_rows('transactions', ARRAY[
+    'transaction_type', 'type']);
+SELECT pg_temp.copy_legacy_rows('fraud_alerts', ARRAY[
+    'transaction_id', '''''',
+    'alert_type', 'reason',
+    'risk_score', '0']);
+SELECT pg_temp.copy_legacy_rows('customer_summaries', ARRAY[
+    'total_transactions', '0',
+    'total_amount', '0',
+    'avg_amount', '0',
+    'transactions_last_1_hour', '0',
+    'amount_last_1_hour', 'amount_last1_hour',
+    'amount_last_1_hour', '0',
+    'transactions_last_24_hours', 'transactions_last24_hours',
+    'transactions_last_24_hours', '0',
+    'amount_last_24_hours', 'amount_last24_hours',
+    'amount_last_24_hours', '0',
+    'updated_at', 'now()']);
+SELECT pg_temp.copy_legacy_rows('transaction_metrics', ARRAY[
+    'id', '=gen_random_uuid()',
+    'metric_date', 'window_start::date',
+    'total_transactions', '0',
+    'total_amount', '0',
+    'avg_amount', '0',
+    'transactions_by_type', '''{}''',
+    'transactions_by_status', '''{}''',
+    'transactions_by_location', '''{}''',
+    'alerts_generated', '0',
+    'avg_risk_score', '0',
+    'created_at', 'now()']);
+
+-- VIEWS
+-- customers belongs to the customer-service tables from the init script, so the alert view
+-- is only created where that table exists
+DO $$
+BEGIN
+    IF to_regclass('customers') IS NOT NULL THEN
+        EXECUTE $view$
+            CREATE OR REPLACE VIEW active_fraud_alerts AS
+            SELECT
+                fa.*,
+                t.amount AS transaction_amount,
+                t.merchant_name,
+                c.first_name,
+                c.last_name,
+                c.email
+            FROM fraud_alerts fa
+            LEFT JOIN transactions t ON fa.transaction_id = t.transaction_id
+            JOIN customers c ON fa.customer_id = c.customer_id
+            WHERE fa.status IN ('NEW', 'INVESTIGATING')
+            ORDER BY fa.created_at DESC
+        $view$;
+    END IF;
+END
+$$;
+
+CREATE OR REPLACE VIEW high_risk_customers AS
+SELECT
+    cs.*,
+    fa.alert_count
+FROM customer_summaries cs
+LEFT JOIN (
+    SELECT customer_id, COUNT(*) AS alert_count
+    FROM fraud_alerts
+    WHERE created_at >= NOW() - INTERVAL '30 days'
+    GROUP BY customer_id
+) fa ON cs.customer_id = fa.customer_id
+WHERE cs.avg_risk_score > 0.7 OR fa.alert_count > 0;
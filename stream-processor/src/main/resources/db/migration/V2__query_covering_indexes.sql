@@ -0,0 +1,26 @@
+-- Indexes shaped after the repository queries. Indexes created on the partitioned
+-- parents are created on every existing and future partition.
+
+-- TransactionRepository: count/sum per customer since a time, customer listing ordered by
+-- timestamp, and the summary lookups (merchant category, average risk) over a lookback.
+-- The INCLUDE columns let those run as index-only scans.
+CREATE INDEX IF NOT EXISTS idx_transactions_customer_timestamp
+    ON transactions (customer_id, timestamp) INCLUDE (amount, status, risk_score, merchant_category);
+
+-- countTransactionsSince / sumAmountSince: global time-range scans over append-ordered data
+CREATE INDEX IF NOT EXISTS idx_transactions_timestamp_brin
+    ON transactions USING BRIN (timestamp);
+
+-- FraudAlertRepository: per-customer alerts since a time, alerts by status newest first
+CREATE INDEX IF NOT EXISTS idx_fraud_alerts_customer_timestamp
+    ON fraud_alerts (customer_id, timestamp);
+CREATE INDEX IF NOT EXISTS idx_fraud_alerts_status_timestamp
+    ON fraud_alerts (status, timestamp);
+CREATE INDEX IF NOT EXISTS idx_fraud_alerts_timestamp_brin
+    ON fraud_alerts USING BRIN (timestamp);
+
+-- CustomerSummaryRepository: high-value and high-risk customer lookups
+CREATE INDEX IF NOT EXISTS idx_customer_summaries_total_amount
+    ON customer_summaries (total_amount);
+CREATE INDEX IF NOT EXISTS idx_customer_summaries_avg_risk_score
+    ON customer_summaries (avg_risk_score);
@@ -0,0 +1,9 @@
+-- Location and merchant breakdowns are bounded top lists (MetricsEpoch.TOP_K entries with keys of
+-- at most 64 characters), sized so a serialized list always fits its column.
+
+ALTER TABLE transaction_metrics
+    ALTER COLUMN transactions_by_location TYPE VARCHAR(4000),
+    ADD COLUMN transactions_by_merchant VARCHAR(4000) NOT NULL DEFAULT '{}';
+
+ALTER TABLE transaction_metrics_rollups
+    ADD COLUMN transactions_by_merchant VARCHAR(4000) NOT NULL DEFAULT '{}';
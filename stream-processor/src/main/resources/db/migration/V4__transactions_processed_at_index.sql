@@ -0,0 +1,4 @@
+-- TransactionDedupService: ids written since a dedup filter's last checkpoint. processed_at
+-- grows with insert order, so a BRIN index keeps the lookup to the most recent block ranges.
+CREATE INDEX IF NOT EXISTS idx_transactions_processed_at_brin
+    ON transactions USING BRIN (processed_at);
@@ -0,0 +1,13 @@
+-- LoadSheddingService: summary and metrics updates deferred under lag. A row is written in the
+-- same database transaction as the transaction it belongs to, so it only exists once that
+-- transaction commits and survives restarts and rebalances until the drain applies it.
+CREATE TABLE IF NOT EXISTS deferred_summary_updates (
+    transaction_id VARCHAR(255) PRIMARY KEY,
+    customer_id VARCHAR(255) NOT NULL,
+    payload TEXT NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    enqueued_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_deferred_summary_updates_enqueued
+    ON deferred_summary_updates (enqueued_at);
@@ -0,0 +1,128 @@
+-- ID UNIQUENESS
+-- The primary keys of the partitioned tables include the partition key, so on their own they let
+-- the same transaction_id (or alert_id) be stored again under another timestamp. Every insert also
+-- claims its id in a plain <table>_id_lookup table keyed by the id: a duplicate fails the whole
+-- database transaction, as the old single-column primary key did, and the lookup maps an id to
+-- its timestamp without probing every partition.
+CREATE TABLE IF NOT EXISTS transactions_id_lookup (
+    transaction_id VARCHAR(255) PRIMARY KEY,
+    timestamp TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS fraud_alerts_id_lookup (
+    alert_id VARCHAR(255) PRIMARY KEY,
+    timestamp TIMESTAMP(6) NOT NULL
+);
+
+INSERT INTO transactions_id_lookup (transaction_id, timestamp)
+SELECT transaction_id, MIN(timestamp) FROM transactions GROUP BY transaction_id
+ON CONFLICT DO NOTHING;
+
+INSERT INTO fraud_alerts_id_lookup (alert_id, timestamp)
+SELECT alert_id, MIN(timestamp) FROM fraud_alerts GROUP BY alert_id
+ON CONFLICT DO NOTHING;
+
+CREATE OR REPLACE FUNCTION claim_transaction_id()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO transactions_id_lookup (transaction_id, timestamp) VALUES (NEW.transaction_id, NEW.timestamp);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION claim_alert_id()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO fraud_alerts_id_lookup (alert_id, timestamp) VALUES (NEW.alert_id, NEW.timestamp);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Defined on the parents, so every current and future partition inherits them. Lookup rows are
+-- removed with their partitions by drop_expired_partitions; the application never deletes rows.
+DROP TRIGGER IF EXISTS transactions_claim_id ON transactions;
+CREATE TRIGGER transactions_claim_id AFTER INSERT ON transactions
+    FOR EACH ROW EXECUTE FUNCTION claim_transaction_id();
+
+DROP TRIGGER IF EXISTS fraud_alerts_claim_id ON fraud_alerts;
+CREATE TRIGGER fraud_alerts_claim_id AFTER INSERT ON fraud_alerts
+    FOR EACH ROW EXECUTE FUNCTION claim_alert_id();
+
+-- PARTITION MAINTENANCE
+-- Each month is created in its own subtransaction, so one failure no longer stops the months
+-- after it. A month whose rows already landed in the default partition (e.g. replayed history)
+-- is built as a plain table, the rows are moved into it and it is attached: creating it directly
+-- would fail because the default partition holds rows for its range. Failed months are reported
+-- with a warning and picked up by PartitionMaintenanceService's missing-partition check.
+CREATE OR REPLACE FUNCTION create_monthly_partitions(parent_table TEXT, months_back INT, months_ahead INT)
+RETURNS INT AS $$
+DECLARE
+    month_start DATE := (date_trunc('month', CURRENT_DATE) - make_interval(months => months_back))::DATE;
+    last_month DATE := (date_trunc('month', CURRENT_DATE) + make_interval(months => months_ahead))::DATE;
+    month_end DATE;
+    default_name TEXT := parent_table || '_default';
+    partition_name TEXT;
+    has_default_rows BOOLEAN;
+    created INT := 0;
+BEGIN
+    WHILE month_start <= last_month LOOP
+        month_end := (month_start + INTERVAL '1 month')::DATE;
+        partition_name := format('%s_%s', parent_table, to_char(month_start, 'YYYY_MM'));
+        IF to_regclass(partition_name) IS NULL THEN
+            BEGIN
+                EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE timestamp >= %L AND timestamp < %L)',
+                               default_name, month_start, month_end) INTO has_default_rows;
+                IF has_default_rows THEN
+                    EXECUTE format('LOCK TABLE %I IN ACCESS EXCLUSIVE MODE', default_name);
+                    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS)',
+                                   partition_name, parent_table);
+                    EXECUTE format('WITH moved AS (DELETE FROM %I WHERE timestamp >= %L AND timestamp < %L RETURNING *) '
+                                   'INSERT INTO %I SELECT * FROM moved',
+                                   default_name, month_start, month_end, partition_name);
+                    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                                   parent_table, partition_name, month_start, month_end);
+                ELSE
+                    EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                                   partition_name, parent_table, month_start, month_end);
+                END IF;
+                created := created + 1;
+            EXCEPTION WHEN OTHERS THEN
+                RAISE WARNING 'Could not create partition %: %', partition_name, SQLERRM;
+            END;
+        END IF;
+        month_start := month_end;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Also removes the expired ids from the lookup table and expired rows that sit in the default
+-- partition, which no monthly drop would ever reach
+CREATE OR REPLACE FUNCTION drop_expired_partitions(parent_table TEXT, retention_months INT)
+RETURNS INT AS $$
+DECLARE
+    cutoff DATE := (date_trunc('month', CURRENT_DATE) - make_interval(months => retention_months))::DATE;
+    expired RECORD;
+    dropped INT := 0;
+BEGIN
+    FOR expired IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = parent_table::regclass
+          AND c.relname ~ ('^' || parent_table || '_[0-9]{4}_[0-9]{2}$')
+          AND to_date(right(c.relname, 7), 'YYYY_MM') < cutoff
+    LOOP
+        EXECUTE format('DROP TABLE %I', expired.relname);
+        dropped := dropped + 1;
+    END LOOP;
+
+    IF to_regclass(parent_table || '_default') IS NOT NULL THEN
+        EXECUTE format('DELETE FROM %I WHERE timestamp < %L', parent_table || '_default', cutoff);
+    END IF;
+    IF to_regclass(parent_table || '_id_lookup') IS NOT NULL THEN
+        EXECUTE format('DELETE FROM %I WHERE timestamp < %L', parent_table || '_id_lookup', cutoff);
+    END IF;
+    RETURN dropped;
+END;
+$$ LANGUAGE plpgsql;
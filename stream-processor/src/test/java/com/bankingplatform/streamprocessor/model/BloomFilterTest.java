@@ -0,0 +1,68 @@
+package com.bankingplatform.streamprocessor.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    // m = -n ln p / (ln 2)^2 bits and k = m/n ln 2 hashes
+    @ParameterizedTest
+    @CsvSource({
+            "1000, 0.01, 1199, 7",
+            "200000, 0.001, 359440, 10",
+            "1000000, 0.1, 599067, 3"
+    })
+    void sizesForTheExpectedInsertionsAndRate(long expected, double rate, int bytes, int hashes) {
+        assertThat(BloomFilter.optimalBytes(expected, rate)).isEqualTo(bytes);
+        assertThat(BloomFilter.optimalHashes(expected, bytes)).isEqualTo(hashes);
+    }
+
+    @Test
+    void neverSizesBelowOneWordOrOneHash() {
+        assertThat(BloomFilter.optimalBytes(1, 0.5)).isEqualTo(8);
+        assertThat(BloomFilter.optimalHashes(1_000_000, 8)).isEqualTo(1);
+    }
+
+    @Test
+    void hasNoFalseNegatives() {
+        byte[] bits = new byte[BloomFilter.optimalBytes(10_000, 0.01)];
+        int hashes = BloomFilter.optimalHashes(10_000, bits.length);
+        for (int i = 0; i < 10_000; i++) {
+            BloomFilter.add(bits, hashes, "TXN-" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(BloomFilter.mightContain(bits, hashes, "TXN-" + i)).isTrue();
+        }
+    }
+
+    // At the expected load, 100k probes put the observed rate within a few tenths of a percent
+    @ParameterizedTest
+    @CsvSource({"10000, 0.01", "50000, 0.001"})
+    void falsePositiveRateStaysNearTheTargetAtTheExpectedLoad(int expected, double rate) {
+        byte[] bits = new byte[BloomFilter.optimalBytes(expected, rate)];
+        int hashes = BloomFilter.optimalHashes(expected, bits.length);
+        for (int i = 0; i < expected; i++) {
+            BloomFilter.add(bits, hashes, "TXN-" + i);
+        }
+
+        int probes = 100_000;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (BloomFilter.mightContain(bits, hashes, "OTHER-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat((double) falsePositives / probes).isLessThan(rate * 1.5);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        byte[] bits = new byte[BloomFilter.optimalBytes(100, 0.01)];
+
+        assertThat(BloomFilter.mightContain(bits, 7, "TXN-1")).isFalse();
+    }
+}
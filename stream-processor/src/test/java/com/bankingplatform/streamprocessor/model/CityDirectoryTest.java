@@ -0,0 +1,31 @@
+package com.bankingplatform.streamprocessor.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CityDirectoryTest {
+
+    @Test
+    void resolvesNamesIgnoringCaseAndSpaces() {
+        assertThat(CityDirectory.idOf(" casablanca ")).isEqualTo(CityDirectory.idOf("Casablanca")).isNotNegative();
+        assertThat(CityDirectory.nameOf(CityDirectory.idOf("RABAT"))).isEqualTo("Rabat");
+        assertThat(CityDirectory.idOf("Paris")).isEqualTo(-1);
+        assertThat(CityDirectory.idOf(null)).isEqualTo(-1);
+        assertThat(CityDirectory.nameOf(CityDirectory.size())).isNull();
+    }
+
+    @Test
+    void distancesMatchTheGreatCircle() {
+        int casablanca = CityDirectory.idOf("Casablanca");
+        int rabat = CityDirectory.idOf("Rabat");
+        int oujda = CityDirectory.idOf("Oujda");
+
+        assertThat(CityDirectory.distanceKm(casablanca, rabat)).isCloseTo(87, within(3.0));
+        assertThat(CityDirectory.distanceKm(casablanca, oujda)).isCloseTo(537, within(5.0));
+        assertThat(CityDirectory.distanceKm(rabat, casablanca))
+                .isEqualTo(CityDirectory.distanceKm(casablanca, rabat));
+        assertThat(CityDirectory.distanceKm(rabat, rabat)).isZero();
+    }
+}
@@ -0,0 +1,57 @@
+package com.bankingplatform.streamprocessor.model;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+class HyperLogLogTest {
+
+    // 1.04 / sqrt(REGISTERS), about 9.2% with 128 registers
+    private static final double STANDARD_ERROR = 1.04 / Math.sqrt(HyperLogLog.REGISTERS);
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 10_000, 100_000})
+    void estimateStaysWithinThreeStandardErrors(int cardinality) {
+        byte[] registers = new byte[HyperLogLog.REGISTERS];
+        for (int i = 0; i < cardinality; i++) {
+            HyperLogLog.add(registers, "device-" + i);
+        }
+
+        assertThat(HyperLogLog.estimate(toInts(registers)))
+                .isCloseTo(cardinality, within(3 * STANDARD_ERROR * cardinality));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 20})
+    void smallCardinalitiesAreNearlyExact(int cardinality) {
+        byte[] registers = new byte[HyperLogLog.REGISTERS];
+        for (int i = 0; i < cardinality; i++) {
+            HyperLogLog.add(registers, "ip-" + i);
+            // Repeats never change the sketch
+            HyperLogLog.add(registers, "ip-" + i);
+        }
+
+        // Linear counting: about 6% standard error at 20 values, far less below
+        assertThat(HyperLogLog.estimate(toInts(registers))).isCloseTo(cardinality, withinPercentage(20));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "a", "device-1"})
+    void rankCountsTheBitsAfterTheIndex(String value) {
+        long hash = HyperLogLog.hash(value);
+
+        assertThat(HyperLogLog.index(hash)).isBetween(0, HyperLogLog.REGISTERS - 1);
+        assertThat(HyperLogLog.rank(hash)).isBetween((byte) 1, (byte) (64 - HyperLogLog.PRECISION + 1));
+    }
+
+    private static int[] toInts(byte[] registers) {
+        int[] values = new int[registers.length];
+        for (int i = 0; i < registers.length; i++) {
+            values[i] = registers[i];
+        }
+        return values;
+    }
+}
@@ -0,0 +1,75 @@
+package com.bankingplatform.streamprocessor.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LocationHistoryTest {
+
+    private static final long HALF_LIFE = 1_000_000L;
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void weightsHalveAfterOneHalfLife() {
+        LocationHistory history = new LocationHistory();
+        history.record(0, START, HALF_LIFE);
+        history.record(0, START, HALF_LIFE);
+
+        history.record(1, START + HALF_LIFE, HALF_LIFE);
+
+        // 2 decayed to 1, plus the new visit
+        assertThat(history.totalWeight()).isCloseTo(2.0, within(1e-4));
+        assertThat(history.getDecayedTo()).isEqualTo(START + HALF_LIFE);
+    }
+
+    @Test
+    void outOfOrderEventsDoNotDecayBackwards() {
+        LocationHistory history = new LocationHistory();
+        history.record(0, START + HALF_LIFE, HALF_LIFE);
+        history.record(1, START, HALF_LIFE);
+
+        assertThat(history.totalWeight()).isCloseTo(2.0, within(1e-6));
+        assertThat(history.getDecayedTo()).isEqualTo(START + HALF_LIFE);
+    }
+
+    @Test
+    void recentCitiesOutrankOldHabits() {
+        LocationHistory history = new LocationHistory();
+        for (int i = 0; i < 10; i++) {
+            history.record(0, START, HALF_LIFE);
+        }
+        // Ten half-lives later the ten old visits weigh about 0.01
+        long later = START + 10 * HALF_LIFE;
+        history.record(1, later, HALF_LIFE);
+
+        assertThat(history.isAmongTop(1, 1)).isTrue();
+        assertThat(history.isAmongTop(0, 1)).isFalse();
+        assertThat(history.isAmongTop(0, 2)).isTrue();
+    }
+
+    @Test
+    void newCityReplacesTheLightestSlotWhenFull() {
+        LocationHistory history = new LocationHistory();
+        for (int city = 0; city < LocationHistory.SLOTS; city++) {
+            // City 0 is visited once, every other city twice
+            history.record(city, START, HALF_LIFE);
+            if (city > 0) {
+                history.record(city, START, HALF_LIFE);
+            }
+        }
+
+        history.record(42, START, HALF_LIFE);
+
+        assertThat(history.getCityIds()).contains(42).doesNotContain(0);
+        assertThat(history.isAmongTop(0, LocationHistory.SLOTS)).isFalse();
+    }
+
+    @Test
+    void unknownCityIsNeverFamiliar() {
+        LocationHistory history = new LocationHistory();
+        history.record(0, START, HALF_LIFE);
+
+        assertThat(history.isAmongTop(3, LocationHistory.SLOTS)).isFalse();
+    }
+}
@@ -0,0 +1,79 @@
+package com.bankingplatform.streamprocessor.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RollingDistinctCountTest {
+
+    private static final long BUCKET = 60_000L;
+    private static final long START = 1_700_000_040_000L - Math.floorMod(1_700_000_040_000L, BUCKET);
+
+    @Test
+    void countsDistinctValuesAcrossTheWindow() {
+        RollingDistinctCount count = new RollingDistinctCount();
+        for (int b = 0; b < RollingDistinctCount.BUCKETS; b++) {
+            count.add("device-" + b, START + b * BUCKET, BUCKET);
+            count.add("device-shared", START + b * BUCKET, BUCKET);
+        }
+
+        long now = START + (RollingDistinctCount.BUCKETS - 1) * BUCKET;
+        assertThat(count.estimateWith(null, now)).isCloseTo(RollingDistinctCount.BUCKETS + 1, within(0.5));
+    }
+
+    @Test
+    void valuesOlderThanTheWindowDropOut() {
+        RollingDistinctCount count = new RollingDistinctCount();
+        count.add("old", START, BUCKET);
+        long now = START + RollingDistinctCount.BUCKETS * BUCKET;
+        count.add("new", now, BUCKET);
+
+        // The oldest bucket's slot was reused for the new sub-window
+        assertThat(count.estimateWith(null, now)).isCloseTo(1, within(0.5));
+        // Before it was reused, a query at the later time still ignores the expired bucket
+        RollingDistinctCount untouched = new RollingDistinctCount();
+        untouched.add("old", START, BUCKET);
+        assertThat(untouched.estimateWith(null, now)).isZero();
+    }
+
+    @Test
+    void lateEventsForARecycledSlotAreIgnored() {
+        RollingDistinctCount count = new RollingDistinctCount();
+        long now = START + RollingDistinctCount.BUCKETS * BUCKET;
+        count.add("new", now, BUCKET);
+
+        count.add("late", START, BUCKET);
+
+        assertThat(count.estimateWith(null, now)).isCloseTo(1, within(0.5));
+    }
+
+    @Test
+    void estimateWithExtraDoesNotModifyTheSketch() {
+        RollingDistinctCount count = new RollingDistinctCount();
+        count.add("a", START, BUCKET);
+
+        assertThat(count.estimateWith("b", START)).isCloseTo(2, within(0.5));
+        assertThat(count.estimateWith("a", START)).isCloseTo(1, within(0.5));
+        assertThat(count.estimateWith(null, START)).isCloseTo(1, within(0.5));
+    }
+
+    @Test
+    void changingTheBucketWidthStartsOver() {
+        RollingDistinctCount count = new RollingDistinctCount();
+        count.add("a", START, BUCKET);
+
+        count.add("b", START, 2 * BUCKET);
+
+        assertThat(count.estimateWith(null, START)).isCloseTo(1, within(0.5));
+        assertThat(count.getBucketMillis()).isEqualTo(2 * BUCKET);
+    }
+
+    @Test
+    void emptySketchCountsOnlyTheExtraValue() {
+        RollingDistinctCount count = new RollingDistinctCount();
+
+        assertThat(count.estimateWith(null, START)).isZero();
+        assertThat(count.estimateWith("a", START)).isEqualTo(1.0);
+    }
+}
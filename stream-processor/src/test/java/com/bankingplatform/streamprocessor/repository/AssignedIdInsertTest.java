@@ -0,0 +1,130 @@
+package com.bankingplatform.streamprocessor.repository;
+
+import com.bankingplatform.streamprocessor.entity.FraudAlertEntity;
+import com.bankingplatform.streamprocessor.entity.TransactionEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Entities with ids assigned by the application are inserted without a select per row, and a
+// loaded entity is still updated rather than inserted again. Skipped when Docker is not available.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.bankingplatform.streamprocessor.repository.AssignedIdInsertTest$CapturingInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class AssignedIdInsertTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @SpringBootConfiguration
+    @EntityScan(basePackageClasses = TransactionEntity.class)
+    @EnableJpaRepositories(basePackageClasses = TransactionRepository.class)
+    static class RepositoryConfig {
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private FraudAlertRepository fraudAlertRepository;
+
+    @BeforeEach
+    void clearCaptured() {
+        CapturingInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void saveAllInsertsWithoutSelectingEachId() {
+        transactionRepository.saveAll(List.of(transaction("TXN-1"), transaction("TXN-2")));
+        fraudAlertRepository.saveAll(List.of(alert("ALERT-1", "TXN-1")));
+        transactionRepository.flush();
+
+        assertThat(CapturingInspector.STATEMENTS)
+                .noneMatch(sql -> sql.stripLeading().toLowerCase().startsWith("select"))
+                .anyMatch(sql -> sql.toLowerCase().contains("insert into transactions"))
+                .anyMatch(sql -> sql.toLowerCase().contains("insert into fraud_alerts"));
+    }
+
+    @Test
+    void loadedEntityIsUpdated() {
+        fraudAlertRepository.saveAndFlush(alert("ALERT-2", "TXN-3"));
+        FraudAlertEntity loaded = fraudAlertRepository.findById("ALERT-2").orElseThrow();
+        assertThat(loaded.isNew()).isFalse();
+
+        loaded.setStatus(FraudAlertEntity.AlertStatus.RESOLVED);
+        fraudAlertRepository.saveAndFlush(loaded);
+
+        assertThat(CapturingInspector.STATEMENTS)
+                .anyMatch(sql -> sql.toLowerCase().contains("update fraud_alerts"));
+    }
+
+    @Test
+    void persistenceStateIsNotSerialized() throws Exception {
+        String json = new ObjectMapper().findAndRegisterModules().writeValueAsString(transaction("TXN-4"));
+
+        assertThat(json).contains("\"transactionId\"").doesNotContain("\"new\"").doesNotContain("\"id\"");
+    }
+
+    private static TransactionEntity transaction(String id) {
+        return TransactionEntity.builder()
+                .transactionId(id)
+                .customerId("CUST-1")
+                .amount(new BigDecimal("10.00"))
+                .timestamp(LocalDateTime.now())
+                .processedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static FraudAlertEntity alert(String id, String transactionId) {
+        return FraudAlertEntity.builder()
+                .alertId(id)
+                .customerId("CUST-1")
+                .transactionId(transactionId)
+                .alertType("HIGH_AMOUNT")
+                .reason(FraudAlertEntity.FraudReason.HIGH_AMOUNT)
+                .description("test")
+                .severity("HIGH")
+                .riskScore(90)
+                .timestamp(LocalDateTime.now())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
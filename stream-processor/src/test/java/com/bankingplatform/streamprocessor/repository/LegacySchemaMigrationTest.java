@@ -0,0 +1,126 @@
+package com.bankingplatform.streamprocessor.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Migrates a database built by the old shared init script, with rows in every table the
+// stream-processor took over, the way an existing deployment is upgraded. Skipped when Docker is
+// not available.
+@Testcontainers(disabledWithoutDocker = true)
+class LegacySchemaMigrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @BeforeAll
+    static void buildLegacyDatabase() throws Exception {
+        execute("CREATE ROLE banking_user");
+        execute(resource("/db/legacy/01-init-banking.sql"));
+        execute("""
+                INSERT INTO customers (customer_id, first_name, last_name, email) VALUES ('C1', 'A', 'B', 'a@b.c');
+                INSERT INTO accounts (account_number, customer_id, account_type) VALUES ('ACC1', 'C1', 'CHECKING');
+                INSERT INTO transactions (transaction_id, account_number, customer_id, type, amount, timestamp, risk_score)
+                VALUES ('T-OLD', 'ACC1', 'C1', 'PURCHASE', 10.50, now() - INTERVAL '3 years', 0.1),
+                       ('T-NOW', 'ACC1', 'C1', 'TRANSFER', 99.00, now(), 0.9);
+                INSERT INTO fraud_alerts (alert_id, transaction_id, customer_id, reason, description, severity, timestamp)
+                VALUES ('A1', 'T-NOW', 'C1', 'HIGH_AMOUNT', 'big', 'HIGH', now());
+                INSERT INTO customer_summaries (customer_id, total_transactions, total_amount, amount_last1_hour)
+                VALUES ('C1', 2, 109.50, 99.00);
+                INSERT INTO transaction_metrics (window_start, window_end, total_transactions, transactions_by_type)
+                VALUES (date_trunc('minute', now()), date_trunc('minute', now()) + INTERVAL '1 minute', 2, '{"PURCHASE":1}');
+                """);
+
+        Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+    }
+
+    @Test
+    void transactionsAreMovedIntoThePartitionedTable() throws SQLException {
+        assertThat(query("SELECT relkind FROM pg_class WHERE relname = 'transactions'")).containsExactly("p");
+        assertThat(query("SELECT transaction_id || ':' || transaction_type || ':' || amount FROM transactions " +
+                "ORDER BY transaction_id"))
+                .containsExactly("T-NOW:TRANSFER:99.00", "T-OLD:PURCHASE:10.50");
+        // Three years back is before the monthly partitions created on migration
+        assertThat(query("SELECT tableoid::regclass::text FROM transactions WHERE transaction_id = 'T-OLD'"))
+                .containsExactly("transactions_default");
+        assertThat(query("SELECT transaction_id FROM transactions_id_lookup ORDER BY transaction_id"))
+                .containsExactly("T-NOW", "T-OLD");
+    }
+
+    @Test
+    void alertsSummariesAndMetricsAreCopiedIntoTheNewColumns() throws SQLException {
+        assertThat(query("SELECT alert_type || ':' || risk_score || ':' || severity FROM fraud_alerts"))
+                .containsExactly("HIGH_AMOUNT:0:HIGH");
+        assertThat(query("SELECT total_transactions || ':' || amount_last_1_hour FROM customer_summaries"))
+                .containsExactly("2:99.00");
+        assertThat(query("SELECT metric_date = window_start::date AND transactions_by_status = '{}' " +
+                "FROM transaction_metrics"))
+                .containsExactly("t");
+    }
+
+    @Test
+    void legacyTablesAreDroppedAndViewsRecreated() throws SQLException {
+        assertThat(query("SELECT relname FROM pg_class WHERE relname LIKE '%\\_legacy%'")).isEmpty();
+        assertThat(query("SELECT viewname FROM pg_views WHERE schemaname = 'public'"))
+                .contains("active_fraud_alerts", "high_risk_customers");
+        assertThat(query("SELECT count(*) FROM active_fraud_alerts")).containsExactly("1");
+    }
+
+    @Test
+    void duplicateIdIsRejectedInAnotherPartition() {
+        assertThatThrownBy(() -> execute("INSERT INTO transactions (transaction_id, customer_id, timestamp) " +
+                "VALUES ('T-OLD', 'C1', now())"))
+                .isInstanceOf(SQLException.class)
+                .hasMessageContaining("transactions_id_lookup_pkey");
+    }
+
+    private static void execute(String sql) throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static List<String> query(String sql) throws SQLException {
+        try (Connection connection = connect();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            List<String> rows = new ArrayList<>();
+            while (rs.next()) {
+                rows.add(rs.getString(1));
+            }
+            return rows;
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+    }
+
+    private static String resource(String path) throws IOException {
+        try (InputStream in = LegacySchemaMigrationTest.class.getResourceAsStream(path)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.bankingplatform.streamprocessor.repository;
+
+import com.bankingplatform.streamprocessor.entity.FraudAlertEntity;
+import com.bankingplatform.streamprocessor.entity.TransactionEntity;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Named;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs the hot repository queries against a PostgreSQL migrated by Flyway, captures the SQL
+// Hibernate sends and checks that each statement can be answered from an index. Sequential scans
+// are disabled for the session, so the planner only picks one when no index applies. Plans are
+// generic (EXPLAIN (GENERIC_PLAN), PostgreSQL 16), as the application runs them with bound
+// parameters. Skipped when Docker is not available.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.bankingplatform.streamprocessor.repository.RepositoryQueryPlanTest$CapturingInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class RepositoryQueryPlanTest {
+
+    private static final Pattern PARAMETER = Pattern.compile("\\?");
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    // The repositories and entities only; the application class would also start Kafka Streams
+    @SpringBootConfiguration
+    @EntityScan(basePackageClasses = TransactionEntity.class)
+    @EnableJpaRepositories(basePackageClasses = TransactionRepository.class)
+    static class RepositoryConfig {
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    record Repositories(TransactionRepository transactions, FraudAlertRepository alerts) {
+    }
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private FraudAlertRepository fraudAlertRepository;
+
+    @BeforeEach
+    void clearCaptured() {
+        CapturingInspector.STATEMENTS.clear();
+    }
+
+    static Stream<Named<Consumer<Repositories>>> hotQueries() {
+        String customer = "CUST-1";
+        LocalDateTime since = LocalDateTime.now().minusDays(1);
+        return Stream.of(
+                Named.of("TransactionRepository.findByCustomerIdAndTimestampAfterOrderByTimestampDesc",
+                        r -> r.transactions().findByCustomerIdAndTimestampAfterOrderByTimestampDesc(
+                                customer, since, PageRequest.of(0, 50))),
+                Named.of("TransactionRepository.findByCustomerIdAndTimestampBetween",
+                        r -> r.transactions().findByCustomerIdAndTimestampBetween(
+                                customer, since, LocalDateTime.now())),
+                Named.of("TransactionRepository.countByCustomerIdAndTimestampAfter",
+                        r -> r.transactions().countByCustomerIdAndTimestampAfter(customer, since)),
+                Named.of("TransactionRepository.sumAmountByCustomerIdAndTimestampAfter",
+                        r -> r.transactions().sumAmountByCustomerIdAndTimestampAfter(customer, since)),
+                Named.of("TransactionRepository.findMostFrequentMerchantCategoryByCustomerId",
+                        r -> r.transactions().findMostFrequentMerchantCategoryByCustomerId(customer, since)),
+                Named.of("TransactionRepository.findAvgRiskScoreByCustomerId",
+                        r -> r.transactions().findAvgRiskScoreByCustomerId(customer, since)),
+                Named.of("TransactionRepository.findExistingTransactionIds",
+                        r -> r.transactions().findExistingTransactionIds(List.of("TXN-1", "TXN-2"))),
+                Named.of("TransactionRepository.countTransactionsSince",
+                        r -> r.transactions().countTransactionsSince(since)),
+                Named.of("FraudAlertRepository.findByCustomerIdAndTimestampAfterOrderByTimestampDesc",
+                        r -> r.alerts().findByCustomerIdAndTimestampAfterOrderByTimestampDesc(customer, since)),
+                Named.of("FraudAlertRepository.findByStatusOrderByTimestampDesc",
+                        r -> r.alerts().findByStatusOrderByTimestampDesc(FraudAlertEntity.AlertStatus.NEW)),
+                Named.of("FraudAlertRepository.countByCustomerIdAndTimestampAfter",
+                        r -> r.alerts().countByCustomerIdAndTimestampAfter(customer, since)),
+                Named.of("FraudAlertRepository.countAlertsSince",
+                        r -> r.alerts().countAlertsSince(since))
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("hotQueries")
+    void queryDoesNotFallBackToSequentialScan(Consumer<Repositories> query) throws SQLException {
+        query.accept(new Repositories(transactionRepository, fraudAlertRepository));
+
+        List<String> selects = CapturingInspector.STATEMENTS.stream()
+                .filter(sql -> sql.stripLeading().toLowerCase().startsWith("select"))
+                .toList();
+        assertThat(selects).isNotEmpty();
+
+        for (String sql : selects) {
+            List<String> plan = explain(sql);
+            assertThat(plan)
+                    .as("Plan for %s%n%s", sql, String.join("\n", plan))
+                    .noneMatch(line -> line.contains("Seq Scan"));
+        }
+    }
+
+    private List<String> explain(String sql) throws SQLException {
+        AtomicInteger index = new AtomicInteger();
+        String numbered = PARAMETER.matcher(sql).replaceAll(match -> "\\$" + index.incrementAndGet());
+
+        // Simple query protocol: the driver would otherwise expect values for the $n placeholders
+        Properties properties = new Properties();
+        properties.setProperty("user", POSTGRES.getUsername());
+        properties.setProperty("password", POSTGRES.getPassword());
+        properties.setProperty("preferQueryMode", "simple");
+
+        try (Connection connection = DriverManager.getConnection(POSTGRES.getJdbcUrl(), properties);
+             Statement statement = connection.createStatement()) {
+            statement.execute("SET enable_seqscan = off");
+            List<String> plan = new ArrayList<>();
+            try (ResultSet rs = statement.executeQuery("EXPLAIN (GENERIC_PLAN) " + numbered)) {
+                while (rs.next()) {
+                    plan.add(rs.getString(1));
+                }
+            }
+            return plan;
+        }
+    }
+}
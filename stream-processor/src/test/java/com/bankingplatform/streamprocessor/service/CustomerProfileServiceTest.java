@@ -0,0 +1,24 @@
+package com.bankingplatform.streamprocessor.service;
+
+import com.bankingplatform.common.event.Transaction;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerProfileServiceTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"1969-12-31T23:59:59.999", "2026-01-01T00:00:00", "2026-03-29T02:30:00.123",
+            "2026-10-25T02:30:00", "2026-07-14T12:34:56.789999"})
+    void eventMillisMatchesTheZonedConversion(String timestamp) {
+        LocalDateTime local = LocalDateTime.parse(timestamp);
+        Transaction transaction = Transaction.builder().timestamp(local).build();
+
+        assertThat(CustomerProfileService.eventMillis(transaction))
+                .isEqualTo(local.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+}
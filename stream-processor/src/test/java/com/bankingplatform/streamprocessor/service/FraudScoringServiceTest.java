@@ -0,0 +1,167 @@
+package com.bankingplatform.streamprocessor.service;
+
+import com.bankingplatform.common.event.Transaction;
+import com.bankingplatform.streamprocessor.model.CityDirectory;
+import com.bankingplatform.streamprocessor.model.CustomerProfile;
+import com.bankingplatform.streamprocessor.model.TransactionContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class FraudScoringServiceTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 3, 14, 12, 0);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void newCustomerGetsOnlyTransactionFeatures() {
+        double[] vector = extract(transaction(new BigDecimal("500.00"), NOON.withHour(23)), null);
+
+        assertThat(vector).containsExactly(
+                new double[]{Math.log1p(500), 0, 1, 1, 0, 1, 0, 1}, within(1e-9));
+    }
+
+    @Test
+    void amountZScoreUsesTheStandardDeviationFloor() {
+        CustomerProfile profile = new CustomerProfile();
+        // Constant amounts: without the floor any change would be an infinite z-score
+        for (int i = 0; i < FraudDetectionService.MIN_AMOUNT_HISTORY; i++) {
+            profile.getAmounts().add(100);
+        }
+
+        double[] vector = extract(transaction(new BigDecimal("110.00"), NOON), profile);
+
+        // Floor is 5% of the mean of 100
+        assertThat(vector[1]).isCloseTo(2.0, within(1e-9));
+        assertThat(vector[5]).isZero();
+    }
+
+    @Test
+    void amountZScoreIsClamped() {
+        CustomerProfile profile = new CustomerProfile();
+        for (int i = 0; i < FraudDetectionService.MIN_AMOUNT_HISTORY; i++) {
+            profile.getAmounts().add(100);
+        }
+
+        assertThat(extract(transaction(new BigDecimal("100000.00"), NOON), profile)[1]).isEqualTo(10.0);
+    }
+
+    @Test
+    void unfamiliarCityAndTimeSinceLastAreTakenFromTheProfile() {
+        CustomerProfile profile = new CustomerProfile();
+        long noonMillis = NOON.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        for (int i = 0; i < 10; i++) {
+            profile.getLocations().record(CityDirectory.idOf("Casablanca"), noonMillis, 86_400_000L);
+        }
+        profile.setLastSeenMillis(noonMillis - 3 * 3_600_000L);
+
+        Transaction transaction = transaction(new BigDecimal("42.00"), NOON);
+        transaction.setSourceLocation("Oujda");
+        double[] vector = extract(transaction, profile);
+
+        assertThat(vector[4]).isEqualTo(1.0);
+        assertThat(vector[6]).isCloseTo(Math.log1p(3.0), within(1e-9));
+        assertThat(vector[7]).isZero();
+    }
+
+    @Test
+    void loadsWeightsByFeatureName() throws IOException {
+        FraudScoringService scoring = service(writeModel("""
+                {"version": "v2", "intercept": 0.0, "weights": {"international": 2.0}}
+                """));
+
+        assertThat(scoring.modelVersion()).isEqualTo("v2");
+        Transaction domestic = transaction(new BigDecimal("1.00"), NOON);
+        domestic.setIsInternational(false);
+        Transaction international = transaction(new BigDecimal("1.00"), NOON);
+        assertThat(scoring.score(domestic, TransactionContext.empty())).isCloseTo(0.5, within(1e-9));
+        assertThat(scoring.score(international, TransactionContext.empty()))
+                .isCloseTo(1 / (1 + Math.exp(-2.0)), within(1e-9));
+    }
+
+    @Test
+    void rejectsUnknownFeatureNames() throws IOException {
+        Path model = writeModel("""
+                {"version": "typo", "weights": {"log_amonut": 0.35}}
+                """);
+
+        assertThatThrownBy(() -> service(model))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("log_amonut");
+    }
+
+    @Test
+    void reloadKeepsTheCurrentModelWhenTheNewOneIsInvalid() throws IOException {
+        Path model = writeModel("""
+                {"version": "v1", "weights": {}}
+                """);
+        FraudScoringService scoring = service(model);
+
+        Files.writeString(model, """
+                {"version": "v2", "weights": {"unknown": 1}}
+                """);
+        Files.setLastModifiedTime(model, FileTime.from(Instant.now().plusSeconds(60)));
+        scoring.reloadIfChanged();
+        assertThat(scoring.modelVersion()).isEqualTo("v1");
+
+        Files.writeString(model, """
+                {"version": "v3", "weights": {"night": 1}}
+                """);
+        Files.setLastModifiedTime(model, FileTime.from(Instant.now().plusSeconds(120)));
+        scoring.reloadIfChanged();
+        assertThat(scoring.modelVersion()).isEqualTo("v3");
+    }
+
+    @Test
+    void bundledModelNamesOnlyKnownFeatures() throws IOException {
+        FraudScoringService scoring = new FraudScoringService(new DefaultResourceLoader(), new ObjectMapper());
+        ReflectionTestUtils.setField(scoring, "modelLocation", "classpath:fraud-model.json");
+        scoring.init();
+
+        assertThat(scoring.modelVersion()).isEqualTo("baseline-1");
+    }
+
+    private static double[] extract(Transaction transaction, CustomerProfile profile) {
+        double[] vector = new double[FraudScoringService.FEATURES.length];
+        FraudScoringService.extractFeatures(transaction, TransactionContext.builder().profile(profile).build(), vector);
+        return vector;
+    }
+
+    private static Transaction transaction(BigDecimal amount, LocalDateTime timestamp) {
+        return Transaction.builder()
+                .transactionId("TXN-1")
+                .customerId("CUST-1")
+                .amount(amount)
+                .timestamp(timestamp)
+                .isInternational(true)
+                .build();
+    }
+
+    private Path writeModel(String json) throws IOException {
+        return Files.writeString(dir.resolve("fraud-model.json"), json);
+    }
+
+    private FraudScoringService service(Path model) throws IOException {
+        FraudScoringService scoring = new FraudScoringService(new DefaultResourceLoader(), new ObjectMapper());
+        ReflectionTestUtils.setField(scoring, "modelLocation", model.toUri().toString());
+        scoring.init();
+        return scoring;
+    }
+}
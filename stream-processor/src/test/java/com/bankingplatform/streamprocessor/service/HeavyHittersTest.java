@@ -0,0 +1,90 @@
+package com.bankingplatform.streamprocessor.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HeavyHittersTest {
+
+    @Test
+    void reportsTheHeaviestKeysLargestFirst() {
+        HeavyHitters hitters = new HeavyHitters(3);
+        add(hitters, "Casablanca", 50);
+        add(hitters, "Rabat", 30);
+        add(hitters, "Fez", 20);
+        add(hitters, "Agadir", 5);
+
+        assertThat(hitters.top()).containsExactly(
+                Map.entry("Casablanca", 50L), Map.entry("Rabat", 30L), Map.entry("Fez", 20L));
+    }
+
+    // Many distinct light keys around a few heavy ones: the candidate set is trimmed back to the
+    // top K whenever it passes 2·K, and the heavy keys survive every trim
+    @Test
+    void candidateSetIsCappedAtTwiceTopK() {
+        int topK = 5;
+        HeavyHitters hitters = new HeavyHitters(topK);
+        Random random = new Random(7);
+        Map<String, Long> exact = new HashMap<>();
+
+        for (int i = 0; i < 50_000; i++) {
+            String key = random.nextInt(10) < 3
+                    ? "heavy-" + random.nextInt(topK)
+                    : "light-" + random.nextInt(20_000);
+            hitters.add(key);
+            exact.merge(key, 1L, Long::sum);
+            assertThat(hitters.candidateCount()).isLessThanOrEqualTo(2 * topK);
+        }
+
+        Map<String, Long> top = hitters.top();
+        assertThat(top.keySet()).containsExactlyInAnyOrder(
+                "heavy-0", "heavy-1", "heavy-2", "heavy-3", "heavy-4");
+        // Count-Min only overcounts
+        top.forEach((key, estimate) -> assertThat(estimate).isGreaterThanOrEqualTo(exact.get(key)));
+    }
+
+    @Test
+    void keyThatBecomesHeavyLaterIsAdmitted() {
+        HeavyHitters hitters = new HeavyHitters(2);
+        add(hitters, "a", 10);
+        add(hitters, "b", 10);
+        for (int i = 0; i < 10; i++) {
+            hitters.add("noise-" + i);
+        }
+
+        add(hitters, "late", 20);
+
+        assertThat(hitters.top()).containsKey("late").hasSize(2);
+    }
+
+    @Test
+    void longKeysAreCut() {
+        HeavyHitters hitters = new HeavyHitters(1);
+        String longKey = "x".repeat(HeavyHitters.MAX_KEY_LENGTH + 10);
+        hitters.add(longKey);
+        hitters.add(null);
+
+        assertThat(hitters.top()).containsOnlyKeys("x".repeat(HeavyHitters.MAX_KEY_LENGTH));
+    }
+
+    @Test
+    void topOfKeepsTheLargestCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("a", 1L);
+        counts.put("b", 3L);
+        counts.put("c", 2L);
+
+        assertThat(HeavyHitters.topOf(counts, 2)).containsExactly(Map.entry("b", 3L), Map.entry("c", 2L));
+    }
+
+    private static void add(HeavyHitters hitters, String key, int times) {
+        for (int i = 0; i < times; i++) {
+            hitters.add(key);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.bankingplatform.streamprocessor.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TopKLeaderboardTest {
+
+    @Test
+    void answersNothingFromMemoryBeforeTheFirstReset() {
+        TopKLeaderboard<String> board = new TopKLeaderboard<>(3);
+        board.update("a", 10, "a");
+
+        assertThat(board.above(0)).isEmpty();
+    }
+
+    @Test
+    void keepsTheBestEntriesAndRaisesTheBoundOnEviction() {
+        TopKLeaderboard<String> board = emptyBoard(3);
+        board.update("a", 10, "a");
+        board.update("b", 30, "b");
+        board.update("c", 20, "c");
+        board.update("d", 40, "d");
+
+        assertThat(board.size()).isEqualTo(3);
+        assertThat(board.outsideUpperBound()).isEqualTo(10);
+        assertThat(board.above(10)).contains(List.of("d", "b", "c"));
+        assertThat(board.above(5)).isEmpty();
+    }
+
+    @Test
+    void resiftsAnEntryWhoseScoreChanges() {
+        TopKLeaderboard<String> board = emptyBoard(3);
+        board.update("a", 10, "a");
+        board.update("b", 20, "b");
+        board.update("c", 30, "c");
+
+        // "c" drops to the minimum, so it is the one a better newcomer evicts
+        board.update("c", 5, "c");
+        board.update("d", 25, "d");
+
+        assertThat(board.outsideUpperBound()).isEqualTo(5);
+        assertThat(board.above(5)).contains(List.of("d", "b", "a"));
+    }
+
+    // Random updates, including lowered scores, checked against every current score: whenever the
+    // board answers, the answer has to be exact, which only holds if heap and slot map agree
+    @Test
+    void answersMatchTheCurrentScoresUnderRandomUpdates() {
+        Random random = new Random(42);
+        TopKLeaderboard<String> board = emptyBoard(16);
+        Map<String, Double> current = new HashMap<>();
+        int answered = 0;
+
+        for (int i = 0; i < 20_000; i++) {
+            String key = "k" + random.nextInt(64);
+            double score = random.nextInt(1_000);
+            board.update(key, score, key);
+            current.put(key, score);
+
+            double threshold = random.nextInt(1_000);
+            Optional<List<String>> answer = board.above(threshold);
+            if (answer.isPresent()) {
+                answered++;
+                assertThat(answer.get()).containsExactlyInAnyOrderElementsOf(expectedAbove(current, threshold));
+                assertThat(answer.get().stream().map(current::get).toList())
+                        .isSortedAccordingTo(Comparator.reverseOrder());
+            }
+            assertThat(board.size()).isLessThanOrEqualTo(16);
+        }
+        assertThat(answered).isPositive();
+    }
+
+    @Test
+    void rebuildReplaysUpdatesMadeWhileTheSnapshotWasRead() {
+        TopKLeaderboard<String> board = emptyBoard(3);
+        board.update("a", 10, "a-old");
+        board.update("b", 20, "b-old");
+
+        board.beginRebuild();
+        // Committed after the snapshot below was read
+        board.update("a", 50, "a-new");
+        board.update("b", 1, "b-new");
+        board.reset(List.of(
+                new TopKLeaderboard.Entry<>("a", 10, "a-old"),
+                new TopKLeaderboard.Entry<>("b", 20, "b-old")), Double.NEGATIVE_INFINITY);
+
+        assertThat(board.above(0)).contains(List.of("a-new", "b-new"));
+    }
+
+    @Test
+    void cancelledRebuildStopsRecordingUpdates() {
+        TopKLeaderboard<String> board = emptyBoard(3);
+        board.beginRebuild();
+        board.update("a", 10, "a");
+        board.cancelRebuild();
+
+        board.reset(List.of(new TopKLeaderboard.Entry<>("b", 20, "b")), Double.NEGATIVE_INFINITY);
+
+        assertThat(board.above(0)).contains(List.of("b"));
+    }
+
+    private static TopKLeaderboard<String> emptyBoard(int capacity) {
+        TopKLeaderboard<String> board = new TopKLeaderboard<>(capacity);
+        board.reset(List.of(), Double.NEGATIVE_INFINITY);
+        return board;
+    }
+
+    private static List<String> expectedAbove(Map<String, Double> scores, double threshold) {
+        return scores.entrySet().stream()
+                .filter(e -> e.getValue() > threshold)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+}
@@ -0,0 +1,117 @@
+package com.bankingplatform.streamprocessor.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransferGraphTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final long HALF_LIFE = 24 * HOUR;
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    void findsTheShortestCycleClosedByANewEdge() {
+        TransferGraph graph = new TransferGraph(HALF_LIFE);
+        graph.addTransfer("A", "B", NOW);
+        graph.addTransfer("B", "C", NOW);
+        graph.addTransfer("C", "D", NOW);
+        graph.addTransfer("B", "D", NOW);
+
+        // D -> A is not in the graph yet; the shortest way back is A -> B -> D
+        assertThat(graph.shortestCycle("D", "A", NOW, 4, 100)).isEqualTo(3);
+        assertThat(graph.shortestCycle("D", "A", NOW, 2, 100)).isZero();
+        assertThat(graph.shortestCycle("A", "D", NOW, 4, 100)).isZero();
+        assertThat(graph.shortestCycle("D", "X", NOW, 4, 100)).isZero();
+    }
+
+    @Test
+    void searchGivesUpAfterMaxVisited() {
+        TransferGraph graph = new TransferGraph(HALF_LIFE);
+        for (int i = 0; i < 10; i++) {
+            graph.addTransfer("B", "N" + i, NOW);
+        }
+        graph.addTransfer("N9", "A", NOW);
+        graph.addTransfer("A", "B", NOW);
+
+        assertThat(graph.shortestCycle("A", "B", NOW, 4, 100)).isEqualTo(3);
+        assertThat(graph.shortestCycle("A", "B", NOW, 4, 5)).isZero();
+    }
+
+    @Test
+    void selfTransfersAreNotEdges() {
+        TransferGraph graph = new TransferGraph(HALF_LIFE);
+        graph.addTransfer("A", "A", NOW);
+
+        assertThat(graph.accountCount()).isZero();
+        graph.addTransfer("A", "B", NOW);
+        assertThat(graph.shortestCycle("A", "A", NOW, 4, 100)).isZero();
+        assertThat(graph.fanOut("A", "B", NOW, HOUR)).isEqualTo(1);
+    }
+
+    @Test
+    void fadedEdgesNoLongerCloseCycles() {
+        TransferGraph graph = new TransferGraph(HALF_LIFE);
+        graph.addTransfer("B", "A", NOW);
+
+        assertThat(graph.shortestCycle("A", "B", NOW + 3 * HALF_LIFE, 4, 100)).isEqualTo(2);
+        // One transfer fades below the live weight after about 3.3 half-lives
+        assertThat(graph.shortestCycle("A", "B", NOW + 4 * HALF_LIFE, 4, 100)).isZero();
+    }
+
+    @Test
+    void repeatedTransfersKeepAnEdgeAliveLonger() {
+        TransferGraph graph = new TransferGraph(HALF_LIFE);
+        for (int i = 0; i < 4; i++) {
+            graph.addTransfer("B", "A", NOW);
+        }
+
+        assertThat(graph.shortestCycle("A", "B", NOW + 4 * HALF_LIFE, 4, 100)).isEqualTo(2);
+    }
+
+    @Test
+    void fanCountsIncludeTheTransferBeingJudged() {
+        TransferGraph graph = new TransferGraph(HALF_LIFE);
+        graph.addTransfer("A", "B", NOW - 2 * HOUR);
+        graph.addTransfer("A", "C", NOW);
+        graph.addTransfer("A", "D", NOW);
+
+        assertThat(graph.fanOut("A", "C", NOW, HOUR)).isEqualTo(2);
+        // B was paid outside the window, so paying it again counts
+        assertThat(graph.fanOut("A", "B", NOW, HOUR)).isEqualTo(3);
+        assertThat(graph.fanOut("A", "E", NOW, HOUR)).isEqualTo(3);
+        assertThat(graph.fanIn("C", "A", NOW, HOUR)).isEqualTo(1);
+        assertThat(graph.fanIn("C", "E", NOW, HOUR)).isEqualTo(2);
+        assertThat(graph.fanIn("E", "A", NOW, HOUR)).isEqualTo(1);
+    }
+
+    @Test
+    void pruneReleasesAccountsWithoutLiveEdges() {
+        TransferGraph graph = new TransferGraph(HALF_LIFE);
+        graph.addTransfer("A", "B", NOW);
+        graph.addTransfer("C", "D", NOW + 10 * HALF_LIFE);
+
+        assertThat(graph.prune(NOW + 10 * HALF_LIFE)).isEqualTo(2);
+        assertThat(graph.accountCount()).isEqualTo(2);
+        assertThat(graph.fanOut("A", "B", NOW, HOUR)).isEqualTo(1);
+    }
+
+    @Test
+    void reusedIdsStartWithoutEdges() {
+        TransferGraph graph = new TransferGraph(HALF_LIFE);
+        graph.addTransfer("A", "B", NOW);
+        graph.addTransfer("B", "C", NOW);
+        long later = NOW + 10 * HALF_LIFE;
+        graph.prune(later);
+
+        // The new accounts take over the released ids
+        graph.addTransfer("X", "Y", later);
+        graph.addTransfer("Y", "Z", later);
+
+        assertThat(graph.accountCount()).isEqualTo(3);
+        assertThat(graph.fanOut("X", "Y", later, HOUR)).isEqualTo(1);
+        assertThat(graph.fanIn("Y", "X", later, HOUR)).isEqualTo(1);
+        assertThat(graph.shortestCycle("Z", "X", later, 4, 100)).isEqualTo(3);
+        assertThat(graph.shortestCycle("C", "A", later, 4, 100)).isZero();
+    }
+}
@@ -0,0 +1,120 @@
+package com.bankingplatform.streamprocessor.topology;
+
+import com.bankingplatform.streamprocessor.service.TransactionDedupService;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.processor.api.MockProcessorContext;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.Stores;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.function.ObjLongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TransactionDeduplicatorTest {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+    // Three one-hour buckets, the first starting at T0
+    private static final long T0 = 1_000 * HOUR;
+
+    private TransactionDedupService dedupService;
+    private KeyValueStore<String, byte[]> store;
+
+    @BeforeEach
+    void setUp() {
+        dedupService = mock(TransactionDedupService.class);
+        when(dedupService.getBucketMinutes()).thenReturn(60L);
+        when(dedupService.getBuckets()).thenReturn(3);
+        when(dedupService.getExpectedPerBucket()).thenReturn(1_000L);
+        when(dedupService.getFalsePositiveRate()).thenReturn(0.001);
+        // Every filter hit is confirmed, so isDuplicate reports what the filter holds
+        when(dedupService.confirmDuplicate(anyString())).thenReturn(true);
+
+        store = Stores.keyValueStoreBuilder(Stores.inMemoryKeyValueStore(TransactionDeduplicator.DEDUP_STORE),
+                Serdes.String(), Serdes.ByteArray()).withLoggingDisabled().build();
+        store.init(new MockProcessorContext<>().getStateStoreContext(), store);
+    }
+
+    @Test
+    void remembersAnIdUntilItsBucketAgesOut() {
+        TransactionDeduplicator deduplicator = new TransactionDeduplicator(dedupService, store, T0);
+        deduplicator.record("TXN-1", T0 + 10);
+
+        assertThat(deduplicator.isDuplicate("TXN-1", T0 + 2 * HOUR)).isTrue();
+        assertThat(deduplicator.isDuplicate("TXN-1", T0 + 3 * HOUR)).isFalse();
+        assertThat(deduplicator.isDuplicate("TXN-2", T0 + 10)).isFalse();
+    }
+
+    @Test
+    void rotationDropsExpiredBucketsFromTheStore() {
+        TransactionDeduplicator deduplicator = new TransactionDeduplicator(dedupService, store, T0);
+        deduplicator.record("TXN-1", T0);
+        deduplicator.checkpoint(T0);
+        deduplicator.record("TXN-2", T0 + HOUR);
+        deduplicator.checkpoint(T0 + HOUR);
+        assertThat(store.get(bucketKey(T0))).isNotNull();
+
+        deduplicator.checkpoint(T0 + 3 * HOUR);
+
+        assertThat(store.get(bucketKey(T0))).isNull();
+        assertThat(store.get(bucketKey(T0 + HOUR))).isNotNull();
+    }
+
+    @Test
+    void restoresCheckpointedBucketsFromTheStore() {
+        TransactionDeduplicator deduplicator = new TransactionDeduplicator(dedupService, store, T0);
+        deduplicator.record("TXN-1", T0);
+        deduplicator.checkpoint(T0);
+
+        TransactionDeduplicator restored = new TransactionDeduplicator(dedupService, store, T0 + HOUR);
+
+        assertThat(restored.isDuplicate("TXN-1", T0 + HOUR)).isTrue();
+    }
+
+    // An id topped up from the database goes into the bucket of its processed_at, so it ages out
+    // with that bucket rather than living on in the current one
+    @Test
+    void topsUpIdsIntoTheBucketOfTheirProcessedAt() {
+        processedRows("TXN-OLD", T0 + 5, "TXN-NEW", T0 + 2 * HOUR + 5);
+
+        TransactionDeduplicator deduplicator = new TransactionDeduplicator(dedupService, store, T0 + 2 * HOUR + 10);
+        deduplicator.checkpoint(T0 + 2 * HOUR + 10);
+
+        assertThat(store.get(bucketKey(T0))).isNotNull();
+        assertThat(deduplicator.isDuplicate("TXN-OLD", T0 + 2 * HOUR + 20)).isTrue();
+        assertThat(deduplicator.isDuplicate("TXN-OLD", T0 + 3 * HOUR)).isFalse();
+        assertThat(deduplicator.isDuplicate("TXN-NEW", T0 + 3 * HOUR)).isTrue();
+    }
+
+    @Test
+    void topUpSkipsIdsOlderThanTheWindowAndClampsFutureOnes() {
+        processedRows("TXN-AGED", T0 - HOUR, "TXN-AHEAD", T0 + 5 * HOUR);
+
+        TransactionDeduplicator deduplicator = new TransactionDeduplicator(dedupService, store, T0 + 2 * HOUR);
+
+        assertThat(deduplicator.isDuplicate("TXN-AGED", T0 + 2 * HOUR)).isFalse();
+        assertThat(deduplicator.isDuplicate("TXN-AHEAD", T0 + 2 * HOUR)).isTrue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void processedRows(String firstId, long firstAt, String secondId, long secondAt) {
+        doAnswer(invocation -> {
+            ObjLongConsumer<String> action = invocation.getArgument(1);
+            action.accept(firstId, firstAt);
+            action.accept(secondId, secondAt);
+            return null;
+        }).when(dedupService).processedSince(anyLong(), any(ObjLongConsumer.class));
+    }
+
+    private static String bucketKey(long bucketStart) {
+        return "bucket-" + String.format("%019d", bucketStart);
+    }
+}
@@ -1,7 +1,7 @@
 package com.bankingplatform.transactiongenerator.controller;
 
+import com.bankingplatform.common.event.Transaction;
 import com.bankingplatform.transactiongenerator.config.TransactionGeneratorConfig;
-import com.bankingplatform.transactiongenerator.model.Transaction;
 import com.bankingplatform.transactiongenerator.service.TransactionGeneratorService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
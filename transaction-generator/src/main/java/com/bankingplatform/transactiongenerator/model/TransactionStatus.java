@@ -1,9 +0,0 @@
-package com.bankingplatform.transactiongenerator.model;
-
-public enum TransactionStatus {
-    PENDING,
-    COMPLETED,
-    FAILED,
-    CANCELLED,
-    PROCESSING
-}
\ No newline at end of file
@@ -1,11 +0,0 @@
-package com.bankingplatform.transactiongenerator.model;
-
-public enum TransactionType {
-    PAYMENT,
-    TRANSFER,
-    WITHDRAWAL,
-    DEPOSIT,
-    REFUND,
-    SUBSCRIPTION,
-    INVESTMENT
-}
@@ -1,7 +1,7 @@
 package com.bankingplatform.transactiongenerator.scheduler;
 
+import com.bankingplatform.common.event.Transaction;
 import com.bankingplatform.transactiongenerator.config.TransactionGeneratorConfig;
-import com.bankingplatform.transactiongenerator.model.Transaction;
 import com.bankingplatform.transactiongenerator.service.TransactionGeneratorService;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
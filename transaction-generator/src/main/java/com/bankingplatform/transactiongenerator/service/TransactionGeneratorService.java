@@ -1,9 +1,10 @@
 package com.bankingplatform.transactiongenerator.service;
 
+import com.bankingplatform.common.event.Transaction;
+import com.bankingplatform.common.event.TransactionStatus;
+import com.bankingplatform.common.event.TransactionType;
+import com.bankingplatform.common.id.SnowflakeIdGenerator;
 import com.bankingplatform.transactiongenerator.config.TransactionGeneratorConfig;
-import com.bankingplatform.transactiongenerator.model.Transaction;
-import com.bankingplatform.transactiongenerator.model.TransactionStatus;
-import com.bankingplatform.transactiongenerator.model.TransactionType;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
@@ -27,6 +28,7 @@ public class TransactionGeneratorService {
     private final TransactionGeneratorConfig config;
     private final TransactionProducer transactionProducer;
     private final MeterRegistry meterRegistry;
+    private final SnowflakeIdGenerator idGenerator;
 
     // metrics
     private Counter transactionsGenerated;
@@ -69,6 +71,7 @@ public class TransactionGeneratorService {
                 .transactionId(generateTransactionId())
                 .customerId(customerId)
                 .accountNumber(getRandomAccount())
+                .counterpartyAccount(type == TransactionType.TRANSFER ? getRandomAccount() : null)
                 .type(type)
                 .amount(generateRealisticAmount(type))
                 .currency(selectRandomCurrency())
@@ -169,8 +172,7 @@ public class TransactionGeneratorService {
 
 
     private String generateTransactionId() {
-        return "TXN" + System.currentTimeMillis() +
-                ThreadLocalRandom.current().nextInt(1000, 9999);
+        return idGenerator.nextId("TXN");
     }
 
     private String generateDescription(TransactionType type) {
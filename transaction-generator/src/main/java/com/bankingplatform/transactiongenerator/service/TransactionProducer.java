@@ -1,6 +1,6 @@
 package com.bankingplatform.transactiongenerator.service;
 
-import com.bankingplatform.transactiongenerator.model.Transaction;
+import com.bankingplatform.common.event.Transaction;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -17,15 +17,15 @@ import java.util.concurrent.CompletableFuture;
 public class TransactionProducer {
 
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final KafkaTemplate<String, Transaction> kafkaTemplate;
 
     @Value("${kafka.topic.transactions:banking-transactions}")
     private String transactionTopic;
 
-    public CompletableFuture<SendResult<String, Object>> sendTransaction(Transaction transaction) {
+    public CompletableFuture<SendResult<String, Transaction>> sendTransaction(Transaction transaction) {
         log.debug("Sending transaction: {}", transaction.getTransactionId());
 
-        CompletableFuture<SendResult<String, Object>> future = kafkaTemplate.send(
+        CompletableFuture<SendResult<String, Transaction>> future = kafkaTemplate.send(
                 transactionTopic,
                 transaction.getCustomerId(), // Use customerId as partition key
                 transaction